@@ -0,0 +1,335 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.CloseableIterator;
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONArray;
+import com.invirgance.convirgance.json.JSONObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An immutable copy of a set of records. Keys are stored once per distinct 
+ * set of keys rather than once per record, and each record holds only an 
+ * array of values. Iterating creates new {@link JSONObject} instances so 
+ * that transformers can modify the records without affecting the copy.<br>
+ * <br>
+ * When a size limit is given, copying stops as soon as the estimate passes 
+ * it. The copy is then incomplete and the records that have been read are
+ * handed back to the thread that made the copy through {@link #stream()},
+ * followed by the rest of the source, rather than materializing a result 
+ * that cannot be cached.
+ * 
+ * @author jbanes
+ */
+class CachedRecords implements Iterable<JSONObject>
+{
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 8;
+    
+    private final String[][] schemas;
+    private final int[] schema;
+    private final Object[][] rows;
+    private final long bytes;
+    private final boolean complete;
+    private final Pagination.Next next;
+    private final AtomicReference<Iterator<JSONObject>> remaining;
+    private final Thread owner;
+
+    public CachedRecords(Iterable<JSONObject> records)
+    {
+        this(records, 0);
+    }
+    
+    public CachedRecords(Iterable<JSONObject> records, long maxBytes)
+    {
+        var schemas = new ArrayList<String[]>();
+        var lookup = new HashMap<List<String>,Integer>();
+        var schema = new int[16];
+        var rows = new ArrayList<Object[]>();
+        var iterator = records.iterator();
+        
+        String[] keys = null;
+        Object[] row;
+        JSONObject record;
+        long bytes = OBJECT_OVERHEAD * 4;
+        int index = -1;
+        int i;
+        boolean truncated = false;
+        
+        try
+        {
+            while(iterator.hasNext())
+            {
+                // Too large to cache, so leave the rest of the source unread
+                if(maxBytes > 0 && bytes > maxBytes)
+                {
+                    truncated = true;
+                    break;
+                }
+                
+                record = iterator.next();
+                
+                // Records from a query nearly always share the same keys
+                if(keys == null || !matches(keys, record))
+                {
+                    keys = record.keySet().toArray(new String[record.size()]);
+                    index = lookup.computeIfAbsent(Arrays.asList(keys), key -> schemas.size());
+                    
+                    if(index == schemas.size()) 
+                    {
+                        schemas.add(keys);
+                        bytes += sizeOf(keys);
+                    }
+                    
+                    keys = schemas.get(index);
+                }
+                
+                row = new Object[keys.length];
+                i = 0;
+                
+                for(Object value : record.values()) row[i++] = freeze(value);
+                
+                if(rows.size() >= schema.length) schema = Arrays.copyOf(schema, schema.length * 2);
+                
+                schema[rows.size()] = index;
+                bytes += sizeOf(row) + 4;
+                
+                rows.add(row);
+            }
+        }
+        finally
+        {
+            if(!truncated && iterator instanceof AutoCloseable)
+            {
+                try
+                {
+                    ((AutoCloseable)iterator).close();
+                }
+                catch(Exception e) { throw new ConvirganceException(e); }
+            }
+        }
+        
+        this.schemas = schemas.toArray(new String[schemas.size()][]);
+        this.schema = Arrays.copyOf(schema, rows.size());
+        this.rows = rows.toArray(new Object[rows.size()][]);
+        this.bytes = bytes;
+        this.complete = !truncated;
+        this.next = (records instanceof Pagination.Page) ? ((Pagination.Page)records).getNext() : null;
+        this.remaining = new AtomicReference<>(truncated ? iterator : null);
+        this.owner = truncated ? Thread.currentThread() : null;
+    }
+    
+    private static boolean matches(String[] keys, JSONObject record)
+    {
+        int index = 0;
+        
+        if(keys.length != record.size()) return false;
+        
+        for(String key : record.keySet())
+        {
+            if(!key.equals(keys[index++])) return false;
+        }
+        
+        return true;
+    }
+    
+    private static Object freeze(Object value)
+    {
+        // Nested objects are mutable, so keep them in their encoded form
+        if(value instanceof JSONObject) return new Nested(value.toString(), false);
+        if(value instanceof JSONArray) return new Nested(value.toString(), true);
+        
+        return value;
+    }
+    
+    private static Object thaw(Object value)
+    {
+        if(!(value instanceof Nested)) return value;
+        
+        return ((Nested)value).array ? new JSONArray(((Nested)value).json) : new JSONObject(((Nested)value).json);
+    }
+    
+    private static long sizeOf(Object[] values)
+    {
+        long size = OBJECT_OVERHEAD + (long)values.length * REFERENCE_SIZE;
+        
+        for(Object value : values)
+        {
+            if(value instanceof String) size += OBJECT_OVERHEAD * 2 + ((String)value).length();
+            else if(value instanceof Nested) size += OBJECT_OVERHEAD * 3 + ((Nested)value).json.length();
+            else if(value != null) size += OBJECT_OVERHEAD + 8;
+        }
+        
+        return size;
+    }
+    
+    /**
+     * Returns the estimated memory used by the records in bytes
+     * 
+     * @return the estimated size in bytes
+     */
+    public long getBytes()
+    {
+        return bytes;
+    }
+    
+    /**
+     * Returns the number of records
+     * 
+     * @return the number of records
+     */
+    public int size()
+    {
+        return rows.length;
+    }
+    
+    /**
+     * Returns the page that follows when the records are a page of results
+     * 
+     * @return the next page or null if there is none
+     */
+    public Pagination.Next getNext()
+    {
+        return next;
+    }
+    
+    /**
+     * Returns true if every record was copied. Incomplete copies are larger 
+     * than the size limit and must be read through {@link #stream()}.
+     * 
+     * @return true if the copy holds all of the records
+     */
+    public boolean isComplete()
+    {
+        return complete;
+    }
+    
+    /**
+     * Returns the records of an incomplete copy followed by the unread rest 
+     * of the source. The source can only be read once and may hold resources
+     * such as a JDBC connection that belong to the thread that opened it. 
+     * Only the first call from the thread that made the copy receives the 
+     * records, and they can only be iterated once.
+     * 
+     * @return the records or null if they belong to another caller
+     */
+    public Iterable<JSONObject> stream()
+    {
+        var claimed = new AtomicBoolean();
+        Iterator<JSONObject> iterator;
+        
+        if(Thread.currentThread() != owner) return null;
+        if((iterator = remaining.getAndSet(null)) == null) return null;
+        
+        return () -> {
+            if(!claimed.compareAndSet(false, true)) throw new ConvirganceException("Streamed records can only be iterated once");
+            
+            return new StreamIterator(iterator);
+        };
+    }
+
+    @Override
+    public Iterator<JSONObject> iterator()
+    {
+        return new Iterator<JSONObject>() {
+            
+            private int index;
+            
+            @Override
+            public boolean hasNext()
+            {
+                return index < rows.length;
+            }
+
+            @Override
+            public JSONObject next()
+            {
+                String[] keys;
+                Object[] row;
+                JSONObject record;
+                
+                if(!hasNext()) throw new NoSuchElementException();
+                
+                keys = schemas[schema[index]];
+                row = rows[index++];
+                record = new JSONObject(true);
+                
+                for(int i=0; i<keys.length; i++) record.put(keys[i], thaw(row[i]));
+                
+                return record;
+            }
+        };
+    }
+    
+    private class StreamIterator implements CloseableIterator<JSONObject>
+    {
+        private final Iterator<JSONObject> copied = iterator();
+        private final Iterator<JSONObject> source;
+
+        public StreamIterator(Iterator<JSONObject> source)
+        {
+            this.source = source;
+        }
+        
+        @Override
+        public boolean hasNext()
+        {
+            return copied.hasNext() || source.hasNext();
+        }
+
+        @Override
+        public JSONObject next()
+        {
+            if(copied.hasNext()) return copied.next();
+            
+            return source.next();
+        }
+
+        @Override
+        public void close() throws Exception
+        {
+            if(source instanceof AutoCloseable) ((AutoCloseable)source).close();
+        }
+    }
+    
+    private static class Nested
+    {
+        private final String json;
+        private final boolean array;
+
+        public Nested(String json, boolean array)
+        {
+            this.json = json;
+            this.array = array;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.cache.Cache;
+import com.invirgance.convirgance.web.cache.CacheTags;
+import com.invirgance.convirgance.wiring.annotation.Wiring;
+import java.util.List;
+
+/**
+ * Caches the results of another {@link Binding} by the parameters bound to it.
+ * Results are copied into a compact, immutable form and each lookup returns
+ * fresh records, so transformers can still modify them. When many requests
+ * miss on the same parameters at once, only one of them queries the wrapped
+ * binding and the rest share its result.<br>
+ * <br>
+ * The cache is limited by <code>maxEntries</code> and <code>maxBytes</code>,
+ * evicting the least recently used results first, and results expire after
+ * <code>ttl</code> milliseconds if set.
+ * 
+ * @author jbanes
+ */
+@Wiring
+public class CachingBinding implements Binding
+{
+    private Binding binding;
+    private final Cache<CachedRecords> cache = new Cache<>(CachedRecords::getBytes);
+    private List<String> tags;
+
+    /**
+     * Returns the {@link Binding} whose results are cached.
+     * 
+     * @return the wrapped binding
+     */
+    public Binding getBinding()
+    {
+        return binding;
+    }
+
+    /**
+     * Sets the {@link Binding} whose results are cached.
+     * 
+     * @param binding the binding to wrap
+     */
+    public void setBinding(Binding binding)
+    {
+        this.binding = binding;
+    }
+
+    /**
+     * Returns the maximum number of results held.
+     * 
+     * @return the maximum number of entries
+     */
+    public int getMaxEntries()
+    {
+        return cache.getMaxEntries();
+    }
+
+    /**
+     * Sets the maximum number of results held, one for each distinct set of
+     * parameters. Defaults to 1000.
+     * 
+     * @param maxEntries the maximum number of entries
+     */
+    public void setMaxEntries(int maxEntries)
+    {
+        cache.setMaxEntries(maxEntries);
+    }
+
+    /**
+     * Returns the maximum estimated memory used by cached results.
+     * 
+     * @return the maximum size in bytes or zero if unlimited
+     */
+    public long getMaxBytes()
+    {
+        return cache.getMaxBytes();
+    }
+
+    /**
+     * Sets the maximum estimated memory used by cached results. Results 
+     * larger than this are never cached, and are streamed from the wrapped
+     * binding once they pass the limit rather than copied in full. Zero (the
+     * default) limits the cache by entry count alone.
+     * 
+     * @param maxBytes the maximum size in bytes or zero for no limit
+     */
+    public void setMaxBytes(long maxBytes)
+    {
+        cache.setMaxBytes(maxBytes);
+    }
+
+    /**
+     * Returns the time in milliseconds that results are reused.
+     * 
+     * @return the time to live in milliseconds or zero if results do not expire
+     */
+    public long getTtl()
+    {
+        return cache.getTtl();
+    }
+
+    /**
+     * Sets the time in milliseconds that results are reused before the 
+     * wrapped binding is queried again. Zero (the default) keeps results
+     * until they are evicted.
+     * 
+     * @param ttl the time to live in milliseconds or zero for no expiration
+     */
+    public void setTtl(long ttl)
+    {
+        cache.setTtl(ttl);
+    }
+    
+    /**
+     * Returns the tags that cached results depend on.
+     * 
+     * @return the tags or null if none are declared
+     */
+    public List<String> getTags()
+    {
+        return tags;
+    }
+
+    /**
+     * Sets the tags that cached results depend on. When a write service 
+     * invalidates one of the tags, the results are discarded. Tags may include
+     * parameters in curly braces, such as <code>customer:{id}</code>, which
+     * are filled in from the bound parameters.
+     * 
+     * @param tags the tags cached results depend on
+     */
+    public void setTags(List<String> tags)
+    {
+        this.tags = tags;
+    }
+    
+    /**
+     * Returns the underlying cache for statistics such as hits, misses, and
+     * evictions.
+     * 
+     * @return the cache of results
+     */
+    public Cache<?> getCache()
+    {
+        return cache;
+    }
+    
+    @Override
+    public Iterable<JSONObject> getBinding(JSONObject parameters)
+    {
+        Iterable<JSONObject> stream;
+        CachedRecords records = cache.get(Cache.key(parameters), CacheTags.resolve(tags, parameters), () -> new CachedRecords(binding.getBinding(parameters), cache.getMaxBytes()));
+        
+        // Pages shared with other requests still link to the next page
+        if(records.getNext() != null) records.getNext().addLinkHeader();
+        
+        if(records.isComplete()) return records;
+        
+        // Too large to cache. The caller that ran the load streams the rest of
+        // the records and any others that shared it query the binding again.
+        stream = records.stream();
+        
+        return (stream != null) ? stream : binding.getBinding(parameters);
+    }
+}
@@ -0,0 +1,544 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONArray;
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.web.servlet.ServiceState;
+import com.invirgance.convirgance.wiring.annotation.Wiring;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pushes pagination down into the SQL of a {@link QueryBinding} so that only
+ * one page of rows is read from the database. Two modes are supported:
+ * 
+ * <ul>
+ *   <li><b>Offset</b> - When no <code>keys</code> are set, a limit and offset
+ *       are appended to the SQL, which should end with an ORDER BY clause.
+ *       Pages are selected with the <code>page</code> parameter starting 
+ *       from 1. Simple, but the database still walks past every skipped row.</li>
+ *   <li><b>Keyset</b> - When <code>keys</code> lists the columns of a unique
+ *       sort order, the SQL is wrapped to order by those columns and seek past
+ *       the last row of the previous page. Pages are selected with an opaque
+ *       <code>cursor</code> token, so deep pages cost the same as the first.</li>
+ * </ul>
+ * 
+ * The page, limit, and cursor values are read from the bound parameters, so 
+ * they must be declared as parameters of the service. For example:
+ * 
+ * <pre>
+ * &lt;parameters&gt;
+ *     &lt;RequestParameter&gt;&lt;name&gt;cursor&lt;/name&gt;&lt;/RequestParameter&gt;
+ *     &lt;RequestParameter&gt;&lt;name&gt;limit&lt;/name&gt;&lt;/RequestParameter&gt;
+ * &lt;/parameters&gt;
+ * </pre>
+ * 
+ * When another page follows, a <code>Link</code> header with 
+ * <code>rel="next"</code> is added to the response. One extra row is read to
+ * find out whether there is a next page. The next page is kept with results
+ * cached by {@link CachingBinding}, so the header is added to cached pages 
+ * as well.
+ * 
+ * @author jbanes
+ */
+@Wiring
+public class Pagination
+{
+    private static final String LIMIT_BINDING = "convirgance_page_limit";
+    private static final String OFFSET_BINDING = "convirgance_page_offset";
+    private static final String CURSOR_BINDING = "convirgance_page_cursor";
+    
+    private int limit = 100;
+    private int maxLimit = 1000;
+    private List<String> keys;
+    private boolean fetchSyntax;
+    
+    private String pageParameter = "page";
+    private String limitParameter = "limit";
+    private String cursorParameter = "cursor";
+
+    /**
+     * Returns the number of rows in a page when the client does not ask for
+     * a different limit.
+     * 
+     * @return the default page size
+     */
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Sets the number of rows in a page when the client does not ask for a
+     * different limit. Defaults to 100.
+     * 
+     * @param limit the default page size
+     */
+    public void setLimit(int limit)
+    {
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the largest page size a client can ask for.
+     * 
+     * @return the maximum page size
+     */
+    public int getMaxLimit()
+    {
+        return maxLimit;
+    }
+
+    /**
+     * Sets the largest page size a client can ask for. Larger limits are 
+     * reduced to this size. Defaults to 1000.
+     * 
+     * @param maxLimit the maximum page size
+     */
+    public void setMaxLimit(int maxLimit)
+    {
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Returns the columns used for keyset pagination.
+     * 
+     * @return the sort key columns or null if offset pagination is used
+     */
+    public List<String> getKeys()
+    {
+        return keys;
+    }
+
+    /**
+     * Sets the columns used for keyset pagination. Together the columns must 
+     * uniquely identify a row, e.g. <code>created</code> followed by 
+     * <code>id</code>. Append <code>DESC</code> to a column to sort it in 
+     * descending order. The columns should be numbers or strings so that they
+     * survive being encoded into the cursor.
+     * 
+     * @param keys the sort key columns
+     */
+    public void setKeys(List<String> keys)
+    {
+        this.keys = keys;
+    }
+
+    /**
+     * Returns true if the SQL standard <code>OFFSET ... FETCH</code> syntax is 
+     * used instead of <code>LIMIT ... OFFSET</code>.
+     * 
+     * @return true if the standard syntax is used
+     */
+    public boolean isFetchSyntax()
+    {
+        return fetchSyntax;
+    }
+
+    /**
+     * Set to true for databases that do not support <code>LIMIT</code>, such
+     * as Oracle, SQL Server, and Derby. Defaults to false.
+     * 
+     * @param fetchSyntax true to use <code>OFFSET ... FETCH</code>
+     */
+    public void setFetchSyntax(boolean fetchSyntax)
+    {
+        this.fetchSyntax = fetchSyntax;
+    }
+
+    /**
+     * Returns the name of the parameter holding the page number.
+     * 
+     * @return the parameter name
+     */
+    public String getPageParameter()
+    {
+        return pageParameter;
+    }
+
+    /**
+     * Sets the name of the parameter holding the page number for offset 
+     * pagination. Defaults to <code>page</code>.
+     * 
+     * @param pageParameter the parameter name
+     */
+    public void setPageParameter(String pageParameter)
+    {
+        this.pageParameter = pageParameter;
+    }
+
+    /**
+     * Returns the name of the parameter holding the page size.
+     * 
+     * @return the parameter name
+     */
+    public String getLimitParameter()
+    {
+        return limitParameter;
+    }
+
+    /**
+     * Sets the name of the parameter holding the page size. Defaults to 
+     * <code>limit</code>.
+     * 
+     * @param limitParameter the parameter name
+     */
+    public void setLimitParameter(String limitParameter)
+    {
+        this.limitParameter = limitParameter;
+    }
+
+    /**
+     * Returns the name of the parameter holding the cursor.
+     * 
+     * @return the parameter name
+     */
+    public String getCursorParameter()
+    {
+        return cursorParameter;
+    }
+
+    /**
+     * Sets the name of the parameter holding the cursor for keyset 
+     * pagination. Defaults to <code>cursor</code>.
+     * 
+     * @param cursorParameter the parameter name
+     */
+    public void setCursorParameter(String cursorParameter)
+    {
+        this.cursorParameter = cursorParameter;
+    }
+    
+    private static int toInt(Object value, int defaultValue)
+    {
+        if(value == null || value.toString().isBlank()) return defaultValue;
+        if(value instanceof Number) return ((Number)value).intValue();
+        
+        try
+        {
+            return Integer.parseInt(value.toString().trim());
+        }
+        catch(NumberFormatException e)
+        {
+            throw new ConvirganceException("Invalid page value: " + value);
+        }
+    }
+    
+    private static String trim(String sql)
+    {
+        int end = sql.length();
+        
+        while(end > 0 && (Character.isWhitespace(sql.charAt(end-1)) || sql.charAt(end-1) == ';')) end--;
+        
+        return sql.substring(0, end);
+    }
+    
+    private static String column(String key)
+    {
+        return key.trim().split("\\s+")[0];
+    }
+    
+    private static boolean descending(String key)
+    {
+        return key.trim().toUpperCase().endsWith(" DESC");
+    }
+    
+    private String limit(StringBuilder sql, boolean offset)
+    {
+        if(fetchSyntax)
+        {
+            sql.append(" OFFSET ").append(offset ? ":" + OFFSET_BINDING : "0").append(" ROWS FETCH NEXT :").append(LIMIT_BINDING).append(" ROWS ONLY");
+        }
+        else
+        {
+            sql.append(" LIMIT :").append(LIMIT_BINDING);
+            
+            if(offset) sql.append(" OFFSET :").append(OFFSET_BINDING);
+        }
+        
+        return sql.toString();
+    }
+    
+    /**
+     * Builds the SQL for a page of an offset query
+     * 
+     * @param sql the SQL of the binding
+     * @return the SQL with limit and offset bindings appended
+     */
+    String offsetSql(String sql)
+    {
+        return limit(new StringBuilder(trim(sql)), true);
+    }
+    
+    /**
+     * Builds the SQL for a page of a keyset query
+     * 
+     * @param sql the SQL of the binding
+     * @param seek true if the page follows a cursor
+     * @return the SQL wrapped with the seek condition, ordering, and limit
+     */
+    String keysetSql(String sql, boolean seek)
+    {
+        var buffer = new StringBuilder("SELECT * FROM (").append(trim(sql)).append(") convirgance_page");
+        
+        if(seek)
+        {
+            buffer.append(" WHERE ");
+            
+            // (k0 > :c0) OR (k0 = :c0 AND k1 > :c1) OR ...
+            for(int i=0; i<keys.size(); i++)
+            {
+                if(i > 0) buffer.append(" OR ");
+                
+                buffer.append('(');
+                
+                for(int j=0; j<i; j++)
+                {
+                    buffer.append(column(keys.get(j))).append(" = :").append(CURSOR_BINDING).append(j).append(" AND ");
+                }
+                
+                buffer.append(column(keys.get(i))).append(descending(keys.get(i)) ? " < :" : " > :").append(CURSOR_BINDING).append(i);
+                buffer.append(')');
+            }
+        }
+        
+        buffer.append(" ORDER BY ");
+        
+        for(int i=0; i<keys.size(); i++)
+        {
+            if(i > 0) buffer.append(", ");
+            
+            buffer.append(column(keys.get(i))).append(descending(keys.get(i)) ? " DESC" : " ASC");
+        }
+        
+        return limit(buffer, false);
+    }
+    
+    /**
+     * Encodes the sort key values of a row as an opaque cursor token
+     * 
+     * @param record the last row of a page
+     * @return the cursor for the following page
+     */
+    String encodeCursor(JSONObject record)
+    {
+        var values = new JSONArray<Object>();
+        
+        for(String key : keys) values.add(record.get(column(key)));
+        
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(values.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a cursor token back into sort key values
+     * 
+     * @param cursor the cursor token
+     * @return the sort key values of the last row of the previous page
+     */
+    JSONArray decodeCursor(String cursor)
+    {
+        JSONArray values;
+        
+        try
+        {
+            values = new JSONArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        }
+        catch(RuntimeException e)
+        {
+            throw new ConvirganceException("Invalid cursor: " + cursor);
+        }
+        
+        if(values.size() != keys.size()) throw new ConvirganceException("Invalid cursor: " + cursor);
+        
+        return values;
+    }
+    
+    /**
+     * Executes a single page of the query.
+     * 
+     * @param binding the binding to query
+     * @param parameters the bound parameters, including the page parameters
+     * @return the rows of the page
+     */
+    public Iterable<JSONObject> query(QueryBinding binding, JSONObject parameters)
+    {
+        var sql = binding.getSql();
+        var bindings = new JSONObject();
+        var size = Math.max(1, Math.min(maxLimit, toInt(parameters.get(limitParameter), limit)));
+        var page = Math.max(1, toInt(parameters.get(pageParameter), 1));
+        var cursor = parameters.get(cursorParameter);
+        var records = new ArrayList<JSONObject>(Math.min(size + 1, 1024));
+        Next next = null;
+        String query;
+        
+        bindings.putAll(parameters);
+        bindings.put(LIMIT_BINDING, size + 1);
+        
+        if(keys == null || keys.isEmpty())
+        {
+            bindings.put(OFFSET_BINDING, (long)(page - 1) * size);
+            
+            query = offsetSql(sql);
+        }
+        else if(cursor != null && !cursor.toString().isBlank())
+        {
+            var values = decodeCursor(cursor.toString());
+            
+            for(int i=0; i<values.size(); i++) bindings.put(CURSOR_BINDING + i, values.get(i));
+            
+            query = keysetSql(sql, true);
+        }
+        else
+        {
+            query = keysetSql(sql, false);
+        }
+        
+        var iterator = binding.query(query, bindings).iterator();
+        
+        try
+        {
+            while(iterator.hasNext() && records.size() <= size) records.add(iterator.next());
+        }
+        finally
+        {
+            if(iterator instanceof AutoCloseable)
+            {
+                try
+                {
+                    ((AutoCloseable)iterator).close();
+                }
+                catch(Exception e) { throw new ConvirganceException(e); }
+            }
+        }
+        
+        // The extra row only tells us that there is a next page
+        if(records.size() > size)
+        {
+            records.remove(size);
+            
+            if(keys == null || keys.isEmpty()) next = new Next(pageParameter, String.valueOf(page + 1));
+            else next = new Next(cursorParameter, encodeCursor(records.get(size - 1)));
+            
+            next.addLinkHeader();
+        }
+        
+        return new Page(records, next);
+    }
+    
+    private static String link(String name, String value)
+    {
+        var request = (HttpRequest)ServiceState.get("request");
+        var query = request == null ? null : request.getQueryString();
+        var buffer = new StringBuilder();
+        
+        if(request == null) return null;
+        
+        buffer.append(request.getRequestURI()).append('?');
+        
+        if(query != null)
+        {
+            for(String pair : query.split("&"))
+            {
+                if(pair.isEmpty() || pair.equals(name) || pair.startsWith(name + "=")) continue;
+                
+                buffer.append(pair).append('&');
+            }
+        }
+        
+        buffer.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        
+        return buffer.toString();
+    }
+    
+    /**
+     * The parameter that selects the page after a page of results
+     */
+    static class Next
+    {
+        private final String parameter;
+        private final String value;
+
+        public Next(String parameter, String value)
+        {
+            this.parameter = parameter;
+            this.value = value;
+        }
+        
+        /**
+         * Adds the <code>Link</code> header for the next page to the current
+         * response unless it is already present
+         */
+        public void addLinkHeader()
+        {
+            var response = (HttpResponse)ServiceState.get("response");
+            var link = link(parameter, value);
+            String header;
+            
+            if(response == null || link == null) return;
+            
+            header = "<" + link + ">; rel=\"next\"";
+            
+            for(String existing : response.getHeaders("Link"))
+            {
+                if(header.equals(existing)) return;
+            }
+            
+            response.addHeader("Link", header);
+        }
+    }
+    
+    /**
+     * A page of results along with the page that follows it, if any
+     */
+    static class Page implements Iterable<JSONObject>
+    {
+        private final List<JSONObject> records;
+        private final Next next;
+
+        public Page(List<JSONObject> records, Next next)
+        {
+            this.records = records;
+            this.next = next;
+        }
+        
+        public Next getNext()
+        {
+            return next;
+        }
+
+        @Override
+        public Iterator<JSONObject> iterator()
+        {
+            return records.iterator();
+        }
+    }
+}
@@ -22,11 +22,11 @@ SOFTWARE.
 package com.invirgance.convirgance.web.binding;
 
 import com.invirgance.convirgance.ConvirganceException;
-import com.invirgance.convirgance.dbms.DBMS;
-import com.invirgance.convirgance.dbms.Query;
 import com.invirgance.convirgance.json.JSONObject;
 import com.invirgance.convirgance.web.servlet.ApplicationInitializer;
 import com.invirgance.convirgance.wiring.annotation.Wiring;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.sql.DataSource;
 
 /**
@@ -42,6 +42,15 @@ public class QueryBinding implements Binding
 {
     private String jndiName;
     private String sql;
+    private Pagination pagination;
+    
+    private int fetchSize;
+    private int maxRows;
+    private int queryTimeout;
+    private boolean readOnly;
+    private boolean readYourWrites;
+    
+    private final Map<String,SqlTemplate> templates = new ConcurrentHashMap<>();
 
     /**
      * The JNDI name used to look up the database connection.
@@ -88,16 +97,147 @@ public class QueryBinding implements Binding
         this.sql = sql;
     }
     
-    private DBMS lookup()
+    /**
+     * Returns the pagination applied to the query, if any.
+     * 
+     * @return the pagination or null if all rows are returned
+     */
+    public Pagination getPagination()
     {
-        DataSource source = ApplicationInitializer.lookup(this.jndiName);
-        
-        if(jndiName == null) throw new ConvirganceException("jndiName property must be set!");
-        if(source == null) return DBMS.lookup(jndiName);
-        
-        return new DBMS(source);
+        return pagination;
+    }
+
+    /**
+     * Pushes paging down into the SQL so that only a single page of rows is
+     * read from the database. See {@link Pagination} for the supported modes.
+     * 
+     * @param pagination the pagination to apply
+     */
+    public void setPagination(Pagination pagination)
+    {
+        this.pagination = pagination;
+    }
+    
+    /**
+     * Returns the number of rows the driver is asked to fetch from the
+     * database at a time.
+     * 
+     * @return the fetch size or 0 for the driver default
+     */
+    public int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the number of rows the driver should fetch from the database at a
+     * time. Many drivers read the entire result into memory by default. A
+     * fetch size streams the result instead, keeping memory use constant and
+     * letting the first rows be written while the rest are still being read.
+     * PostgreSQL only streams inside a transaction, so auto-commit is turned
+     * off on the connection while the query runs. Defaults to 0, the driver 
+     * default.
+     * 
+     * @param fetchSize the number of rows per fetch
+     */
+    public void setFetchSize(int fetchSize)
+    {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Returns the maximum number of rows the query can return.
+     * 
+     * @return the maximum number of rows or 0 for no limit
+     */
+    public int getMaxRows()
+    {
+        return maxRows;
+    }
+
+    /**
+     * Sets the maximum number of rows the query can return. Additional rows
+     * are silently dropped by the driver. Defaults to 0, no limit.
+     * 
+     * @param maxRows the maximum number of rows
+     */
+    public void setMaxRows(int maxRows)
+    {
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Returns the number of seconds the driver will wait for the query to
+     * execute.
+     * 
+     * @return the timeout in seconds or 0 for no timeout
+     */
+    public int getQueryTimeout()
+    {
+        return queryTimeout;
     }
 
+    /**
+     * Sets the number of seconds the driver will wait for the query to 
+     * execute before cancelling it. Defaults to 0, no timeout.
+     * 
+     * @param queryTimeout the timeout in seconds
+     */
+    public void setQueryTimeout(int queryTimeout)
+    {
+        this.queryTimeout = queryTimeout;
+    }
+
+    /**
+     * Returns true if the connection is marked read-only while the query runs.
+     * 
+     * @return true if the connection is read-only
+     */
+    public boolean isReadOnly()
+    {
+        return readOnly;
+    }
+
+    /**
+     * Marks the connection read-only while the query runs, allowing the 
+     * driver to optimize for reads. Defaults to false.
+     * 
+     * @param readOnly true to mark the connection read-only
+     */
+    public void setReadOnly(boolean readOnly)
+    {
+        this.readOnly = readOnly;
+    }
+    
+    /**
+     * Returns true if this binding must see writes that were just made
+     * 
+     * @return true if recent writes must be visible
+     */
+    public boolean isReadYourWrites()
+    {
+        return readYourWrites;
+    }
+
+    /**
+     * When the JNDI name is bound to a 
+     * {@link com.invirgance.convirgance.web.datasource.RoutingDataSource}, 
+     * queries are sent to the read replicas. Set to true to send queries to 
+     * the primary shortly after a write, so that the write is always visible.
+     * Defaults to false.
+     * 
+     * @param readYourWrites true if recent writes must be visible
+     */
+    public void setReadYourWrites(boolean readYourWrites)
+    {
+        this.readYourWrites = readYourWrites;
+    }
+    
+    private DataSource source()
+    {
+        return ApplicationInitializer.resolveReader(jndiName, readYourWrites);
+    }
+    
     /**
      * Executes the SQL query with the provided parameters.
      * Parameter values are bound to named parameters in the SQL query.
@@ -108,9 +248,25 @@ public class QueryBinding implements Binding
     @Override
     public Iterable<JSONObject> getBinding(JSONObject parameters)
     {
-        DBMS dbms = lookup();
-        Query query = new Query(sql, parameters);
+        if(sql == null) throw new ConvirganceException("sql property must be set!");
+        if(pagination != null) return pagination.query(this, parameters);
         
-        return dbms.query(query);
+        return query(sql, parameters);
+    }
+    
+    /**
+     * Executes SQL against the database of this binding. The SQL is parsed 
+     * into a {@link SqlTemplate} the first time it is seen and only bound 
+     * for each request. Results are streamed from a forward-only, read-only
+     * cursor with any statement options applied. Values are converted the
+     * same way as the writes of {@link SqlTemplate}.
+     * 
+     * @param sql the SQL to execute
+     * @param bindings values for the named bindings
+     * @return the results of the query
+     */
+    Iterable<JSONObject> query(String sql, JSONObject bindings)
+    {
+        return new QueryCursor(source(), templates.computeIfAbsent(sql, SqlTemplate::new), bindings, this);
     }
 }
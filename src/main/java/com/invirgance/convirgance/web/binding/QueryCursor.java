@@ -0,0 +1,215 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.CloseableIterator;
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.sql.DataSource;
+
+/**
+ * Streams the results of a query straight from a forward-only, read-only
+ * JDBC cursor with the statement options of a {@link QueryBinding} applied.
+ * The SQL is prepared from a {@link SqlTemplate}, so it is not parsed again
+ * for each request.
+ * Rows are read as the iterator advances, so memory use is bounded by the 
+ * fetch size rather than the size of the result. The connection is released
+ * when the iterator is exhausted or closed. Values are read with 
+ * {@link SqlTemplate#read(ResultSet, int)}.
+ * 
+ * @author jbanes
+ */
+class QueryCursor implements Iterable<JSONObject>
+{
+    private final DataSource source;
+    private final SqlTemplate template;
+    private final JSONObject bindings;
+    private final QueryBinding options;
+
+    /**
+     * Creates a cursor that will execute the query each time it is iterated
+     * 
+     * @param source the database to query
+     * @param template the parsed SQL
+     * @param bindings values for the named bindings
+     * @param options the binding holding the statement options
+     */
+    public QueryCursor(DataSource source, SqlTemplate template, JSONObject bindings, QueryBinding options)
+    {
+        this.source = source;
+        this.template = template;
+        this.bindings = bindings;
+        this.options = options;
+    }
+    
+    @Override
+    public Iterator<JSONObject> iterator()
+    {
+        return new CursorIterator();
+    }
+    
+    private class CursorIterator implements CloseableIterator<JSONObject>
+    {
+        private Connection connection;
+        private PreparedStatement statement;
+        private ResultSet set;
+        private String[] columns;
+        private boolean transaction;
+        private boolean readOnly;
+        private boolean fetched;
+        private boolean next;
+
+        public CursorIterator()
+        {
+            try
+            {
+                open();
+            }
+            catch(SQLException e)
+            {
+                close();
+                
+                throw new ConvirganceException(e);
+            }
+        }
+        
+        private void open() throws SQLException
+        {
+            ResultSetMetaData metadata;
+            
+            connection = source.getConnection();
+            readOnly = connection.isReadOnly();
+            
+            // Drivers such as PostgreSQL only honor the fetch size inside a transaction
+            if(options.getFetchSize() > 0 && connection.getAutoCommit())
+            {
+                connection.setAutoCommit(false);
+                transaction = true;
+            }
+            
+            if(options.isReadOnly() && !readOnly) connection.setReadOnly(true);
+            
+            statement = connection.prepareStatement(template.getJdbcSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            
+            if(options.getFetchSize() > 0) statement.setFetchSize(options.getFetchSize());
+            if(options.getMaxRows() > 0) statement.setMaxRows(options.getMaxRows());
+            if(options.getQueryTimeout() > 0) statement.setQueryTimeout(options.getQueryTimeout());
+            
+            template.set(statement, template.bind(bindings));
+            
+            set = statement.executeQuery();
+            metadata = set.getMetaData();
+            columns = new String[metadata.getColumnCount()];
+            
+            for(int i=0; i<columns.length; i++) columns[i] = metadata.getColumnLabel(i+1);
+        }
+        
+        @Override
+        public boolean hasNext()
+        {
+            if(fetched) return next;
+            if(set == null) return false;
+            
+            try
+            {
+                next = set.next();
+                fetched = true;
+            }
+            catch(SQLException e)
+            {
+                close();
+                
+                throw new ConvirganceException(e);
+            }
+            
+            if(!next) close();
+            
+            return next;
+        }
+
+        @Override
+        public JSONObject next()
+        {
+            var record = new JSONObject(true);
+            
+            if(!hasNext()) throw new NoSuchElementException();
+            
+            try
+            {
+                for(int i=0; i<columns.length; i++) record.put(columns[i], SqlTemplate.read(set, i+1));
+            }
+            catch(SQLException e)
+            {
+                close();
+                
+                throw new ConvirganceException(e);
+            }
+            
+            fetched = false;
+            
+            return record;
+        }
+
+        @Override
+        public void close()
+        {
+            if(connection == null) return;
+            
+            try
+            {
+                if(set != null) set.close();
+                if(statement != null) statement.close();
+                
+                // Only end the transaction this cursor started, never the caller's
+                if(transaction)
+                {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                
+                if(connection.isReadOnly() != readOnly) connection.setReadOnly(readOnly);
+            }
+            catch(SQLException e) { /* Connection is closed below regardless */ }
+            finally
+            {
+                try
+                {
+                    connection.close();
+                }
+                catch(SQLException e) { /* Nothing more can be done */ }
+                
+                connection = null;
+                statement = null;
+                set = null;
+            }
+        }
+    }
+}
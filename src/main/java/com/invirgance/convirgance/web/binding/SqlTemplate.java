@@ -0,0 +1,340 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.dbms.AtomicOperation;
+import com.invirgance.convirgance.json.JSONArray;
+import com.invirgance.convirgance.json.JSONObject;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL with named bindings (e.g. <code>:id</code>) parsed into JDBC SQL with 
+ * positional <code>?</code> markers. Bindings inside quoted strings, quoted 
+ * identifiers, and comments are left alone, as are PostgreSQL style 
+ * <code>::type</code> casts.<br>
+ * <br>
+ * Templates are thread safe. Configured SQL should be parsed once
+ * when it is set, then bound to the parameters of each request with 
+ * {@link #bind(JSONObject...)}, {@link #update(JSONObject...)}, or 
+ * {@link #batch(List)}. Binding only looks up values and never re-parses the
+ * SQL.<br>
+ * <br>
+ * Reads and writes convert values the same way. Nested JSON objects and
+ * arrays are bound as JSON text, dates as timestamps, and nulls with the
+ * parameter's type. Values read back with {@link #read(ResultSet, int)} 
+ * have large objects and SQL arrays copied into plain values.
+ * 
+ * @author jbanes
+ */
+public class SqlTemplate
+{
+    private final String sql;
+    private final String jdbc;
+    private final String[] names;
+    
+    private volatile int[] types;
+
+    /**
+     * Parses the SQL
+     * 
+     * @param sql SQL with named bindings
+     */
+    public SqlTemplate(String sql)
+    {
+        var buffer = new StringBuilder(sql.length());
+        var names = new ArrayList<String>();
+        int length = sql.length();
+        int start;
+        char c;
+        
+        for(int i=0; i<length; i++)
+        {
+            c = sql.charAt(i);
+            
+            if(c == '\'' || c == '"')
+            {
+                start = i++;
+                
+                while(i < length && sql.charAt(i) != c) i++;
+                
+                buffer.append(sql, start, Math.min(i+1, length));
+            }
+            else if(c == '-' && i+1 < length && sql.charAt(i+1) == '-')
+            {
+                start = i;
+                
+                while(i < length && sql.charAt(i) != '\n') i++;
+                
+                buffer.append(sql, start, Math.min(i+1, length));
+            }
+            else if(c == '/' && i+1 < length && sql.charAt(i+1) == '*')
+            {
+                start = i;
+                i = sql.indexOf("*/", i+2);
+                i = (i < 0) ? length : i+1;
+                
+                buffer.append(sql, start, Math.min(i+1, length));
+            }
+            else if(c == ':' && i+1 < length && sql.charAt(i+1) == ':')
+            {
+                buffer.append("::");
+                i++;
+            }
+            else if(c == ':' && i+1 < length && Character.isJavaIdentifierStart(sql.charAt(i+1)))
+            {
+                start = ++i;
+                
+                while(i+1 < length && Character.isJavaIdentifierPart(sql.charAt(i+1))) i++;
+                
+                names.add(sql.substring(start, i+1));
+                buffer.append('?');
+            }
+            else
+            {
+                buffer.append(c);
+            }
+        }
+        
+        this.sql = sql;
+        this.jdbc = buffer.toString();
+        this.names = names.toArray(String[]::new);
+    }
+
+    /**
+     * Returns the SQL as originally provided
+     * 
+     * @return SQL with named bindings
+     */
+    public String getSql()
+    {
+        return sql;
+    }
+
+    /**
+     * Returns the SQL to prepare with JDBC
+     * 
+     * @return SQL with positional bindings
+     */
+    public String getJdbcSql()
+    {
+        return jdbc;
+    }
+
+    /**
+     * Returns the name of each positional binding in order. A name appears 
+     * once for each time it is used in the SQL.
+     * 
+     * @return the binding names
+     */
+    public String[] getNames()
+    {
+        return names;
+    }
+    
+    /**
+     * Looks up the value of each positional binding. Each name is looked up
+     * in the sources in order, using the first source that contains it.
+     * 
+     * @param sources the objects holding values for the named bindings
+     * @return the values in positional order
+     */
+    public Object[] bind(JSONObject... sources)
+    {
+        var values = new Object[names.length];
+        
+        for(int i=0; i<names.length; i++)
+        {
+            for(JSONObject source : sources)
+            {
+                if(source == null || !source.containsKey(names[i])) continue;
+                
+                values[i] = source.get(names[i]);
+                break;
+            }
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Reads a column of the current row. Large objects and SQL arrays are 
+     * read into strings, byte arrays, and {@link JSONArray}s so that records
+     * remain usable after the result set moves on or is closed. Other values
+     * are returned as the driver provides them.
+     * 
+     * @param set the result set positioned on a row
+     * @param column the column index starting from 1
+     * @return the value of the column
+     * @throws SQLException if the value cannot be read
+     */
+    static Object read(ResultSet set, int column) throws SQLException
+    {
+        Object value = set.getObject(column);
+        Object elements;
+        JSONArray array;
+        
+        if(value instanceof Clob) return ((Clob)value).getSubString(1, (int)((Clob)value).length());
+        if(value instanceof Blob) return ((Blob)value).getBytes(1, (int)((Blob)value).length());
+        if(value instanceof SQLXML) return ((SQLXML)value).getString();
+        
+        if(value instanceof Array)
+        {
+            elements = ((Array)value).getArray();
+            array = new JSONArray();
+            
+            // Some drivers return arrays of primitives
+            for(int i=0; i<java.lang.reflect.Array.getLength(elements); i++) array.add(java.lang.reflect.Array.get(elements, i));
+            
+            return array;
+        }
+        
+        return value;
+    }
+    
+    private int[] types(PreparedStatement statement)
+    {
+        int[] types = this.types;
+        ParameterMetaData metadata;
+        
+        if(types != null) return types;
+        
+        // Looked up once per template since it can cost a round trip
+        try
+        {
+            metadata = statement.getParameterMetaData();
+            types = new int[names.length];
+            
+            for(int i=0; i<types.length; i++) types[i] = metadata.getParameterType(i+1);
+        }
+        catch(SQLException e)
+        {
+            types = new int[0];
+        }
+        
+        this.types = types;
+        
+        return types;
+    }
+    
+    private void setNull(PreparedStatement statement, int index) throws SQLException
+    {
+        int[] types = types(statement);
+        
+        // Drivers such as Oracle reject Types.NULL, so use the real type when known
+        if(index > types.length) statement.setObject(index, null);
+        else statement.setNull(index, types[index-1]);
+    }
+    
+    /**
+     * Sets the bound values on a statement prepared from {@link #getJdbcSql()}
+     * 
+     * @param statement the prepared statement
+     * @param values values returned by {@link #bind(JSONObject...)}
+     * @throws SQLException if the driver rejects a value
+     */
+    public void set(PreparedStatement statement, Object[] values) throws SQLException
+    {
+        Object value;
+        
+        for(int i=0; i<values.length; i++)
+        {
+            value = values[i];
+            
+            if(value == null) setNull(statement, i+1);
+            else if(value instanceof JSONObject || value instanceof JSONArray) statement.setString(i+1, value.toString());
+            else if(value.getClass() == java.util.Date.class) statement.setTimestamp(i+1, new Timestamp(((java.util.Date)value).getTime()));
+            else if(value instanceof BigInteger) statement.setBigDecimal(i+1, new BigDecimal((BigInteger)value));
+            else statement.setObject(i+1, value);
+        }
+    }
+    
+    /**
+     * Creates an operation that executes the SQL as an update once
+     * 
+     * @param sources the objects holding values for the named bindings
+     * @return an operation that can be added to a transaction
+     */
+    public AtomicOperation update(JSONObject... sources)
+    {
+        return new Update(List.<Object[]>of(bind(sources)));
+    }
+    
+    /**
+     * Creates an operation that executes the SQL as a single JDBC batch with
+     * one entry for each set of values. The statement is only prepared once.
+     * 
+     * @param values values returned by {@link #bind(JSONObject...)}
+     * @return an operation that can be added to a transaction
+     */
+    public AtomicOperation batch(List<Object[]> values)
+    {
+        return new Update(values);
+    }
+    
+    private class Update implements AtomicOperation
+    {
+        private final List<Object[]> values;
+
+        public Update(List<Object[]> values)
+        {
+            this.values = values;
+        }
+
+        @Override
+        public void execute(Connection connection) throws SQLException
+        {
+            try(var statement = connection.prepareStatement(jdbc))
+            {
+                if(values.size() == 1)
+                {
+                    set(statement, values.get(0));
+                    statement.executeUpdate();
+                    
+                    return;
+                }
+                
+                for(Object[] row : values)
+                {
+                    set(statement, row);
+                    statement.addBatch();
+                }
+                
+                if(!values.isEmpty()) statement.executeBatch();
+            }
+        }
+    }
+}
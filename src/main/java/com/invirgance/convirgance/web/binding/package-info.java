@@ -38,6 +38,12 @@ SOFTWARE.
  *      the filesystem</li>
  *   <li>{@link ClasspathInputBinding} - Binding for reading JSON from the 
  *      application classpath</li>
+ *   <li>{@link CachingBinding} - Caches the results of another binding by
+ *      the parameters bound to it</li>
+ *   <li>{@link Pagination} - Offset or keyset paging pushed down into the SQL
+ *      of a {@link QueryBinding}</li>
+ *   <li>{@link SqlTemplate} - SQL with named bindings parsed once and bound
+ *      cheaply for each request</li>
  * </ul>
  * 
  * <p>Typical usage scenarios:</p>
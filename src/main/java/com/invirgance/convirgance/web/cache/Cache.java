@@ -0,0 +1,482 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.cache;
+
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A least-recently-used cache bounded by entry count and by an estimated size
+ * in bytes, with optional expiration. Loading through 
+ * {@link #get(String, Supplier)} is single-flight: when many threads miss on
+ * the same key at once, only one of them runs the loader and the others wait
+ * for its result.<br>
+ * <br>
+ * Entries can depend on tags registered with {@link CacheTags}, which 
+ * removes them when a tag is invalidated.
+ * 
+ * @param <V> the type of value cached
+ * @author jbanes
+ */
+public class Cache<V>
+{
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<String,Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String,CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    
+    private int maxEntries = 1000;
+    private long maxBytes;
+    private long ttl;
+    
+    private long bytes;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * Creates a new cache.
+     * 
+     * @param weigher estimates the size in bytes of a value
+     */
+    public Cache(ToLongFunction<V> weigher)
+    {
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the maximum number of entries held.
+     * 
+     * @return the maximum number of entries
+     */
+    public int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    /**
+     * Sets the maximum number of entries held. The least recently used 
+     * entries are evicted once the limit is reached. Defaults to 1000.
+     * 
+     * @param maxEntries the maximum number of entries
+     */
+    public synchronized void setMaxEntries(int maxEntries)
+    {
+        this.maxEntries = maxEntries;
+        
+        evict();
+    }
+
+    /**
+     * Returns the maximum estimated size in bytes of all entries.
+     * 
+     * @return the maximum size in bytes or zero if unlimited
+     */
+    public long getMaxBytes()
+    {
+        return maxBytes;
+    }
+
+    /**
+     * Sets the maximum estimated size in bytes of all entries. Values larger
+     * than this are never cached. Zero (the default) leaves the size unbounded
+     * other than by the number of entries.
+     * 
+     * @param maxBytes the maximum size in bytes or zero for no limit
+     */
+    public synchronized void setMaxBytes(long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+        
+        evict();
+    }
+
+    /**
+     * Returns the time in milliseconds that entries remain valid.
+     * 
+     * @return the time to live in milliseconds or zero if entries do not expire
+     */
+    public long getTtl()
+    {
+        return ttl;
+    }
+
+    /**
+     * Sets the time in milliseconds that entries remain valid after being 
+     * loaded. Zero (the default) keeps entries until they are evicted or
+     * invalidated.
+     * 
+     * @param ttl the time to live in milliseconds or zero for no expiration
+     */
+    public void setTtl(long ttl)
+    {
+        this.ttl = ttl;
+    }
+    
+    /**
+     * Returns the number of lookups answered from the cache, including 
+     * lookups that waited on another thread's load.
+     * 
+     * @return the number of hits
+     */
+    public long getHits()
+    {
+        return hits.get();
+    }
+    
+    /**
+     * Returns the number of lookups that required a load.
+     * 
+     * @return the number of misses
+     */
+    public long getMisses()
+    {
+        return misses.get();
+    }
+    
+    /**
+     * Returns the number of entries removed to stay within the limits.
+     * 
+     * @return the number of evictions
+     */
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+    
+    /**
+     * Returns the number of entries discarded because they expired.
+     * 
+     * @return the number of expirations
+     */
+    public long getExpirations()
+    {
+        return expirations.get();
+    }
+    
+    /**
+     * Returns the number of entries currently held.
+     * 
+     * @return the number of entries
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+    
+    /**
+     * Returns the estimated size in bytes of all entries currently held.
+     * 
+     * @return the estimated size in bytes
+     */
+    public synchronized long getBytes()
+    {
+        return bytes;
+    }
+    
+    /**
+     * Creates a cache key from a set of parameters. Parameters are sorted by
+     * name so that the order they were set in does not matter.
+     * 
+     * @param parameters the parameters
+     * @return the cache key
+     */
+    public static String key(JSONObject parameters)
+    {
+        var sorted = new JSONObject();
+        
+        for(String name : new TreeSet<>(parameters.keySet())) sorted.put(name, parameters.get(name));
+        
+        return sorted.toString();
+    }
+    
+    private void removed(Entry<V> entry)
+    {
+        bytes -= entry.bytes;
+        
+        for(String tag : entry.tags) CacheTags.unregister(tag, this, entry.key);
+    }
+    
+    private void evict()
+    {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        Entry<V> entry;
+        
+        while(iterator.hasNext() && (entries.size() > maxEntries || (maxBytes > 0 && bytes > maxBytes)))
+        {
+            entry = iterator.next();
+            
+            iterator.remove();
+            removed(entry);
+            evictions.incrementAndGet();
+        }
+    }
+    
+    private synchronized V lookup(String key)
+    {
+        Entry<V> entry = entries.get(key);
+        
+        if(entry == null) return null;
+        
+        if(entry.expires > 0 && entry.expires <= System.currentTimeMillis())
+        {
+            entries.remove(key);
+            removed(entry);
+            expirations.incrementAndGet();
+            
+            return null;
+        }
+        
+        return entry.value;
+    }
+    
+    /**
+     * Returns the cached value for the key.
+     * 
+     * @param key the key
+     * @return the value or null if it is not cached or has expired
+     */
+    public V get(String key)
+    {
+        V value = lookup(key);
+        
+        if(value != null) hits.incrementAndGet();
+        else misses.incrementAndGet();
+        
+        return value;
+    }
+    
+    /**
+     * Returns the cached value for the key, calling the loader to obtain and
+     * cache it on a miss. See {@link #get(String, Collection, Supplier)}.
+     * 
+     * @param key the key
+     * @param loader produces the value when it is not cached
+     * @return the cached or newly loaded value
+     */
+    public V get(String key, Supplier<V> loader)
+    {
+        return get(key, Collections.emptyList(), loader);
+    }
+    
+    /**
+     * Returns the cached value for the key, calling the loader to obtain and
+     * cache it on a miss. Concurrent misses on the same key share a single 
+     * call to the loader. Exceptions thrown by the loader are thrown to every
+     * waiting thread and nothing is cached. The value is not cached if any of
+     * its tags are invalidated while it is loading.
+     * 
+     * @param key the key
+     * @param tags the resolved tags the value depends on
+     * @param loader produces the value when it is not cached
+     * @return the cached or newly loaded value
+     */
+    public V get(String key, Collection<String> tags, Supplier<V> loader)
+    {
+        long version;
+        CompletableFuture<V> future;
+        CompletableFuture<V> existing;
+        V value = lookup(key);
+        
+        if(value != null)
+        {
+            hits.incrementAndGet();
+            return value;
+        }
+        
+        future = new CompletableFuture<>();
+        existing = loading.putIfAbsent(key, future);
+        
+        if(existing != null)
+        {
+            hits.incrementAndGet();
+            return await(existing);
+        }
+        
+        try
+        {
+            // Another thread may have finished loading since the lookup
+            value = lookup(key);
+            
+            if(value != null)
+            {
+                hits.incrementAndGet();
+            }
+            else
+            {
+                misses.incrementAndGet();
+                
+                version = CacheTags.version();
+                value = loader.get();
+                
+                if(!CacheTags.isInvalidated(tags, version))
+                {
+                    put(key, value, tags);
+                    
+                    // An invalidation between the check and the registration
+                    // would miss the entry, so check again now that it is registered
+                    if(CacheTags.isInvalidated(tags, version)) invalidate(key);
+                }
+            }
+            
+            future.complete(value);
+            
+            return value;
+        }
+        catch(RuntimeException | Error e)
+        {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            loading.remove(key, future);
+        }
+    }
+    
+    private V await(CompletableFuture<V> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new ConvirganceException(e);
+        }
+        catch(ExecutionException e)
+        {
+            if(e.getCause() instanceof RuntimeException) throw (RuntimeException)e.getCause();
+            if(e.getCause() instanceof Error) throw (Error)e.getCause();
+            
+            throw new ConvirganceException(e.getCause());
+        }
+    }
+    
+    /**
+     * Adds a value to the cache, replacing any existing value for the key.
+     * Values larger than the maximum size are not cached.
+     * 
+     * @param key the key
+     * @param value the value to cache
+     */
+    public void put(String key, V value)
+    {
+        put(key, value, Collections.emptyList());
+    }
+    
+    /**
+     * Adds a value to the cache that depends on the tags, replacing any 
+     * existing value for the key. Values larger than the maximum size are 
+     * not cached.
+     * 
+     * @param key the key
+     * @param value the value to cache
+     * @param tags the resolved tags the value depends on
+     */
+    public synchronized void put(String key, V value, Collection<String> tags)
+    {
+        long expires = (ttl > 0) ? System.currentTimeMillis() + ttl : 0;
+        Entry<V> previous;
+        long size;
+        
+        if(value == null) return;
+        
+        size = weigher.applyAsLong(value);
+        
+        if(maxBytes > 0 && size > maxBytes)
+        {
+            invalidate(key);
+            return;
+        }
+        
+        previous = entries.put(key, new Entry<>(key, value, size, expires, tags.toArray(new String[tags.size()])));
+        
+        if(previous != null) removed(previous);
+        
+        for(String tag : tags) CacheTags.register(tag, this, key);
+        
+        bytes += size;
+        
+        evict();
+    }
+    
+    /**
+     * Removes the value for the key.
+     * 
+     * @param key the key
+     * @return true if a value was removed
+     */
+    public synchronized boolean invalidate(String key)
+    {
+        Entry<V> entry = entries.remove(key);
+        
+        if(entry == null) return false;
+        
+        removed(entry);
+        
+        return true;
+    }
+    
+    /**
+     * Removes all values from the cache.
+     */
+    public synchronized void clear()
+    {
+        for(Entry<V> entry : entries.values()) removed(entry);
+        
+        entries.clear();
+    }
+    
+    private static class Entry<V>
+    {
+        private final String key;
+        private final V value;
+        private final long bytes;
+        private final long expires;
+        private final String[] tags;
+
+        public Entry(String key, V value, long bytes, long expires, String[] tags)
+        {
+            this.key = key;
+            this.value = value;
+            this.bytes = bytes;
+            this.expires = expires;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.cache;
+
+import com.invirgance.convirgance.json.JSONObject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks which cache entries depend on which named tags so that writes can
+ * invalidate exactly the entries they make stale. Read-side caches declare
+ * the tags an entry depends on when it is stored, and write services 
+ * invalidate tags after their changes are committed. Invalidating a tag 
+ * only touches the entries registered under it.<br>
+ * <br>
+ * Tags may contain parameters in curly braces, such as 
+ * <code>customer:{id}</code>, which are resolved against the request 
+ * parameters or the records being written.
+ * 
+ * @author jbanes
+ */
+public class CacheTags
+{
+    private static final ConcurrentHashMap<String,Set<Registration>> tags = new ConcurrentHashMap<>();
+    
+    // Last invalidation of tags hashed into each slot, used to detect tags
+    // invalidated while an entry was loading
+    private static final AtomicLongArray invalidated = new AtomicLongArray(1024);
+    private static final AtomicLong version = new AtomicLong();
+    
+    private CacheTags()
+    {
+    }
+    
+    /**
+     * Replaces the parameters in curly braces with values from the first 
+     * source that contains the parameter. Missing values resolve to 
+     * <code>null</code>.
+     * 
+     * @param template the tag, optionally with parameters in curly braces
+     * @param sources the objects to take parameter values from
+     * @return the resolved tag
+     */
+    public static String resolve(String template, JSONObject... sources)
+    {
+        var buffer = new StringBuilder(template.length() + 16);
+        Object value;
+        String name;
+        int start = 0;
+        int open;
+        int close;
+        
+        while((open = template.indexOf('{', start)) >= 0 && (close = template.indexOf('}', open)) > 0)
+        {
+            name = template.substring(open + 1, close);
+            value = null;
+            
+            for(JSONObject source : sources)
+            {
+                if(source != null && source.containsKey(name))
+                {
+                    value = source.get(name);
+                    break;
+                }
+            }
+            
+            buffer.append(template, start, open);
+            buffer.append(value);
+            
+            start = close + 1;
+        }
+        
+        buffer.append(template, start, template.length());
+        
+        return buffer.toString();
+    }
+    
+    /**
+     * Resolves each of the tags. See {@link #resolve(String, JSONObject...)}.
+     * 
+     * @param templates the tags, optionally with parameters in curly braces
+     * @param sources the objects to take parameter values from
+     * @return the resolved tags or an empty list if templates is null
+     */
+    public static List<String> resolve(Collection<String> templates, JSONObject... sources)
+    {
+        var resolved = new ArrayList<String>();
+        
+        if(templates == null) return resolved;
+        
+        for(String template : templates) resolved.add(resolve(template, sources));
+        
+        return resolved;
+    }
+    
+    /**
+     * Returns a counter that increases each time a tag is invalidated. 
+     * Capture it before loading an entry and pass it to 
+     * {@link #isInvalidated(Collection, long)} before storing the result.
+     * 
+     * @return the current invalidation version
+     */
+    public static long version()
+    {
+        return version.get();
+    }
+    
+    /**
+     * Returns true if any of the tags may have been invalidated since the 
+     * version was captured. May occasionally report true for tags that were
+     * not invalidated, but never false for tags that were.
+     * 
+     * @param tags the tags to check
+     * @param since a version previously returned by {@link #version()}
+     * @return true if the tags may have been invalidated
+     */
+    public static boolean isInvalidated(Collection<String> tags, long since)
+    {
+        if(tags == null || version.get() == since) return false;
+        
+        for(String tag : tags)
+        {
+            if(invalidated.get(slot(tag)) > since) return true;
+        }
+        
+        return false;
+    }
+    
+    private static int slot(String tag)
+    {
+        return (tag.hashCode() & 0x7fffffff) % invalidated.length();
+    }
+    
+    /**
+     * Records that the cache entry depends on the tag.
+     * 
+     * @param tag the resolved tag
+     * @param cache the cache holding the entry
+     * @param key the key of the entry
+     */
+    public static void register(String tag, Cache<?> cache, String key)
+    {
+        // Add inside the compute so a concurrent unregister or invalidate can't drop it
+        tags.compute(tag, (name, registrations) -> {
+            if(registrations == null) registrations = ConcurrentHashMap.newKeySet();
+            
+            registrations.add(new Registration(cache, key));
+            
+            return registrations;
+        });
+    }
+    
+    /**
+     * Removes the record that the cache entry depends on the tag. Called when
+     * the entry is removed from the cache.
+     * 
+     * @param tag the resolved tag
+     * @param cache the cache holding the entry
+     * @param key the key of the entry
+     */
+    public static void unregister(String tag, Cache<?> cache, String key)
+    {
+        tags.computeIfPresent(tag, (name, registrations) -> {
+            registrations.remove(new Registration(cache, key));
+            
+            return registrations.isEmpty() ? null : registrations;
+        });
+    }
+    
+    /**
+     * Removes every cache entry that depends on the tag.
+     * 
+     * @param tag the resolved tag
+     * @return the number of entries removed
+     */
+    public static int invalidate(String tag)
+    {
+        Set<Registration> registrations;
+        int count = 0;
+        
+        invalidated.accumulateAndGet(slot(tag), version.incrementAndGet(), Math::max);
+        
+        registrations = tags.remove(tag);
+        
+        if(registrations == null) return 0;
+        
+        for(Registration registration : registrations)
+        {
+            if(registration.cache.invalidate(registration.key)) count++;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Removes every cache entry that depends on any of the tags.
+     * 
+     * @param tags the resolved tags
+     * @return the number of entries removed
+     */
+    public static int invalidate(Collection<String> tags)
+    {
+        int count = 0;
+        
+        for(String tag : tags) count += invalidate(tag);
+        
+        return count;
+    }
+    
+    private static class Registration
+    {
+        private final Cache<?> cache;
+        private final String key;
+
+        public Registration(Cache<?> cache, String key)
+        {
+            this.cache = cache;
+            this.key = key;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(cache) * 31 + key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if(!(obj instanceof Registration)) return false;
+            
+            return ((Registration)obj).cache == cache && Objects.equals(((Registration)obj).key, key);
+        }
+    }
+}
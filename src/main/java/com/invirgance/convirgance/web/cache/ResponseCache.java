@@ -0,0 +1,413 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.cache;
+
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.output.Output;
+import com.invirgance.convirgance.target.OutputStreamTarget;
+import com.invirgance.convirgance.web.http.Compression;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.wiring.annotation.Wiring;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Caches the encoded response body of a service. Entries are keyed by the 
+ * request path, the bound parameters, the content type, and the compression 
+ * encoding negotiated with the client. A hit writes the stored bytes in a 
+ * single call with a <code>Content-Length</code> header, skipping the 
+ * binding, transformers, and output entirely. A miss streams the body to 
+ * the client as it is generated and keeps a copy for the cache, along with
+ * headers added while generating it, such as a pagination 
+ * <code>Link</code>.<br>
+ * <br>
+ * When the servlet compresses responses, bodies are stored compressed so 
+ * that each hit does not compress them again. Set <code>precompress</code>
+ * to store compressed bodies for clients that accept them even when the
+ * servlet does not compress responses.
+ * 
+ * @author jbanes
+ */
+@Wiring
+public class ResponseCache
+{
+    private static final Set<String> MANAGED_HEADERS = Set.of("content-type", "content-encoding", "content-length", "vary");
+    
+    private final Cache<CachedResponse> cache = new Cache<>(response -> (response.body == null) ? Long.MAX_VALUE : response.body.length + 64);
+    private final Compression defaultCompression = new Compression();
+    
+    private boolean precompress;
+    private List<String> tags;
+
+    /**
+     * Returns the maximum number of responses held.
+     * 
+     * @return the maximum number of entries
+     */
+    public int getMaxEntries()
+    {
+        return cache.getMaxEntries();
+    }
+
+    /**
+     * Sets the maximum number of responses held. Defaults to 1000.
+     * 
+     * @param maxEntries the maximum number of entries
+     */
+    public void setMaxEntries(int maxEntries)
+    {
+        cache.setMaxEntries(maxEntries);
+    }
+
+    /**
+     * Returns the maximum number of bytes held across all responses.
+     * 
+     * @return the maximum size in bytes or zero if unlimited
+     */
+    public long getMaxBytes()
+    {
+        return cache.getMaxBytes();
+    }
+
+    /**
+     * Sets the maximum number of bytes held across all responses. Responses
+     * larger than this are never cached, and the copy kept while a response 
+     * is generated is discarded as soon as its uncompressed size passes the 
+     * limit. Zero (the default) limits the cache by entry count alone.
+     * 
+     * @param maxBytes the maximum size in bytes or zero for no limit
+     */
+    public void setMaxBytes(long maxBytes)
+    {
+        cache.setMaxBytes(maxBytes);
+    }
+
+    /**
+     * Returns the time in milliseconds that responses are reused.
+     * 
+     * @return the time to live in milliseconds or zero if responses do not expire
+     */
+    public long getTtl()
+    {
+        return cache.getTtl();
+    }
+
+    /**
+     * Sets the time in milliseconds that responses are reused before they 
+     * are generated again. Zero (the default) keeps responses until they are
+     * evicted.
+     * 
+     * @param ttl the time to live in milliseconds or zero for no expiration
+     */
+    public void setTtl(long ttl)
+    {
+        cache.setTtl(ttl);
+    }
+
+    /**
+     * Returns true if responses are stored compressed for clients that 
+     * accept compression.
+     * 
+     * @return true if responses are precompressed
+     */
+    public boolean isPrecompress()
+    {
+        return precompress;
+    }
+
+    /**
+     * Set to true to store responses compressed with gzip or deflate for 
+     * clients that accept it, even if the servlet is not configured to 
+     * compress responses. Defaults to false.
+     * 
+     * @param precompress true to precompress responses
+     */
+    public void setPrecompress(boolean precompress)
+    {
+        this.precompress = precompress;
+    }
+    
+    /**
+     * Returns the tags that cached responses depend on.
+     * 
+     * @return the tags or null if none are declared
+     */
+    public List<String> getTags()
+    {
+        return tags;
+    }
+
+    /**
+     * Sets the tags that cached responses depend on. When a write service 
+     * invalidates one of the tags, the responses are discarded. Tags may include
+     * parameters in curly braces, such as <code>customer:{id}</code>, which
+     * are filled in from the bound parameters.
+     * 
+     * @param tags the tags cached responses depend on
+     */
+    public void setTags(List<String> tags)
+    {
+        this.tags = tags;
+    }
+    
+    /**
+     * Returns the underlying cache for statistics such as hits, misses, and
+     * evictions.
+     * 
+     * @return the cache of responses
+     */
+    public Cache<?> getCache()
+    {
+        return cache;
+    }
+    
+    /**
+     * Writes the response from the cache, generating and storing it first if
+     * it is not cached. Concurrent requests for the same uncached response
+     * generate it once, unless it turns out to be too large to cache, in 
+     * which case each request generates its own.
+     * 
+     * @param request the request being served
+     * @param response the response to write to
+     * @param parameters the parameters bound for the request
+     * @param output the output used to encode the records
+     * @param records supplies the records on a miss
+     */
+    public void write(HttpRequest request, HttpResponse response, JSONObject parameters, Output output, Supplier<Iterable<JSONObject>> records)
+    {
+        Compression compression;
+        String encoding;
+        CachedResponse cached;
+        Render render;
+        String key;
+        
+        // Responses generated on a miss are compressed as they are streamed
+        if(response.getCompression() == null && precompress) response.setCompression(defaultCompression, request);
+        
+        compression = response.getCompression();
+        encoding = response.getCompressionEncoding();
+        
+        key = request.getRequestURI() + '\n' + output.getContentType() + '\n' + encoding + '\n' + Cache.key(parameters);
+        render = new Render(response, output, records, compression, encoding, cache.getMaxBytes());
+        cached = cache.get(key, CacheTags.resolve(tags, parameters), render);
+        
+        // The miss was already streamed to the client while it was generated
+        if(render.written) return;
+        
+        if(cached.body == null)
+        {
+            response.setContentType(output.getContentType());
+            response.write(output, records.get());
+            return;
+        }
+        
+        response.setContentType(cached.contentType);
+        
+        for(String[] header : cached.headers) response.addHeader(header[0], header[1]);
+        
+        if(compression != null) vary(response);
+        if(cached.encoding != null) response.setHeader("Content-Encoding", cached.encoding);
+        
+        response.write(cached.body);
+    }
+    
+    private static Set<String> headers(HttpResponse response)
+    {
+        var headers = new HashSet<String>();
+        
+        for(String name : response.getHeaderNames())
+        {
+            for(String value : response.getHeaders(name)) headers.add(name.toLowerCase() + '\n' + value);
+        }
+        
+        return headers;
+    }
+    
+    private static String[][] added(HttpResponse response, Set<String> before)
+    {
+        var added = new ArrayList<String[]>();
+        
+        for(String name : response.getHeaderNames())
+        {
+            // Set by the cache itself on each hit
+            if(MANAGED_HEADERS.contains(name.toLowerCase())) continue;
+            
+            for(String value : response.getHeaders(name))
+            {
+                if(!before.contains(name.toLowerCase() + '\n' + value)) added.add(new String[]{ name, value });
+            }
+        }
+        
+        return added.toArray(new String[added.size()][]);
+    }
+    
+    private static void vary(HttpResponse response)
+    {
+        if(!response.containsHeader("Vary")) response.setHeader("Vary", "Accept-Encoding");
+        else if(!response.getHeader("Vary").toLowerCase().contains("accept-encoding")) response.addHeader("Vary", "Accept-Encoding");
+    }
+    
+    /**
+     * Removes all cached responses.
+     */
+    public void clear()
+    {
+        cache.clear();
+    }
+    
+    private static class Render implements Supplier<CachedResponse>
+    {
+        private final HttpResponse response;
+        private final Output output;
+        private final Supplier<Iterable<JSONObject>> records;
+        private final Compression compression;
+        private final String encoding;
+        private final long maxBytes;
+        
+        private boolean written;
+
+        public Render(HttpResponse response, Output output, Supplier<Iterable<JSONObject>> records, Compression compression, String encoding, long maxBytes)
+        {
+            this.response = response;
+            this.output = output;
+            this.records = records;
+            this.compression = compression;
+            this.encoding = encoding;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public CachedResponse get()
+        {
+            Set<String> before = headers(response);
+            String[][] headers;
+            Copy copy;
+            byte[] body;
+            
+            written = true;
+            
+            response.setContentType(output.getContentType());
+            
+            if(compression != null) vary(response);
+            
+            copy = new Copy(response.getOutputStream(), maxBytes);
+            
+            try(copy)
+            {
+                output.write(new OutputStreamTarget(copy), records.get());
+            }
+            catch(IOException e) { throw new ConvirganceException(e); }
+            
+            body = copy.toByteArray();
+            headers = added(response, before);
+            
+            // Too large to cache
+            if(body == null) return new CachedResponse(output.getContentType(), null, null, headers);
+            
+            // Small responses are not worth compressing
+            if(encoding == null || body.length <= compression.getThreshold())
+            {
+                return new CachedResponse(output.getContentType(), null, body, headers);
+            }
+            
+            return new CachedResponse(output.getContentType(), encoding, compression.compress(body, encoding), headers);
+        }
+    }
+    
+    /**
+     * Writes through to the response while keeping a copy of the body until
+     * it grows past the size limit
+     */
+    private static class Copy extends OutputStream
+    {
+        private final OutputStream out;
+        private final long maxBytes;
+        
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        public Copy(OutputStream out, long maxBytes)
+        {
+            this.out = out;
+            this.maxBytes = maxBytes;
+        }
+        
+        public byte[] toByteArray()
+        {
+            return (buffer == null) ? null : buffer.toByteArray();
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            write(new byte[]{ (byte)b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+            
+            if(buffer == null) return;
+            
+            if(maxBytes > 0 && buffer.size() + len > maxBytes) buffer = null;
+            else buffer.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException
+        {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            out.close();
+        }
+    }
+    
+    private static class CachedResponse
+    {
+        private final String contentType;
+        private final String encoding;
+        private final byte[] body;
+        private final String[][] headers;
+
+        public CachedResponse(String contentType, String encoding, byte[] body, String[][] headers)
+        {
+            this.contentType = contentType;
+            this.encoding = encoding;
+            this.body = body;
+            this.headers = headers;
+        }
+    }
+}
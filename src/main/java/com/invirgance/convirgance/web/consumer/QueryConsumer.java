@@ -33,10 +33,15 @@ import com.invirgance.convirgance.dbms.TransactionOperation;
 import com.invirgance.convirgance.json.JSONArray;
 import com.invirgance.convirgance.json.JSONObject;
 import com.invirgance.convirgance.transform.IdentityTransformer;
+import com.invirgance.convirgance.web.cache.CacheTags;
 import com.invirgance.convirgance.web.servlet.ApplicationInitializer;
 import com.invirgance.convirgance.wiring.annotation.Wiring;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import javax.sql.DataSource;
+import java.util.Set;
 
 /**
  * Inserts stream of data into a SQL database. Supports the use of sequences to
@@ -53,10 +58,16 @@ public class QueryConsumer implements Consumer
     
     private Query sequenceSql;
     private String sequenceId;
+    private int sequenceBlockSize = 1;
+    
+    private long nextKey;
+    private long keyLimit;
+    private Object keyType;
     
     private Map<String,QueryConsumer> children;
     
     private String cachedKey;
+    private List<String> invalidates;
     
     //TODO: Allow failure on no records
     //private boolean required;
@@ -120,6 +131,11 @@ public class QueryConsumer implements Consumer
     public void setSequenceSql(String sequenceSql)
     {
         this.sequenceSql = new Query(sequenceSql);
+        
+        synchronized(this)
+        {
+            this.nextKey = this.keyLimit = 0;
+        }
     }
 
     /**
@@ -142,6 +158,43 @@ public class QueryConsumer implements Consumer
         this.sequenceId = sequenceId;
     }
 
+    /**
+     * Returns the number of keys reserved by each sequence query.
+     * 
+     * @return the block size
+     */
+    public int getSequenceBlockSize()
+    {
+        return sequenceBlockSize;
+    }
+
+    /**
+     * Sets the number of keys reserved by each sequence query. With a block
+     * size of 1 (the default), the sequence is queried once for every record.
+     * With a larger block size, each value returned by the sequence reserves
+     * that value and the following <code>sequenceBlockSize - 1</code> values.
+     * Reserved keys are handed out before the sequence is queried again, 
+     * including across requests. An upload of 50,000 records with a block 
+     * size of 1,000 only queries the sequence 50 times.<br>
+     * <br>
+     * The sequence must increment by the block size, e.g. 
+     * <code>CREATE SEQUENCE order_seq INCREMENT BY 1000</code>. Other 
+     * applications can continue to use the sequence normally. Keys reserved 
+     * but not used when the application stops are skipped, leaving gaps.
+     * 
+     * @param sequenceBlockSize the number of keys reserved by each sequence query
+     */
+    public void setSequenceBlockSize(int sequenceBlockSize)
+    {
+        if(sequenceBlockSize < 1) throw new ConvirganceException("sequenceBlockSize must be at least 1");
+        
+        synchronized(this)
+        {
+            this.sequenceBlockSize = sequenceBlockSize;
+            this.nextKey = this.keyLimit = 0;
+        }
+    }
+
     /**
      * Child records to include as part of the insertion. The key must refer to
      * a JSONArray in the incoming data. The specified QueryConsumer will handle
@@ -166,6 +219,31 @@ public class QueryConsumer implements Consumer
         this.children = children;
     }
     
+    /**
+     * Returns the cache tags invalidated after the records are inserted.
+     * 
+     * @return the tags or null if none are declared
+     */
+    public List<String> getInvalidates()
+    {
+        return invalidates;
+    }
+
+    /**
+     * Sets the cache tags invalidated once the records have been committed.
+     * Cached results that depend on these tags are discarded. Tags may 
+     * include parameters in curly braces, such as <code>customer:{id}</code>,
+     * which are filled in from each record, its generated keys, or the 
+     * parameters. Tags are only read from the top level consumer, not from
+     * consumers of child records.
+     * 
+     * @param invalidates the tags to invalidate
+     */
+    public void setInvalidates(List<String> invalidates)
+    {
+        this.invalidates = invalidates;
+    }
+    
     private String getKey(JSONObject next)
     {
         if(this.cachedKey == null) this.cachedKey = (String)next.keySet().toArray()[0];
@@ -173,12 +251,63 @@ public class QueryConsumer implements Consumer
         return this.cachedKey;
     }
     
+    private Object querySequence(DBMS dbms)
+    {
+        try(var result = (CloseableIterator<JSONObject>)dbms.query(sequenceSql).iterator())
+        {
+            JSONObject next = result.next();
+            
+            return next.get(getKey(next));
+        }
+        catch(Exception e) { throw new ConvirganceException(e); }
+    }
+    
+    /**
+     * Returns the next generated key. Keys are taken from the block reserved
+     * by the last sequence query, querying the sequence again once the block 
+     * is used up. Keys have the type of the values returned by the sequence.
+     * 
+     * @param dbms the DBMS to query the sequence from
+     * @return the next key
+     */
+    Object nextKey(DBMS dbms)
+    {
+        if(sequenceBlockSize <= 1) return querySequence(dbms);
+        
+        synchronized(this)
+        {
+            if(nextKey >= keyLimit)
+            {
+                Object value = querySequence(dbms);
+                
+                if(!(value instanceof Number)) throw new ConvirganceException("Sequence must return a number when sequenceBlockSize is set: " + value);
+                
+                nextKey = ((Number)value).longValue();
+                keyLimit = nextKey + sequenceBlockSize;
+                keyType = value;
+            }
+            
+            return toKey(nextKey++, keyType);
+        }
+    }
+    
+    private static Object toKey(long key, Object type)
+    {
+        // Hand out keys of the same type the sequence returns
+        if(type instanceof BigDecimal) return BigDecimal.valueOf(key);
+        if(type instanceof BigInteger) return BigInteger.valueOf(key);
+        if(type instanceof Integer) return Math.toIntExact(key);
+        
+        return key;
+    }
+    
     /**
      * Creates an {@link AtomicOperation} for database insertion, optionally
      * generating sequence values.
      * <p>
      * If sequence generation is configured, this method will fetch sequence values 
-     * before building the batch operation.
+     * before building the batch operation. See {@link #setSequenceBlockSize(int)}
+     * to reserve keys in blocks rather than querying the sequence per record.
      *
      * @param iterable Data that will be transformed
      * @param dbms The DBMS to get the sequence ids.
@@ -206,17 +335,11 @@ public class QueryConsumer implements Consumer
                 
                 if(sequenceId != null)
                 {
-                    try(var result = (CloseableIterator<JSONObject>)dbms.query(sequenceSql).iterator())
-                    {
-                        JSONObject next = result.next();
-                        String key = getKey(next);
-                        Object value = next.get(key);
-                        
-                        record.put(sequenceId, value);
-                        keyRecord.put(sequenceId, value);
-                        keys.add(keyRecord);
-                    }
-                    catch(Exception e) { throw new ConvirganceException(e); }
+                    Object value = nextKey(dbms);
+                    
+                    record.put(sequenceId, value);
+                    keyRecord.put(sequenceId, value);
+                    keys.add(keyRecord);
                 }
                 
                 for(String key : children.keySet())
@@ -255,20 +378,14 @@ public class QueryConsumer implements Consumer
                 @Override
                 public JSONObject transform(JSONObject record) throws ConvirganceException
                 {
-                    try(var result = (CloseableIterator<JSONObject>)dbms.query(sequenceSql).iterator())
-                    {
-                        JSONObject returnRecord = new JSONObject();
-                        JSONObject next = result.next();
-                        String key = getKey(next);
-                        Object value = next.get(key);
-                        
-                        record.put(sequenceId, value);
-                        returnRecord.put(sequenceId, value);
-                        keys.add(returnRecord);
-                        
-                        return record;
-                    }
-                    catch(Exception e) { throw new ConvirganceException(e); }
+                    JSONObject returnRecord = new JSONObject();
+                    Object value = nextKey(dbms);
+                    
+                    record.put(sequenceId, value);
+                    returnRecord.put(sequenceId, value);
+                    keys.add(returnRecord);
+                    
+                    return record;
                 }
             }.transform(iterable);
         }
@@ -278,11 +395,7 @@ public class QueryConsumer implements Consumer
             
     private DBMS lookup()
     {
-        DataSource source = ApplicationInitializer.lookup(this.jndiName);
-        
-        if(source == null) return DBMS.lookup(jndiName);
-        
-        return new DBMS(source);
+        return ApplicationInitializer.getDBMS(jndiName);
     }
     
     /**
@@ -303,9 +416,31 @@ public class QueryConsumer implements Consumer
     {
         DBMS dbms = lookup();
         JSONArray<JSONObject> keys = new JSONArray<>();
+        Set<String> dirty = new LinkedHashSet<>();
+        
+        if(invalidates != null)
+        {
+            // Collect the tags of each record as it streams into the batch
+            iterable = new IdentityTransformer() {
+                @Override
+                public JSONObject transform(JSONObject record) throws ConvirganceException
+                {
+                    dirty.addAll(CacheTags.resolve(invalidates, record, parameters));
+                    
+                    return record;
+                }
+            }.transform(iterable);
+        }
         
         dbms.update(getOperation(iterable, dbms, keys));
         
+        if(invalidates != null)
+        {
+            for(JSONObject key : keys) dirty.addAll(CacheTags.resolve(invalidates, key, parameters));
+            
+            CacheTags.invalidate(dirty);
+        }
+        
         return keys;
     }
     
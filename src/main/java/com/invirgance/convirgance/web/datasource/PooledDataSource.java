@@ -0,0 +1,678 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.datasource;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * A connection pool wrapped around a data source that opens a new physical 
+ * connection each time it is asked for one. Closing a connection obtained 
+ * from the pool returns it to the pool rather than closing it.<br>
+ * <br>
+ * Connections idle for more than a second are validated before being handed 
+ * out, either with the <code>validationQuery</code> or with 
+ * {@link Connection#isValid(int)}. Connections idle for longer than the 
+ * <code>idleTimeout</code> or older than the <code>maxLifetime</code> are 
+ * closed by a background thread, which also keeps <code>min</code> 
+ * connections open.<br>
+ * <br>
+ * The pool records how long callers wait for a connection and how many 
+ * connections are in use so that it can be sized from real traffic.
+ * 
+ * @author jbanes
+ */
+public class PooledDataSource implements DataSource, AutoCloseable
+{
+    private static final long VALIDATION_IDLE_TIME = 1000;
+    
+    private final DataSource source;
+    private final LinkedBlockingDeque<Entry> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    
+    private int min = 0;
+    private int max = 10;
+    private long idleTimeout = 600000;
+    private long maxLifetime = 1800000;
+    private long acquireTimeout = 30000;
+    private String validationQuery;
+    
+    private volatile Semaphore permits;
+    private ScheduledExecutorService maintenance;
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool of connections opened from the given data source
+     * 
+     * @param source the data source to open physical connections from
+     */
+    public PooledDataSource(DataSource source)
+    {
+        this.source = source;
+    }
+
+    /**
+     * Returns the number of connections kept open when idle
+     * 
+     * @return the minimum number of connections
+     */
+    public int getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Sets the number of connections kept open even when idle. Defaults to 0.
+     * 
+     * @param min the minimum number of connections
+     */
+    public void setMin(int min)
+    {
+        this.min = min;
+    }
+
+    /**
+     * Returns the maximum number of connections the pool will open
+     * 
+     * @return the maximum number of connections
+     */
+    public int getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Sets the maximum number of connections the pool will open. Callers wait
+     * for a connection to be returned once the maximum is in use. Must be set
+     * before the first connection is requested. Defaults to 10.
+     * 
+     * @param max the maximum number of connections
+     */
+    public void setMax(int max)
+    {
+        if(permits != null) throw new IllegalStateException("Pool has already been started");
+        
+        this.max = max;
+    }
+
+    /**
+     * Returns the number of milliseconds a connection can be idle before it
+     * is closed
+     * 
+     * @return the idle timeout in milliseconds
+     */
+    public long getIdleTimeout()
+    {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets the number of milliseconds a connection can be idle before it is
+     * closed. Connections are not closed below the minimum. Defaults to 10 
+     * minutes. Zero disables the timeout.
+     * 
+     * @param idleTimeout the idle timeout in milliseconds
+     */
+    public void setIdleTimeout(long idleTimeout)
+    {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Returns the maximum number of milliseconds a connection is kept open
+     * 
+     * @return the maximum lifetime in milliseconds
+     */
+    public long getMaxLifetime()
+    {
+        return maxLifetime;
+    }
+
+    /**
+     * Sets the maximum number of milliseconds a connection is kept open. Set 
+     * this below any connection timeout imposed by the database or the network.
+     * Connections in use are retired when they are returned. Defaults to 30 
+     * minutes. Zero disables the limit.
+     * 
+     * @param maxLifetime the maximum lifetime in milliseconds
+     */
+    public void setMaxLifetime(long maxLifetime)
+    {
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * Returns the number of milliseconds a caller will wait for a connection
+     * 
+     * @return the acquire timeout in milliseconds
+     */
+    public long getAcquireTimeout()
+    {
+        return acquireTimeout;
+    }
+
+    /**
+     * Sets the number of milliseconds a caller will wait for a connection 
+     * when all connections are in use. A {@link SQLTransientConnectionException}
+     * is thrown if none becomes available in time. Defaults to 30 seconds.
+     * 
+     * @param acquireTimeout the acquire timeout in milliseconds
+     */
+    public void setAcquireTimeout(long acquireTimeout)
+    {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Returns the query used to validate idle connections
+     * 
+     * @return the validation query or null if {@link Connection#isValid(int)} is used
+     */
+    public String getValidationQuery()
+    {
+        return validationQuery;
+    }
+
+    /**
+     * Sets a query used to validate connections that have been idle before
+     * they are handed out, e.g. <code>SELECT 1</code>. When not set, the 
+     * driver's {@link Connection#isValid(int)} check is used instead.
+     * 
+     * @param validationQuery the validation query
+     */
+    public void setValidationQuery(String validationQuery)
+    {
+        this.validationQuery = validationQuery;
+    }
+    
+    /**
+     * Returns the number of connections currently in use
+     * 
+     * @return the number of connections handed out and not yet returned
+     */
+    public int getActive()
+    {
+        return active.get();
+    }
+    
+    /**
+     * Returns the number of open connections waiting to be used
+     * 
+     * @return the number of idle connections
+     */
+    public int getIdle()
+    {
+        return idle.size();
+    }
+    
+    /**
+     * Returns the number of physical connections currently open
+     * 
+     * @return the number of open connections
+     */
+    public int getTotal()
+    {
+        return total.get();
+    }
+    
+    /**
+     * Returns the fraction of the maximum connections currently in use
+     * 
+     * @return a value from 0.0 to 1.0
+     */
+    public double getUtilization()
+    {
+        return (max > 0) ? (double)active.get() / max : 0.0;
+    }
+    
+    /**
+     * Returns the number of connections handed out since the pool was created
+     * 
+     * @return the number of connection requests that succeeded
+     */
+    public long getAcquired()
+    {
+        return waits.sum();
+    }
+    
+    /**
+     * Returns the total time callers have spent waiting for connections
+     * 
+     * @return the total wait time in milliseconds
+     */
+    public long getTotalWaitTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(waitTime.sum());
+    }
+    
+    /**
+     * Returns the average time callers have waited for a connection
+     * 
+     * @return the average wait time in milliseconds
+     */
+    public double getAverageWaitTime()
+    {
+        long count = waits.sum();
+        
+        return (count > 0) ? (waitTime.sum() / 1000000.0) / count : 0.0;
+    }
+    
+    /**
+     * Returns the longest time a caller has waited for a connection
+     * 
+     * @return the maximum wait time in milliseconds
+     */
+    public long getMaxWaitTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTime.get());
+    }
+    
+    /**
+     * Returns the number of callers that gave up waiting for a connection
+     * 
+     * @return the number of acquire timeouts
+     */
+    public long getTimeouts()
+    {
+        return timeouts.sum();
+    }
+    
+    /**
+     * Returns true if the pool has been closed
+     * 
+     * @return true if closed
+     */
+    public boolean isClosed()
+    {
+        return closed;
+    }
+    
+    private synchronized Semaphore start()
+    {
+        if(permits != null) return permits;
+        
+        permits = new Semaphore(max, true);
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "Convirgance Connection Pool");
+            
+            thread.setDaemon(true);
+            
+            return thread;
+        });
+        
+        maintenance.scheduleWithFixedDelay(this::maintain, 0, 30, TimeUnit.SECONDS);
+        
+        return permits;
+    }
+    
+    private boolean isExpired(Entry entry, long now)
+    {
+        return (maxLifetime > 0 && now - entry.created > maxLifetime);
+    }
+    
+    private boolean isValid(Entry entry)
+    {
+        try
+        {
+            if(validationQuery == null) return entry.connection.isValid(5);
+            
+            try(Statement statement = entry.connection.createStatement())
+            {
+                statement.execute(validationQuery);
+            }
+            
+            return true;
+        }
+        catch(SQLException e)
+        {
+            return false;
+        }
+    }
+    
+    private void discard(Entry entry)
+    {
+        total.decrementAndGet();
+        
+        try
+        {
+            entry.connection.close();
+        }
+        catch(SQLException e) { /* Connection is already unusable */ }
+    }
+    
+    private Entry open() throws SQLException
+    {
+        var entry = new Entry(source.getConnection());
+        
+        total.incrementAndGet();
+        
+        return entry;
+    }
+    
+    /**
+     * Closes expired and long idle connections, then opens connections until
+     * the minimum is reached. Called periodically by the maintenance thread.
+     */
+    void maintain()
+    {
+        long now = System.currentTimeMillis();
+        
+        for(Entry entry : idle)
+        {
+            if(!isExpired(entry, now) && (idleTimeout <= 0 || now - entry.used <= idleTimeout || total.get() <= min)) continue;
+            if(idle.remove(entry)) discard(entry);
+        }
+        
+        // Opening a connection requires a permit so that min never pushes us past max
+        while(!closed && total.get() < min && permits.tryAcquire())
+        {
+            try
+            {
+                idle.offerLast(open());
+            }
+            catch(SQLException e)
+            {
+                return;
+            }
+            finally
+            {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        var permits = (this.permits != null) ? this.permits : start();
+        long start = System.nanoTime();
+        long wait;
+        Entry entry;
+        
+        if(closed) throw new SQLException("Connection pool is closed");
+        
+        try
+        {
+            if(!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS))
+            {
+                timeouts.increment();
+                
+                throw new SQLTransientConnectionException("Timed out after " + acquireTimeout + "ms waiting for a connection. " + active.get() + " of " + max + " connections are in use.");
+            }
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+        
+        try
+        {
+            // Most recently used connections first so extra connections can go idle
+            while((entry = idle.pollFirst()) != null)
+            {
+                long now = System.currentTimeMillis();
+                
+                if(!isExpired(entry, now) && (now - entry.used < VALIDATION_IDLE_TIME || isValid(entry))) break;
+                
+                discard(entry);
+            }
+            
+            if(entry == null) entry = open();
+        }
+        catch(SQLException | RuntimeException e)
+        {
+            permits.release();
+            
+            throw e;
+        }
+        
+        wait = System.nanoTime() - start;
+        
+        waits.increment();
+        waitTime.add(wait);
+        maxWaitTime.accumulateAndGet(wait, Math::max);
+        active.incrementAndGet();
+        
+        return entry.lease();
+    }
+    
+    private void release(Entry entry)
+    {
+        active.decrementAndGet();
+        
+        try
+        {
+            if(closed || entry.broken || isExpired(entry, System.currentTimeMillis()))
+            {
+                discard(entry);
+                return;
+            }
+            
+            try
+            {
+                if(!entry.connection.getAutoCommit())
+                {
+                    entry.connection.rollback();
+                    entry.connection.setAutoCommit(true);
+                }
+                
+                if(entry.connection.isReadOnly()) entry.connection.setReadOnly(false);
+            }
+            catch(SQLException e)
+            {
+                discard(entry);
+                return;
+            }
+            
+            entry.used = System.currentTimeMillis();
+            
+            idle.offerFirst(entry);
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the maintenance thread. 
+     * Connections in use are closed as they are returned.
+     */
+    @Override
+    public synchronized void close()
+    {
+        Entry entry;
+        
+        closed = true;
+        
+        if(maintenance != null) maintenance.shutdownNow();
+        
+        while((entry = idle.pollFirst()) != null) discard(entry);
+    }
+
+    /**
+     * Opens a connection with different credentials directly from the 
+     * underlying data source. These connections are not pooled.
+     * 
+     * @param username the database user
+     * @param password the user's password
+     * @return a new physical connection
+     * @throws SQLException if the connection cannot be opened
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        return source.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException
+    {
+        return source.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException
+    {
+        source.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException
+    {
+        source.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException
+    {
+        return source.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        return source.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException
+    {
+        if(type.isInstance(this)) return type.cast(this);
+        
+        return source.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException
+    {
+        return type.isInstance(this) || source.isWrapperFor(type);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PooledDataSource[active=" + getActive() + ", idle=" + getIdle() + ", max=" + max + ", averageWait=" + String.format("%.2f", getAverageWaitTime()) + "ms, timeouts=" + getTimeouts() + "]";
+    }
+    
+    private class Entry
+    {
+        private final Connection connection;
+        private final long created = System.currentTimeMillis();
+        private long used = created;
+        private volatile boolean broken;
+
+        public Entry(Connection connection)
+        {
+            this.connection = connection;
+        }
+        
+        public Connection lease()
+        {
+            return (Connection)Proxy.newProxyInstance(PooledDataSource.class.getClassLoader(), new Class[]{ Connection.class }, new Lease(this));
+        }
+    }
+    
+    /**
+     * The connection handed to a caller. Each lease can be closed once, after
+     * which it can no longer reach the pooled connection.
+     */
+    private class Lease implements InvocationHandler
+    {
+        private Entry entry;
+
+        public Lease(Entry entry)
+        {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            Entry entry = this.entry;
+            
+            switch(method.getName())
+            {
+                case "close":
+                    if(entry == null) return null;
+                    
+                    this.entry = null;
+                    
+                    release(entry);
+                    return null;
+                case "isClosed":
+                    return (entry == null || entry.connection.isClosed());
+                case "equals":
+                    return (proxy == args[0]);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + (entry == null ? "closed" : entry.connection) + "]";
+            }
+            
+            if(entry == null) throw new SQLException("Connection is closed");
+            
+            try
+            {
+                return method.invoke(entry.connection, args);
+            }
+            catch(InvocationTargetException e)
+            {
+                // SQL state class 08 is a connection exception
+                if(e.getCause() instanceof SQLException && String.valueOf(((SQLException)e.getCause()).getSQLState()).startsWith("08"))
+                {
+                    entry.broken = true;
+                }
+                
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.datasource;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Routes reads to read replicas and everything else to the primary database.
+ * Connections obtained directly from this data source always come from the
+ * primary, so writes through {@link com.invirgance.convirgance.dbms.DBMS} are
+ * unaffected. Reads use the data source returned by {@link #getReader(boolean)},
+ * which picks a replica for each connection using either round-robin or 
+ * least-in-flight balancing.<br>
+ * <br>
+ * Replicas trail the primary, so a read made right after a write may not see
+ * it. Readers that ask for read-your-writes are sent to the primary until 
+ * <code>replicationLag</code> milliseconds have passed since the last write
+ * connection was returned.
+ * 
+ * @author jbanes
+ */
+public class RoutingDataSource implements DataSource
+{
+    /**
+     * Strategies for picking a replica
+     */
+    public enum Balancing
+    {
+        /**
+         * Each replica is used in turn
+         */
+        ROUND_ROBIN,
+        
+        /**
+         * The replica with the fewest connections in use is picked
+         */
+        LEAST_IN_FLIGHT
+    }
+    
+    private final DataSource primary;
+    private final Replica[] replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong lastWrite = new AtomicLong();
+    private final DataSource reader = new Reader();
+    
+    private Balancing balancing = Balancing.ROUND_ROBIN;
+    private long replicationLag = 1000;
+
+    /**
+     * Creates a data source routing between a primary and its replicas
+     * 
+     * @param primary the primary database used for writes
+     * @param replicas the read replicas
+     */
+    public RoutingDataSource(DataSource primary, List<DataSource> replicas)
+    {
+        this.primary = primary;
+        this.replicas = new Replica[replicas.size()];
+        
+        for(int i=0; i<this.replicas.length; i++) this.replicas[i] = new Replica(replicas.get(i));
+    }
+
+    /**
+     * Returns how replicas are picked for reads
+     * 
+     * @return the balancing strategy
+     */
+    public Balancing getBalancing()
+    {
+        return balancing;
+    }
+
+    /**
+     * Sets how replicas are picked for reads. Defaults to 
+     * {@link Balancing#ROUND_ROBIN}.
+     * 
+     * @param balancing the balancing strategy
+     */
+    public void setBalancing(Balancing balancing)
+    {
+        this.balancing = balancing;
+    }
+
+    /**
+     * Returns how long reads that need to see their writes stay on the 
+     * primary after a write.
+     * 
+     * @return the replication lag in milliseconds
+     */
+    public long getReplicationLag()
+    {
+        return replicationLag;
+    }
+
+    /**
+     * Sets how long reads that need to see their writes stay on the primary
+     * after a write. This should be longer than the replicas normally take to
+     * catch up. Defaults to 1000.
+     * 
+     * @param replicationLag the replication lag in milliseconds
+     */
+    public void setReplicationLag(long replicationLag)
+    {
+        this.replicationLag = replicationLag;
+    }
+
+    /**
+     * Returns the primary database
+     * 
+     * @return the primary data source
+     */
+    public DataSource getPrimary()
+    {
+        return primary;
+    }
+    
+    /**
+     * Returns the number of connections to each replica currently in use
+     * 
+     * @return the in-flight count of each replica in configuration order
+     */
+    public int[] getInFlight()
+    {
+        var counts = new int[replicas.length];
+        
+        for(int i=0; i<replicas.length; i++) counts[i] = replicas[i].inFlight.get();
+        
+        return counts;
+    }
+    
+    /**
+     * Returns a data source for reads. Each connection comes from a replica 
+     * unless there are no replicas, or read-your-writes is requested and the 
+     * primary was written to within the replication lag.
+     * 
+     * @param readYourWrites true if recent writes must be visible
+     * @return the data source to read from
+     */
+    public DataSource getReader(boolean readYourWrites)
+    {
+        if(replicas.length < 1) return primary;
+        if(readYourWrites && System.currentTimeMillis() - lastWrite.get() < replicationLag) return primary;
+        
+        return reader;
+    }
+    
+    private Replica pick()
+    {
+        Replica best;
+        int start;
+        
+        if(balancing == Balancing.ROUND_ROBIN || replicas.length == 1)
+        {
+            return replicas[Math.floorMod(next.getAndIncrement(), replicas.length)];
+        }
+        
+        // Rotate the starting point so ties are spread across replicas
+        start = Math.floorMod(next.getAndIncrement(), replicas.length);
+        best = replicas[start];
+        
+        for(int i=1; i<replicas.length; i++)
+        {
+            var replica = replicas[(start + i) % replicas.length];
+            
+            if(replica.inFlight.get() < best.inFlight.get()) best = replica;
+        }
+        
+        return best;
+    }
+    
+    private static Connection track(Connection connection, Runnable closed)
+    {
+        var released = new boolean[1];
+        
+        return (Connection)Proxy.newProxyInstance(RoutingDataSource.class.getClassLoader(), new Class[]{ Connection.class }, (proxy, method, args) -> {
+            if(method.getName().equals("close"))
+            {
+                synchronized(released)
+                {
+                    if(!released[0]) closed.run();
+                    
+                    released[0] = true;
+                }
+            }
+            
+            try
+            {
+                return method.invoke(connection, args);
+            }
+            catch(InvocationTargetException e)
+            {
+                throw e.getCause();
+            }
+        });
+    }
+
+    /**
+     * Returns a connection to the primary database. The time the connection
+     * is closed is recorded as the time of the last write.
+     * 
+     * @return a connection to the primary
+     * @throws SQLException if the connection cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        return track(primary.getConnection(), () -> lastWrite.set(System.currentTimeMillis()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        return track(primary.getConnection(username, password), () -> lastWrite.set(System.currentTimeMillis()));
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException
+    {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException
+    {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException
+    {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException
+    {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException
+    {
+        if(type.isInstance(this)) return type.cast(this);
+        
+        return primary.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException
+    {
+        return type.isInstance(this) || primary.isWrapperFor(type);
+    }
+    
+    private static class Replica
+    {
+        private final DataSource source;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        public Replica(DataSource source)
+        {
+            this.source = source;
+        }
+        
+        public Connection getConnection() throws SQLException
+        {
+            Connection connection;
+            
+            inFlight.incrementAndGet();
+            
+            try
+            {
+                connection = source.getConnection();
+            }
+            catch(SQLException | RuntimeException e)
+            {
+                inFlight.decrementAndGet();
+                
+                throw e;
+            }
+            
+            return track(connection, inFlight::decrementAndGet);
+        }
+    }
+    
+    /**
+     * Hands out a connection to a replica for each request
+     */
+    private class Reader implements DataSource
+    {
+        @Override
+        public Connection getConnection() throws SQLException
+        {
+            return pick().getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException
+        {
+            return pick().source.getConnection(username, password);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException
+        {
+            return primary.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException
+        {
+            primary.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException
+        {
+            primary.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException
+        {
+            return primary.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException
+        {
+            return primary.getParentLogger();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) throws SQLException
+        {
+            if(type.isInstance(RoutingDataSource.this)) return type.cast(RoutingDataSource.this);
+            
+            return primary.unwrap(type);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> type) throws SQLException
+        {
+            return type.isInstance(RoutingDataSource.this) || primary.isWrapperFor(type);
+        }
+    }
+}
@@ -25,7 +25,7 @@ package com.invirgance.convirgance.web.filter;
 
 import com.invirgance.convirgance.json.JSONObject;
 import com.invirgance.convirgance.transform.filter.Filter;
-import com.invirgance.convirgance.web.servlet.ServiceState;
+import com.invirgance.convirgance.web.servlet.RequestContext;
 import com.invirgance.convirgance.wiring.annotation.Wiring;
 
 /**
@@ -72,9 +72,9 @@ public class ParameterFilter implements Filter
     @Override
     public boolean test(JSONObject record)
     {
-        record = (JSONObject)ServiceState.get("parameters");
+        RequestContext context = RequestContext.current();
         
-        return filter.test(record);
+        return filter.test(context == null ? null : context.getParameters());
     }
     
 }
@@ -27,7 +27,7 @@ import com.invirgance.convirgance.ConvirganceException;
 import com.invirgance.convirgance.json.JSONObject;
 import com.invirgance.convirgance.transform.ValueGenerator;
 import com.invirgance.convirgance.transform.filter.Filter;
-import com.invirgance.convirgance.web.servlet.ServiceState;
+import com.invirgance.convirgance.web.servlet.RequestContext;
 import com.invirgance.convirgance.wiring.annotation.Wiring;
 
 /**
@@ -79,6 +79,6 @@ public class ParameterValueGenerator<T> implements ValueGenerator<T>
     @Override
     public T generate(JSONObject record)
     {
-        return (T)((JSONObject)ServiceState.get("parameters")).get(this.name);
+        return (T)RequestContext.current().getParameters().get(this.name);
     }
 }
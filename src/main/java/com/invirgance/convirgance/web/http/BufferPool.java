@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.ConvirganceException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A pool of reusable byte buffers for buffering response bodies. Buffers are
+ * returned to the pool once a response is complete so that each request does
+ * not allocate and discard its own. When the pool is empty a new buffer is
+ * allocated, and buffers released to a full pool are left to the garbage
+ * collector.<br>
+ * <br>
+ * Heap buffers are recommended since servlet output streams only accept byte
+ * arrays. Direct buffers are supported, but are copied through a smaller 
+ * heap array when written to the container.
+ * 
+ * @author jbanes
+ */
+public class BufferPool
+{
+    private static final BufferPool DEFAULT = new BufferPool(8192, false, 256);
+    
+    private final int bufferSize;
+    private final boolean direct;
+    private final ArrayBlockingQueue<ByteBuffer> buffers;
+
+    /**
+     * Creates a new pool of buffers.
+     * 
+     * @param bufferSize the size of each buffer in bytes
+     * @param direct true to allocate direct buffers rather than heap buffers
+     * @param capacity the maximum number of idle buffers held by the pool
+     */
+    public BufferPool(int bufferSize, boolean direct, int capacity)
+    {
+        if(bufferSize <= 0) throw new ConvirganceException("Buffer size must be greater than zero: " + bufferSize);
+        
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+    
+    /**
+     * Returns the pool shared by responses that have not been configured with
+     * a different pool. Holds up to 256 heap buffers of 8KB each.
+     * 
+     * @return the default pool
+     */
+    public static BufferPool getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the size of each buffer in bytes.
+     * 
+     * @return the buffer size
+     */
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    /**
+     * Returns true if the pool allocates direct buffers.
+     * 
+     * @return true for direct buffers, false for heap buffers
+     */
+    public boolean isDirect()
+    {
+        return direct;
+    }
+    
+    /**
+     * Returns the number of idle buffers currently held by the pool.
+     * 
+     * @return the number of idle buffers
+     */
+    public int getIdle()
+    {
+        return buffers.size();
+    }
+    
+    /**
+     * Takes a cleared buffer from the pool, allocating one if none are idle.
+     * 
+     * @return a buffer ready for writing
+     */
+    public ByteBuffer acquire()
+    {
+        ByteBuffer buffer = buffers.poll();
+        
+        if(buffer == null) return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        
+        buffer.clear();
+        
+        return buffer;
+    }
+    
+    /**
+     * Returns a buffer to the pool. The buffer must not be used after it has
+     * been released.
+     * 
+     * @param buffer a buffer obtained from {@link #acquire()}
+     */
+    public void release(ByteBuffer buffer)
+    {
+        if(buffer == null || buffer.capacity() != bufferSize || buffer.isDirect() != direct) return;
+        
+        buffers.offer(buffer);
+    }
+}
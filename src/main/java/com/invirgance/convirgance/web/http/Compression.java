@@ -0,0 +1,276 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.ConvirganceException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Settings for compressing response bodies. The encoding is negotiated with
+ * the client's <code>Accept-Encoding</code> header, preferring gzip over
+ * deflate. Responses smaller than the threshold are sent uncompressed since
+ * the headers and checksums can outweigh the savings.
+ * 
+ * @author jbanes
+ */
+public class Compression
+{
+    private static final int BUFFER_SIZE = 8192;
+    
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private int threshold = 1024;
+    private boolean syncFlush;
+
+    /**
+     * Returns the compression level from 1 (fastest) to 9 (smallest) or -1
+     * for the default level.
+     * 
+     * @return the compression level
+     */
+    public int getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * Sets the compression level from 1 (fastest) to 9 (smallest). Zero
+     * stores the data without compressing it and -1 selects the default level of 6.
+     * 
+     * @param level the compression level
+     */
+    public void setLevel(int level)
+    {
+        if(level < -1 || level > 9) throw new ConvirganceException("Compression level must be between -1 and 9: " + level);
+        
+        this.level = level;
+    }
+
+    /**
+     * Returns the minimum size in bytes of a response that will be compressed.
+     * 
+     * @return the threshold in bytes
+     */
+    public int getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * Sets the minimum size in bytes of a response that will be compressed.
+     * Up to this many bytes are held back until the response is either 
+     * complete or large enough to compress. Defaults to 1024.
+     * 
+     * @param threshold the threshold in bytes
+     */
+    public void setThreshold(int threshold)
+    {
+        if(threshold < 0) throw new ConvirganceException("Compression threshold cannot be negative: " + threshold);
+        
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns true if flushing the stream flushes the compressor.
+     * 
+     * @return true if sync flush is enabled
+     */
+    public boolean isSyncFlush()
+    {
+        return syncFlush;
+    }
+
+    /**
+     * When true, flushing the response stream emits everything compressed
+     * so far so that clients can process streamed records as they arrive.
+     * This costs a little in compression ratio on each flush. When false 
+     * (the default), compressed data is only sent as the compressor fills
+     * its buffer and when the response is complete.
+     * 
+     * @param syncFlush true to flush the compressor when the stream is flushed
+     */
+    public void setSyncFlush(boolean syncFlush)
+    {
+        this.syncFlush = syncFlush;
+    }
+    
+    /**
+     * Chooses a content encoding supported by the client. Encodings with a 
+     * quality of zero are refused and a wildcard accepts both.
+     * 
+     * @param acceptEncoding the value of the <code>Accept-Encoding</code> header
+     * @return <code>gzip</code>, <code>deflate</code>, or null if neither is accepted
+     */
+    public static String negotiate(String acceptEncoding)
+    {
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+        
+        String name;
+        double quality;
+        int index;
+        
+        if(acceptEncoding == null) return null;
+        
+        for(String token : acceptEncoding.split(","))
+        {
+            index = token.indexOf(';');
+            name = (index < 0 ? token : token.substring(0, index)).trim().toLowerCase();
+            quality = (index < 0) ? 1 : parseQuality(token.substring(index + 1));
+            
+            switch(name)
+            {
+                case "gzip":
+                case "x-gzip":
+                    gzip = Math.max(gzip, quality);
+                    break;
+                    
+                case "deflate":
+                    deflate = Math.max(deflate, quality);
+                    break;
+                    
+                case "*":
+                    wildcard = quality;
+                    break;
+            }
+        }
+        
+        if(gzip < 0) gzip = wildcard;
+        if(deflate < 0) deflate = wildcard;
+        
+        if(gzip > 0 && gzip >= deflate) return "gzip";
+        if(deflate > 0) return "deflate";
+        
+        return null;
+    }
+    
+    /**
+     * Compresses a complete body with the encoding. Used to compress content
+     * once so that it can be sent many times.
+     * 
+     * @param data the uncompressed bytes
+     * @param encoding <code>gzip</code> or <code>deflate</code>
+     * @return the compressed bytes
+     */
+    public byte[] compress(byte[] data, String encoding)
+    {
+        var buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        
+        try(OutputStream out = open(buffer, encoding))
+        {
+            out.write(data);
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+        
+        return buffer.toByteArray();
+    }
+    
+    /**
+     * Opens a compressing stream with these settings
+     * 
+     * @param out the stream to write compressed bytes to
+     * @param encoding <code>gzip</code> or <code>deflate</code>
+     * @return a stream that must be closed to complete the compressed data
+     * @throws IOException if the stream cannot be opened
+     */
+    OutputStream open(OutputStream out, String encoding) throws IOException
+    {
+        switch(encoding)
+        {
+            case "gzip":
+                return new GzipStream(out, level, syncFlush);
+                
+            case "deflate":
+                return new DeflateStream(out, level, syncFlush);
+                
+            default:
+                throw new ConvirganceException("Unsupported encoding: " + encoding);
+        }
+    }
+    
+    private static double parseQuality(String parameters)
+    {
+        String parameter;
+        
+        for(String token : parameters.split(";"))
+        {
+            parameter = token.trim();
+            
+            if(!parameter.startsWith("q=") && !parameter.startsWith("Q=")) continue;
+            
+            try
+            {
+                return Double.parseDouble(parameter.substring(2).trim());
+            }
+            catch(NumberFormatException e)
+            {
+                return 0;
+            }
+        }
+        
+        return 1;
+    }
+    
+    /**
+     * GZIPOutputStream with a configurable compression level
+     */
+    private static class GzipStream extends GZIPOutputStream
+    {
+        public GzipStream(OutputStream out, int level, boolean syncFlush) throws IOException
+        {
+            super(out, BUFFER_SIZE, syncFlush);
+            
+            def.setLevel(level);
+        }
+    }
+    
+    /**
+     * DeflaterOutputStream that releases its deflater when closed
+     */
+    private static class DeflateStream extends DeflaterOutputStream
+    {
+        public DeflateStream(OutputStream out, int level, boolean syncFlush)
+        {
+            super(out, new Deflater(level), BUFFER_SIZE, syncFlush);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                def.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses the response body once it grows past the compression threshold.
+ * Bytes are held back until then so that small responses can be sent as-is 
+ * without a <code>Content-Encoding</code> header. The header is set on the 
+ * response before any compressed bytes reach the underlying stream.
+ * 
+ * @author jbanes
+ */
+class CompressionOutputStream extends OutputStream
+{
+    private final OutputStream out;
+    private final String encoding;
+    private final Compression compression;
+    private final HttpResponse response;
+    private final byte[] pending;
+    
+    private int count;
+    private OutputStream stream;
+    private boolean compressing;
+    private boolean closed;
+
+    public CompressionOutputStream(OutputStream out, String encoding, Compression compression, HttpResponse response)
+    {
+        this.out = out;
+        this.encoding = encoding;
+        this.compression = compression;
+        this.response = response;
+        this.pending = new byte[compression.getThreshold()];
+    }
+    
+    /**
+     * Returns true once the stream has decided to compress the response
+     * 
+     * @return true if the response is being compressed
+     */
+    public boolean isCompressing()
+    {
+        return compressing;
+    }
+    
+    /**
+     * Returns true once the stream has been closed and the response body 
+     * completed
+     * 
+     * @return true if the stream is closed
+     */
+    public boolean isClosed()
+    {
+        return closed;
+    }
+    
+    private void start(boolean compress) throws IOException
+    {
+        // Something else already encoded the body
+        if(compress && response.containsHeader("Content-Encoding")) compress = false;
+        
+        if(compress)
+        {
+            response.setHeader("Content-Encoding", encoding);
+            
+            compressing = true;
+            stream = compression.open(out, encoding);
+        }
+        else
+        {
+            stream = out;
+        }
+        
+        stream.write(pending, 0, count);
+        count = 0;
+    }
+
+    /**
+     * Sends the body uncompressed if the decision to compress has not been
+     * made yet. Anything held back is written to the underlying stream.
+     * 
+     * @throws IOException if the underlying stream fails
+     */
+    public void decline() throws IOException
+    {
+        if(stream == null && !closed) start(false);
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        write(new byte[]{ (byte)b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        if(closed) throw new IOException("Stream is closed");
+        
+        if(stream == null)
+        {
+            if(count + len <= pending.length)
+            {
+                System.arraycopy(b, off, pending, count, len);
+                count += len;
+                
+                return;
+            }
+            
+            start(true);
+        }
+        
+        stream.write(b, off, len);
+    }
+
+    /**
+     * Flushes the compressed data if sync flush is enabled. Data held back 
+     * below the threshold remains buffered until the decision to compress 
+     * has been made.
+     * 
+     * @throws IOException if the underlying stream fails
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        if(stream == null || closed) return;
+        if(stream == out || compression.isSyncFlush()) stream.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if(closed) return;
+        
+        closed = true;
+        
+        if(stream == null) start(false);
+        
+        stream.close();
+    }
+}
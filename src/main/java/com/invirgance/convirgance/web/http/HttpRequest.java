@@ -54,6 +54,8 @@ import java.util.Map;
 public class HttpRequest
 {
     private Object request;
+    private RequestAdapter adapter;
+    private PathMatch pathMatch;
 
     /**
      * Creates a HttpRequest using the provided object.
@@ -62,24 +64,13 @@ public class HttpRequest
      */
     public HttpRequest(Object request)
     {
-        this.request = request;
+        this(request, RequestAdapter.create(request));
     }
     
-    private Object execMethod(Object obj, String methodName, Object... parameters)
+    HttpRequest(Object request, RequestAdapter adapter)
     {
-        try
-        {
-            for(var method : obj.getClass().getMethods())
-            {
-                if(!method.getName().equals(methodName)) continue;
-                if(method.getParameterCount() != parameters.length) continue;
-
-                return method.invoke(obj, parameters);
-            }
-            
-            throw new ConvirganceException("Method " + methodName + " with " + parameters.length + " parameters not found");
-        }
-        catch(Exception e) { throw new ConvirganceException(e); }
+        this.request = request;
+        this.adapter = adapter;
     }
     
     private Object execMethod(Object obj, String methodName, Class[] types, Object... parameters)
@@ -93,20 +84,6 @@ public class HttpRequest
         catch(Exception e) { throw new ConvirganceException(e); }
     }
     
-    private Object execRequestMethod(String methodName, Object... parameters)
-    {
-        Class clazz = request.getClass();
-        Class[] types = new Class[parameters.length];
-        
-        for(int i=0; i<parameters.length; i++) types[i] = parameters[i].getClass();
-        
-        try
-        {
-            return clazz.getMethod(methodName, types).invoke(request, parameters);
-        }
-        catch(Exception e) { throw new ConvirganceException(e); }
-    }
-    
     /**
      * Gets the context/request path.
      * 
@@ -114,7 +91,7 @@ public class HttpRequest
      */
     public String getContextPath()
     {
-        return (String)execRequestMethod("getContextPath");
+        return adapter.getContextPath();
     }
     
     // TODO: getCookies()
@@ -127,7 +104,7 @@ public class HttpRequest
      */
     public long getDateHeader(String name)
     {
-        return (long)execRequestMethod("getDateHeader", name);
+        return adapter.getDateHeader(name);
     }
     
     /**
@@ -140,7 +117,7 @@ public class HttpRequest
      */
     public String getHeader(String name)
     {
-        return (String)execRequestMethod("getHeader", name);
+        return adapter.getHeader(name);
     }
     
     /**
@@ -153,7 +130,7 @@ public class HttpRequest
      */    
     public Iterable<String> getHeaders(String name)
     {
-        Enumeration<String> enumeration = (Enumeration<String>)execRequestMethod("getHeaders", name);
+        Enumeration<String> enumeration = adapter.getHeaders(name);
         
         return Collections.list(enumeration);
     }
@@ -166,7 +143,7 @@ public class HttpRequest
      */      
     public Iterable<String> getHeaderNames(String name)
     {
-        Enumeration<String> enumeration = (Enumeration<String>)execRequestMethod("getHeaderNames", name);
+        Enumeration<String> enumeration = adapter.getHeaderNames();
         
         return Collections.list(enumeration);
     }
@@ -200,7 +177,7 @@ public class HttpRequest
      */          
     public String getMethod()
     {
-        return (String)execRequestMethod("getMethod");
+        return adapter.getMethod();
     }
     
     /**
@@ -210,7 +187,7 @@ public class HttpRequest
      */     
     public String getPathInfo()
     {
-        return (String)execRequestMethod("getPathInfo");
+        return adapter.getPathInfo();
     }
     
     /**
@@ -221,7 +198,7 @@ public class HttpRequest
      */         
     public String getPathTranslated()
     {
-        return (String)execRequestMethod("getPathTranslated");
+        return adapter.getPathTranslated();
     }
     
     /**
@@ -231,7 +208,7 @@ public class HttpRequest
      */
     public String getQueryString()
     {
-        return (String)execRequestMethod("getQueryString");
+        return adapter.getQueryString();
     }
     
     // TODO: getRemoteUser
@@ -247,7 +224,21 @@ public class HttpRequest
      */
     public String getRequestURI()
     {
-        return (String)execRequestMethod("getRequestURI");
+        return adapter.getRequestURI();
+    }
+
+    /**
+     * Returns the request path parsed into its components. The path is only
+     * parsed once per request, so routing and path variables share the same
+     * result.
+     * 
+     * @return The parsed path.
+     */
+    public PathMatch getPathMatch()
+    {
+        if(pathMatch == null) pathMatch = new PathMatch(getRequestURI(), getContextPath());
+        
+        return pathMatch;
     }
 
     /**
@@ -257,7 +248,7 @@ public class HttpRequest
      */    
     public StringBuffer getRequestURL()
     {
-        return (StringBuffer)execRequestMethod("getRequestURL");
+        return adapter.getRequestURL();
     }
     
     /**
@@ -267,12 +258,12 @@ public class HttpRequest
      */      
     public String getServletPath()
     {
-        return (String)execRequestMethod("getServletPath");
+        return adapter.getServletPath();
     }
     
     public Session getSession()
     {
-        return new Session(execRequestMethod("getSession"));
+        return new Session(adapter.getSession());
     }
     
     // TODO: getSession(boolean create)
@@ -297,7 +288,7 @@ public class HttpRequest
      */    
     public String getCharacterEncoding()
     {
-        return (String)execRequestMethod("getCharacterEncoding");
+        return adapter.getCharacterEncoding();
     }
     
     // TODO: setCharacterEncoding(String encoding)
@@ -315,7 +306,7 @@ public class HttpRequest
      */
     public String getContentType()
     {
-        return (String)execRequestMethod("getContentType");
+        return adapter.getContentType();
     }
     
     /**
@@ -325,7 +316,7 @@ public class HttpRequest
      */
     public InputStream getInputStream()
     {
-        return (InputStream)execRequestMethod("getInputStream");
+        return adapter.getInputStream();
     }
     
     /**
@@ -336,7 +327,7 @@ public class HttpRequest
      */
     public String getParameter(String name)
     {
-        return (String)execRequestMethod("getParameter", name);
+        return adapter.getParameter(name);
     }
     
     /**
@@ -346,7 +337,7 @@ public class HttpRequest
      */
     public Iterable<String> getParameterNames()
     {
-        Enumeration<String> enumeration = (Enumeration<String>)execRequestMethod("getParameterNames");
+        Enumeration<String> enumeration = adapter.getParameterNames();
         
         return Collections.list(enumeration);
     }
@@ -359,7 +350,7 @@ public class HttpRequest
      */
     public String[] getParameterValues(String name)
     {
-        return (String[])execRequestMethod("getParameterValues", name);
+        return adapter.getParameterValues(name);
     }
     
     /**
@@ -369,7 +360,7 @@ public class HttpRequest
      */
     public Map<String,String[]> getParameterMap()
     {
-        return (Map<String,String[]>)execRequestMethod("getParameterMap");
+        return adapter.getParameterMap();
     }
     
     /**
@@ -379,7 +370,7 @@ public class HttpRequest
      */    
     public String getProtocol()
     {
-        return (String)execRequestMethod("getProtocol");
+        return adapter.getProtocol();
     }
     
     /**
@@ -390,7 +381,7 @@ public class HttpRequest
      */
     public String getScheme()
     {
-        return (String)execRequestMethod("getScheme");
+        return adapter.getScheme();
     }
     
     /**
@@ -401,7 +392,7 @@ public class HttpRequest
      */    
     public String getServerName()
     {
-        return (String)execRequestMethod("getServerName");
+        return adapter.getServerName();
     }
     
     /**
@@ -411,7 +402,7 @@ public class HttpRequest
      */    
     public int getServerPort()
     {
-        return (int)execRequestMethod("getServerPort");
+        return adapter.getServerPort();
     }
     
     // TODO: getReader()
@@ -425,7 +416,7 @@ public class HttpRequest
      */    
     public String getRemoteAddress()
     {
-        return (String)execRequestMethod("getRemoteAddr");
+        return adapter.getRemoteAddr();
     }
     
     /**
@@ -435,7 +426,7 @@ public class HttpRequest
      */
     public String getRemoteHost()
     {
-        return (String)execRequestMethod("getRemoteHost");
+        return adapter.getRemoteHost();
     }
     
     /**
@@ -445,7 +436,7 @@ public class HttpRequest
      */
     public int getRemotePort()
     {
-        return (int)execRequestMethod("getRemotePort");
+        return adapter.getRemotePort();
     }
     
     // TODO: setAttribute(name, value)
@@ -458,7 +449,7 @@ public class HttpRequest
      */
     public Locale getLocale()
     {
-        return (Locale)execRequestMethod("getLocale");
+        return adapter.getLocale();
     }
     
     /**
@@ -468,7 +459,7 @@ public class HttpRequest
      */
     public Iterable<Locale> getLocales()
     {
-        Enumeration<Locale> enumeration = (Enumeration<Locale>)execRequestMethod("getLocales");
+        Enumeration<Locale> enumeration = adapter.getLocales();
         
         return Collections.list(enumeration);
     }
@@ -484,7 +475,7 @@ public class HttpRequest
      */
     public String getLocalAddress()
     {
-        return (String)execRequestMethod("getLocalAddr");
+        return adapter.getLocalAddr();
     }
     
     /**
@@ -494,7 +485,7 @@ public class HttpRequest
      */
     public String getLocalName()
     {
-        return (String)execRequestMethod("getLocalName");
+        return adapter.getLocalName();
     }
     
     /**
@@ -504,7 +495,7 @@ public class HttpRequest
      */
     public int getLocalPort()
     {
-        return (int)execRequestMethod("getLocalPort");
+        return adapter.getLocalPort();
     }
     
     //TODO: getServletContext()
@@ -518,9 +509,7 @@ public class HttpRequest
      */
     public File getFileByPath(String path)
     {
-        String context = getContextPath();
-        Object servletContext = execRequestMethod("getServletContext");
-        String filePath = (String)execMethod(servletContext, "getRealPath", path);
+        String filePath = adapter.getRealPath(path);
         
         if(filePath == null) return null;
         
@@ -624,7 +613,8 @@ public class HttpRequest
     }
 
     /**
-     * Include a page in the flow of processing
+     * Include a page in the flow of processing. Anything already written to
+     * the response is sent first, and the response is no longer compressed.
      * 
      * @param path path to the page or servlet
      * @param parameters override request parameters with these values
@@ -632,15 +622,19 @@ public class HttpRequest
      */
     public void include(String path, JSONObject parameters, HttpResponse response)
     {
-        var dispatcher = execRequestMethod("getRequestDispatcher", path);
+        var dispatcher = adapter.getRequestDispatcher(path);
         var request = getParameterizedWrapper(parameters, null, null, null);
         var types = new Class[]{ getRequestType(), getResponseType() };
         
+        // The buffered body must reach the client before the included content
+        response.include();
+        
         execMethod(dispatcher, "include", types, request, response.getResponse());
     }
 
     /**
-     * Forward the flow of processing to another page or servlet
+     * Forward the flow of processing to another page or servlet. Anything 
+     * written to the response before or after the forward is discarded.
      * 
      * @param path path to the page or servlet
      * @param parameters override request parameters with these values
@@ -648,10 +642,13 @@ public class HttpRequest
      */
     public void forward(String path, JSONObject parameters, HttpResponse response)
     {
-        var dispatcher = execRequestMethod("getRequestDispatcher", path);
+        var dispatcher = adapter.getRequestDispatcher(path);
         var request = getParameterizedWrapper(parameters, null, null, null);
         var types = new Class[]{ getRequestType(), getResponseType() };
         
+        // The forwarded page replaces anything buffered so far
+        response.forward();
+        
         execMethod(dispatcher, "forward", types, request, response.getResponse());
     }
 }
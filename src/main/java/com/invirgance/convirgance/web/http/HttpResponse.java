@@ -22,9 +22,13 @@ SOFTWARE.
 package com.invirgance.convirgance.web.http;
 
 import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.output.Output;
+import com.invirgance.convirgance.output.OutputCursor;
+import com.invirgance.convirgance.target.OutputStreamTarget;
+import com.invirgance.convirgance.target.Target;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Method;
-import java.util.Collection;
 import java.util.Locale;
 
 /**
@@ -42,6 +46,19 @@ import java.util.Locale;
 public class HttpResponse
 {
     private Object response;
+    private ResponseAdapter adapter;
+    
+    private Runnable asyncComplete;
+    private boolean completionDeferred;
+    private volatile boolean completed;
+    
+    private Compression compression;
+    private String encoding;
+    
+    private BufferPool pool = BufferPool.getDefault();
+    private int flushThreshold;
+    private PooledOutputStream stream;
+    private CompressionOutputStream compressed;
 
     /**
      * Creates a new HttpResponse based on the object.
@@ -49,8 +66,14 @@ public class HttpResponse
      * @param response The response.
      */
     public HttpResponse(Object response)
+    {
+        this(response, ResponseAdapter.create(response));
+    }
+    
+    HttpResponse(Object response, ResponseAdapter adapter)
     {
         this.response = response;
+        this.adapter = adapter;
     }
     
     /**
@@ -63,23 +86,6 @@ public class HttpResponse
         return this.response;
     }
     
-    private Object execResponseMethod(String methodName, Object... parameters)
-    {
-        try
-        {
-            for(var method : response.getClass().getMethods())
-            {
-                if(!method.getName().equals(methodName)) continue;
-                if(method.getParameterCount() != parameters.length) continue;
-                
-                return method.invoke(response, parameters);
-            }
-            
-            throw new ConvirganceException("Method " + methodName + " with " + parameters.length + " parameters not found");
-        }
-        catch(Exception e) { throw new ConvirganceException(e); }
-    }
-    
     // TODO: addCookie
     
     /**
@@ -90,7 +96,7 @@ public class HttpResponse
      */
     public boolean containsHeader(String name)
     {
-        return (boolean)execResponseMethod("containsHeader", name);
+        return adapter.containsHeader(name);
     }
     
     // TODO: encodeURL
@@ -104,7 +110,9 @@ public class HttpResponse
      */
     public void sendError(int code, String message)
     {
-        execResponseMethod("sendError", code, message);
+        if(stream != null) stream.reset();
+        
+        adapter.sendError(code, message);
     }
     
     /**
@@ -114,7 +122,9 @@ public class HttpResponse
      */
     public void sendRedirect(String location)
     {
-        execResponseMethod("sendRedirect", location);
+        if(stream != null) stream.reset();
+        
+        adapter.sendRedirect(location);
     }
     
     /**
@@ -125,7 +135,7 @@ public class HttpResponse
      */
     public void addDateHeader(String name, long time)
     {
-        execResponseMethod("addDateHeader", name, time);
+        adapter.addDateHeader(name, time);
     }
     
     /**
@@ -137,7 +147,7 @@ public class HttpResponse
      */
     public void setDateHeader(String name, long time)
     {
-        execResponseMethod("setDateHeader", name, time);
+        adapter.setDateHeader(name, time);
     }
     
     /**
@@ -148,7 +158,7 @@ public class HttpResponse
      */
     public void addHeader(String name, String value)
     {
-        execResponseMethod("addHeader", name, value);
+        adapter.addHeader(name, value);
     }
     
     /**
@@ -159,7 +169,7 @@ public class HttpResponse
      */
     public void setHeader(String name, String value)
     {
-        execResponseMethod("setHeader", name, value);
+        adapter.setHeader(name, value);
     }
     
     /**
@@ -170,7 +180,7 @@ public class HttpResponse
      */
     public void addIntHeader(String name, int value)
     {
-        execResponseMethod("addIntHeader", name, value);
+        adapter.addIntHeader(name, value);
     }
     
     /**
@@ -181,7 +191,7 @@ public class HttpResponse
      */
     public void setIntHeader(String name, int value)
     {
-        execResponseMethod("setIntHeader", name, value);
+        adapter.setIntHeader(name, value);
     }
     
     /**
@@ -215,7 +225,7 @@ public class HttpResponse
      */
     public int getStatus()
     {
-        return (int)execResponseMethod("getStatus");
+        return adapter.getStatus();
     }
     
     /**
@@ -225,7 +235,7 @@ public class HttpResponse
      */
     public void setStatus(int code)
     {
-        execResponseMethod("setStatus", code);
+        adapter.setStatus(code);
     }
     
     /**
@@ -236,7 +246,7 @@ public class HttpResponse
      */
     public String getHeader(String name)
     {
-        return (String)execResponseMethod("getHeader", name);
+        return adapter.getHeader(name);
     }
     
     /**
@@ -247,7 +257,7 @@ public class HttpResponse
      */
     public Iterable<String> getHeaders(String name)
     {
-        return (Collection<String>)execResponseMethod("getHeaders", name);
+        return adapter.getHeaders(name);
     }
     
     /**
@@ -257,7 +267,7 @@ public class HttpResponse
      */
     public Iterable<String> getHeaderNames()
     {
-        return (Collection<String>)execResponseMethod("getHeaderNames");
+        return adapter.getHeaderNames();
     }
     
     /**
@@ -267,17 +277,280 @@ public class HttpResponse
      */
     public void setContentType(String name)
     {
-        execResponseMethod("setContentType", name);
+        adapter.setContentType(name);
     }
     
     /**
-     * Gets a {@link OutputStream} to the responses body.
+     * Gets a {@link OutputStream} to the responses body. Writes are buffered 
+     * in a pooled buffer and sent to the container as it fills, when the 
+     * stream is closed, or when the servlet finishes the response. The same
+     * stream is always returned, and the servlet closes it when it finishes
+     * the response, completing any compression. A compressed body cannot be
+     * extended once it is complete, so writes after it is closed fail.
      * 
      * @return An output stream to the body.
      */
     public OutputStream getOutputStream()
     {
-        return new CloseInterceptOutputStream((OutputStream)execResponseMethod("getOutputStream"));
+        if(completed) return OutputStream.nullOutputStream();
+        
+        return compress(stream());
+    }
+    
+    private PooledOutputStream stream()
+    {
+        if(stream == null) stream = new PooledOutputStream(container(), pool, flushThreshold);
+        
+        return stream;
+    }
+    
+    private OutputStream container()
+    {
+        OutputStream out = adapter.getOutputStream();
+        
+        // Drops writes once the container has completed the response
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException
+            {
+                if(!completed) out.write(b);
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException
+            {
+                if(!completed) out.write(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException
+            {
+                if(!completed) out.flush();
+            }
+        };
+    }
+    
+    /**
+     * Returns the pool that buffers for the response body are borrowed from.
+     * 
+     * @return the buffer pool
+     */
+    public BufferPool getBufferPool()
+    {
+        return pool;
+    }
+
+    /**
+     * Sets the pool that buffers for the response body are borrowed from.
+     * Must be set before the body is written. Defaults to 
+     * {@link BufferPool#getDefault()}.
+     * 
+     * @param pool the buffer pool
+     */
+    public void setBufferPool(BufferPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the number of bytes written between flushes of the container.
+     * 
+     * @return the flush threshold in bytes or zero if disabled
+     */
+    public int getFlushThreshold()
+    {
+        return flushThreshold;
+    }
+
+    /**
+     * Flushes the container each time this many bytes of the body have been
+     * written so that clients receive large responses progressively. Zero
+     * (the default) leaves flushing to the container. Must be set before the
+     * body is written.
+     * 
+     * @param flushThreshold the flush threshold in bytes or zero to disable
+     */
+    public void setFlushThreshold(int flushThreshold)
+    {
+        this.flushThreshold = flushThreshold;
+    }
+    
+    /**
+     * Returns the number of body bytes written to the container so far,
+     * after any compression.
+     * 
+     * @return the number of bytes written
+     */
+    public long getBytesWritten()
+    {
+        return (stream == null) ? 0 : stream.getBytesWritten();
+    }
+    
+    /**
+     * Returns the number of writes made to the container. Small writes are 
+     * combined in the response buffer so this is usually far smaller than
+     * the number of writes made by the output.
+     * 
+     * @return the number of container writes
+     */
+    public int getContainerWrites()
+    {
+        return (stream == null) ? 0 : stream.getWrites();
+    }
+    
+    /**
+     * Returns the number of times the container was flushed.
+     * 
+     * @return the number of container flushes
+     */
+    public int getContainerFlushes()
+    {
+        return (stream == null) ? 0 : stream.getFlushes();
+    }
+    
+    /**
+     * Writes any buffered body content to the container and returns the 
+     * buffer to the pool. Completes the compression of a body written through
+     * {@link #getOutputStream()} that was not closed. Called by the servlet
+     * once the service is done.
+     */
+    public void finish()
+    {
+        try
+        {
+            // Nothing may be written, but the buffer still goes back to the pool
+            if(completed && stream != null) stream.reset();
+            
+            // Writes out anything held below the threshold and the gzip trailer
+            if(compressed != null) compressed.close();
+            
+            if(stream != null) stream.close();
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+    }
+    
+    /**
+     * Writes the buffered body to the container ahead of content included
+     * from another page or servlet. The included content is not compressed,
+     * so the rest of the body is sent uncompressed as well.
+     */
+    void include()
+    {
+        // Compressed bytes cannot be mixed with the included content
+        if(compressed != null && compressed.isCompressing()) throw new ConvirganceException("Cannot include content in a compressed response");
+        
+        encoding = null;
+        
+        try
+        {
+            if(compressed != null) compressed.decline();
+            if(stream != null) stream.flush();
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+    }
+    
+    /**
+     * Discards the buffered body before the response is forwarded to another
+     * page or servlet. The forwarded page completes the response, so anything
+     * written afterwards is discarded.
+     */
+    void forward()
+    {
+        if(stream != null) stream.reset();
+        
+        this.completed = true;
+    }
+    
+    /**
+     * Returns the compression settings applied to the response body, if any.
+     * 
+     * @return the compression settings or null if the body is not compressed
+     */
+    public Compression getCompression()
+    {
+        return compression;
+    }
+    
+    /**
+     * Compresses the response body with the settings if the client accepts
+     * gzip or deflate encoding. Replaces any previous settings as long as
+     * the body has not been opened for writing yet. Pass null to disable
+     * compression.
+     * 
+     * @param compression the compression settings or null
+     * @param request the request providing the <code>Accept-Encoding</code> header
+     */
+    public void setCompression(Compression compression, HttpRequest request)
+    {
+        this.compression = compression;
+        this.encoding = (compression == null) ? null : Compression.negotiate(request.getHeader("Accept-Encoding"));
+    }
+    
+    /**
+     * Returns the encoding negotiated with the client for compressing the 
+     * response body.
+     * 
+     * @return <code>gzip</code>, <code>deflate</code>, or null if the body
+     *         will not be compressed
+     */
+    public String getCompressionEncoding()
+    {
+        return encoding;
+    }
+    
+    OutputStream compress(OutputStream out)
+    {
+        if(compression == null) return out;
+        
+        // Caches must key the response on the encoding the client accepts
+        if(!containsHeader("Vary")) setHeader("Vary", "Accept-Encoding");
+        else if(!getHeader("Vary").toLowerCase().contains("accept-encoding")) addHeader("Vary", "Accept-Encoding");
+        
+        if(encoding == null) return out;
+        
+        // One compressed body per response. Once closed, it rejects writes.
+        if(compressed == null) compressed = new CompressionOutputStream(out, encoding, compression, this);
+        
+        return compressed;
+    }
+    
+    /**
+     * Writes a complete, already encoded body with its length. The bytes are
+     * written as-is without applying compression, so the caller must set
+     * <code>Content-Encoding</code> if they are compressed.
+     * 
+     * @param body the complete response body
+     */
+    public void write(byte[] body)
+    {
+        if(completed) return;
+        
+        setLongHeader("Content-Length", body.length);
+        
+        try
+        {
+            stream().write(body, 0, body.length);
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+    }
+    
+    private Output compressible(Output output)
+    {
+        // Opens the target lazily so that an output can change the
+        // compression settings before anything is written
+        return new Output() {
+            @Override
+            public OutputCursor write(Target target)
+            {
+                return output.write(new CompressedTarget(HttpResponse.this, target));
+            }
+
+            @Override
+            public String getContentType()
+            {
+                return output.getContentType();
+            }
+        };
     }
     
     /**
@@ -287,7 +560,7 @@ public class HttpResponse
      */
     public Locale getLocale()
     {
-        return (Locale)execResponseMethod("getLocale");
+        return adapter.getLocale();
     }
     
     /**
@@ -297,7 +570,7 @@ public class HttpResponse
      */
     public void setLocale(Locale locale)
     {
-        execResponseMethod("setLocale");
+        adapter.setLocale(locale);
     }
     
     /**
@@ -307,7 +580,13 @@ public class HttpResponse
      */
     public void flushBuffer()
     {
-        execResponseMethod("flushBuffer");
+        try
+        {
+            if(stream != null) stream.flush();
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+        
+        adapter.flushBuffer();
     }
     
     /**
@@ -317,7 +596,9 @@ public class HttpResponse
      */
     public void resetBuffer()
     {
-        execResponseMethod("resetBuffer");
+        if(stream != null) stream.reset();
+        
+        adapter.resetBuffer();
     }
     
     /**
@@ -328,6 +609,77 @@ public class HttpResponse
      */
     public boolean isCommitted()
     {
-        return (Boolean)execResponseMethod("isCommitted");
+        return adapter.isCommitted();
+    }
+    
+    /**
+     * Called by the servlet when the request has been put into async mode. 
+     * The completion is run once the response has been fully written.
+     * 
+     * @param complete completes the async request
+     */
+    public void setAsyncCompletion(Runnable complete)
+    {
+        this.asyncComplete = complete;
+    }
+    
+    /**
+     * Called by the servlet when the container has completed the response,
+     * such as after an async timeout. Anything written to the response after
+     * this point is discarded.
+     */
+    public void complete()
+    {
+        this.completed = true;
+    }
+    
+    /**
+     * Returns true if the container has completed the response and further
+     * writes will be discarded.
+     * 
+     * @return true if the response has been completed
+     */
+    public boolean isCompleted()
+    {
+        return completed;
+    }
+    
+    /**
+     * Returns true if a non-blocking write is still in progress after the 
+     * service returned. The servlet must not complete the async request in 
+     * that case since the writer will complete it when finished.
+     * 
+     * @return true if completion is handled by a non-blocking write
+     */
+    public boolean isCompletionDeferred()
+    {
+        return completionDeferred;
+    }
+    
+    /**
+     * Writes the records to the response body in the format of the output.
+     * When the request is in async mode, the records are written without 
+     * blocking: records are only read from the iterable as the client is able
+     * to receive them, and the calling thread returns immediately. Otherwise
+     * the records are written before returning. The body is compressed if
+     * compression was enabled before the output opens its target.
+     * 
+     * @param output the output format
+     * @param records the records to write
+     */
+    public void write(Output output, Iterable<JSONObject> records)
+    {
+        if(completed) return;
+        
+        output = compressible(output);
+        
+        if(asyncComplete != null && !completionDeferred)
+        {
+            completionDeferred = adapter.writeNonBlocking(output, records, asyncComplete);
+            
+            if(completionDeferred) return;
+        }
+        
+        output.write(new OutputStreamTarget(stream()), records);
     }
 }
@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.output.Output;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Calls a Jakarta EE servlet response directly
+ * 
+ * @author jbanes
+ */
+class JakartaResponseAdapter implements ResponseAdapter
+{
+    private HttpServletResponse response;
+
+    public JakartaResponseAdapter(HttpServletResponse response)
+    {
+        this.response = response;
+    }
+
+    @Override
+    public boolean containsHeader(String name)
+    {
+        return response.containsHeader(name);
+    }
+
+    @Override
+    public void sendError(int code, String message)
+    {
+        try
+        {
+            response.sendError(code, message);
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+    }
+
+    @Override
+    public void sendRedirect(String location)
+    {
+        try
+        {
+            response.sendRedirect(location);
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+    }
+
+    @Override
+    public void addDateHeader(String name, long time)
+    {
+        response.addDateHeader(name, time);
+    }
+
+    @Override
+    public void setDateHeader(String name, long time)
+    {
+        response.setDateHeader(name, time);
+    }
+
+    @Override
+    public void addHeader(String name, String value)
+    {
+        response.addHeader(name, value);
+    }
+
+    @Override
+    public void setHeader(String name, String value)
+    {
+        response.setHeader(name, value);
+    }
+
+    @Override
+    public void addIntHeader(String name, int value)
+    {
+        response.addIntHeader(name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value)
+    {
+        response.setIntHeader(name, value);
+    }
+
+    @Override
+    public int getStatus()
+    {
+        return response.getStatus();
+    }
+
+    @Override
+    public void setStatus(int code)
+    {
+        response.setStatus(code);
+    }
+
+    @Override
+    public String getHeader(String name)
+    {
+        return response.getHeader(name);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name)
+    {
+        return response.getHeaders(name);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames()
+    {
+        return response.getHeaderNames();
+    }
+
+    @Override
+    public void setContentType(String type)
+    {
+        response.setContentType(type);
+    }
+
+    @Override
+    public OutputStream getOutputStream()
+    {
+        try
+        {
+            return response.getOutputStream();
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+    }
+
+    @Override
+    public Locale getLocale()
+    {
+        return response.getLocale();
+    }
+
+    @Override
+    public void setLocale(Locale locale)
+    {
+        response.setLocale(locale);
+    }
+
+    @Override
+    public void flushBuffer()
+    {
+        try
+        {
+            response.flushBuffer();
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+    }
+
+    @Override
+    public void resetBuffer()
+    {
+        response.resetBuffer();
+    }
+
+    @Override
+    public boolean isCommitted()
+    {
+        return response.isCommitted();
+    }
+
+    @Override
+    public boolean writeNonBlocking(Output output, Iterable<JSONObject> records, Runnable complete)
+    {
+        try
+        {
+            ServletOutputStream stream = response.getOutputStream();
+            
+            stream.setWriteListener(new JakartaNonBlockingWriter(stream, output, records, complete));
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+        
+        return true;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.ConvirganceException;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Calls a Java EE servlet request directly
+ * 
+ * @author jbanes
+ */
+class JavaEERequestAdapter implements RequestAdapter
+{
+    private HttpServletRequest request;
+
+    public JavaEERequestAdapter(HttpServletRequest request)
+    {
+        this.request = request;
+    }
+
+    @Override
+    public String getContextPath()
+    {
+        return request.getContextPath();
+    }
+
+    @Override
+    public long getDateHeader(String name)
+    {
+        return request.getDateHeader(name);
+    }
+
+    @Override
+    public String getHeader(String name)
+    {
+        return request.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name)
+    {
+        return request.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames()
+    {
+        return request.getHeaderNames();
+    }
+
+    @Override
+    public String getMethod()
+    {
+        return request.getMethod();
+    }
+
+    @Override
+    public String getPathInfo()
+    {
+        return request.getPathInfo();
+    }
+
+    @Override
+    public String getPathTranslated()
+    {
+        return request.getPathTranslated();
+    }
+
+    @Override
+    public String getQueryString()
+    {
+        return request.getQueryString();
+    }
+
+    @Override
+    public String getRequestURI()
+    {
+        return request.getRequestURI();
+    }
+
+    @Override
+    public StringBuffer getRequestURL()
+    {
+        return request.getRequestURL();
+    }
+
+    @Override
+    public String getServletPath()
+    {
+        return request.getServletPath();
+    }
+
+    @Override
+    public Object getSession()
+    {
+        return request.getSession();
+    }
+
+    @Override
+    public String getCharacterEncoding()
+    {
+        return request.getCharacterEncoding();
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return request.getContentType();
+    }
+
+    @Override
+    public InputStream getInputStream()
+    {
+        try
+        {
+            return request.getInputStream();
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+    }
+
+    @Override
+    public String getParameter(String name)
+    {
+        return request.getParameter(name);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames()
+    {
+        return request.getParameterNames();
+    }
+
+    @Override
+    public String[] getParameterValues(String name)
+    {
+        return request.getParameterValues(name);
+    }
+
+    @Override
+    public Map<String,String[]> getParameterMap()
+    {
+        return request.getParameterMap();
+    }
+
+    @Override
+    public String getProtocol()
+    {
+        return request.getProtocol();
+    }
+
+    @Override
+    public String getScheme()
+    {
+        return request.getScheme();
+    }
+
+    @Override
+    public String getServerName()
+    {
+        return request.getServerName();
+    }
+
+    @Override
+    public int getServerPort()
+    {
+        return request.getServerPort();
+    }
+
+    @Override
+    public String getRemoteAddr()
+    {
+        return request.getRemoteAddr();
+    }
+
+    @Override
+    public String getRemoteHost()
+    {
+        return request.getRemoteHost();
+    }
+
+    @Override
+    public int getRemotePort()
+    {
+        return request.getRemotePort();
+    }
+
+    @Override
+    public Locale getLocale()
+    {
+        return request.getLocale();
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales()
+    {
+        return request.getLocales();
+    }
+
+    @Override
+    public String getLocalAddr()
+    {
+        return request.getLocalAddr();
+    }
+
+    @Override
+    public String getLocalName()
+    {
+        return request.getLocalName();
+    }
+
+    @Override
+    public int getLocalPort()
+    {
+        return request.getLocalPort();
+    }
+
+    @Override
+    public String getRealPath(String path)
+    {
+        return request.getServletContext().getRealPath(path);
+    }
+
+    @Override
+    public Object getRequestDispatcher(String path)
+    {
+        return request.getRequestDispatcher(path);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.output.Output;
+import com.invirgance.convirgance.output.OutputCursor;
+import com.invirgance.convirgance.target.OutputStreamTarget;
+import com.invirgance.convirgance.web.servlet.RequestContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Writes records to a response without blocking. Records are only pulled 
+ * from the iterator and encoded while the servlet output stream reports that
+ * it is ready, so a slow client holds no thread while its socket drains. The
+ * request context of the thread that started the write is restored each time
+ * the container calls back, so transformers that depend on it keep working.
+ * 
+ * @author jbanes
+ */
+abstract class NonBlockingWriter
+{
+    private static final int CHUNK = 8192;
+    
+    private final Iterable<JSONObject> records;
+    private final Runnable complete;
+    private final RequestContext context;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK * 2);
+    private final OutputCursor cursor;
+    
+    private Iterator<JSONObject> iterator;
+    private boolean finished;
+    private boolean closed;
+
+    public NonBlockingWriter(Output output, Iterable<JSONObject> records, Runnable complete)
+    {
+        this.records = records;
+        this.complete = complete;
+        this.context = RequestContext.current();
+        this.cursor = output.write(new OutputStreamTarget(buffer));
+    }
+    
+    /**
+     * Returns true if data can be written without blocking
+     * 
+     * @return true if the servlet output stream is ready
+     */
+    abstract boolean isReady();
+    
+    /**
+     * Writes data to the servlet output stream
+     * 
+     * @param data the bytes to write
+     * @param length the number of bytes to write
+     * @throws IOException if the write fails
+     */
+    abstract void write(byte[] data, int length) throws IOException;
+    
+    private void flush() throws IOException
+    {
+        write(buffer.toByteArray(), buffer.size());
+        buffer.reset();
+    }
+    
+    private void drain() throws IOException
+    {
+        if(iterator == null) iterator = records.iterator();
+        
+        while(!closed && isReady())
+        {
+            if(buffer.size() >= CHUNK || (finished && buffer.size() > 0))
+            {
+                flush();
+            }
+            else if(finished)
+            {
+                close();
+            }
+            else if(iterator.hasNext())
+            {
+                cursor.write(iterator.next());
+            }
+            else
+            {
+                cursor.close();
+                finished = true;
+            }
+        }
+    }
+    
+    private void close()
+    {
+        if(closed) return;
+        
+        closed = true;
+        
+        // Release database cursors and other resources held by the iterator
+        if(iterator instanceof AutoCloseable)
+        {
+            try
+            {
+                ((AutoCloseable)iterator).close();
+            }
+            catch(Exception e) { e.printStackTrace(); }
+        }
+        
+        complete.run();
+    }
+    
+    /**
+     * Called by the container when data can be written
+     * 
+     * @throws IOException if the write fails
+     */
+    public void onWritePossible() throws IOException
+    {
+        IOException[] error = new IOException[1];
+        Runnable task = () -> {
+            try
+            {
+                drain();
+            }
+            catch(IOException e) { error[0] = e; }
+        };
+        
+        if(context != null) context.wrap(task).run();
+        else task.run();
+        
+        if(error[0] != null) 
+        {
+            close();
+            throw error[0];
+        }
+    }
+    
+    /**
+     * Called by the container when the write fails, such as when the client
+     * disconnects
+     * 
+     * @param throwable the cause of the failure
+     */
+    public void onError(Throwable throwable)
+    {
+        close();
+    }
+}
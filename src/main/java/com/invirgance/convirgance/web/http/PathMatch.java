@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The request path parsed into its components. The path is parsed once per 
+ * request and shared by everything that needs to match against it, such as
+ * routing and path variables. Obtain the instance for a request from
+ * {@link HttpRequest#getPathMatch()}.
+ * 
+ * @author jbanes
+ */
+public class PathMatch
+{
+    private String context;
+    private String path;
+    private String[] segments;
+    
+    private Map<PathTemplate,Map<String,String>> matches;
+
+    /**
+     * Parses the request path relative to the context path
+     * 
+     * @param uri the request URI
+     * @param context the context path of the request or null
+     */
+    public PathMatch(String uri, String context)
+    {
+        this.context = context;
+        this.path = (context != null && uri.startsWith(context)) ? uri.substring(context.length()) : uri;
+        this.segments = path.split("/");
+    }
+
+    /**
+     * The context path the request path is relative to
+     * 
+     * @return the context path or null
+     */
+    public String getContext()
+    {
+        return context;
+    }
+
+    /**
+     * The request path with the context path removed
+     * 
+     * @return the relative path
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * The components of the path as split on <code>/</code>. Trailing empty
+     * components are not included. The returned array is shared and must not
+     * be modified.
+     * 
+     * @return the path components
+     */
+    public String[] getSegments()
+    {
+        return segments;
+    }
+    
+    /**
+     * Returns all of the variables from the template that match this path. 
+     * Results are remembered so that matching the same template again is 
+     * free for the rest of the request.
+     * 
+     * @param template the path pattern
+     * @return a map of variable names to decoded values
+     */
+    public Map<String,String> getVariables(PathTemplate template)
+    {
+        Map<String,String> values;
+        
+        if(matches == null) matches = new HashMap<>();
+        
+        values = matches.get(template);
+        
+        if(values == null)
+        {
+            values = template.trim(context).match(segments);
+            
+            matches.put(template, values);
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Returns the value of a single variable from the template.
+     * 
+     * @param template the path pattern
+     * @param name the name of the variable
+     * @return the decoded value or null if the path does not match
+     */
+    public String getVariable(PathTemplate template, String name)
+    {
+        return getVariables(template).get(name);
+    }
+}
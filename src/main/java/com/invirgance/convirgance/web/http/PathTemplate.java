@@ -0,0 +1,209 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.ConvirganceException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A parsed URL path pattern. Variables are identified in the path with curly
+ * braces and <code>*</code> matches any single path component. e.g. 
+ * <code>/owner/&#42;/pet/{id}</code>. The pattern is parsed once and can then
+ * be matched against any number of requests.
+ * 
+ * @author jbanes
+ */
+public class PathTemplate
+{
+    private static final int LITERAL = 0;
+    private static final int WILDCARD = 1;
+    private static final int VARIABLE = 2;
+    
+    private String path;
+    private int[] types;
+    private String[] literals;
+    private String[] names;
+    private String[] suffixes;
+    private List<String> variables;
+    
+    private Map<String,PathTemplate> trimmed = new ConcurrentHashMap<>();
+
+    /**
+     * Parses the path pattern
+     * 
+     * @param path the parameterized path
+     */
+    public PathTemplate(String path)
+    {
+        String[] components = path.split("/");
+        List<String> variables = new ArrayList<>();
+        
+        int start;
+        int end;
+        
+        this.path = path;
+        this.types = new int[components.length];
+        this.literals = new String[components.length];
+        this.names = new String[components.length];
+        this.suffixes = new String[components.length];
+        
+        for(int i=0; i<components.length; i++)
+        {
+            start = components[i].indexOf('{');
+            end = components[i].indexOf('}', Math.max(start, 0));
+            
+            if(components[i].equals("*"))
+            {
+                types[i] = WILDCARD;
+            }
+            else if(start >= 0)
+            {
+                if(end < 0) throw new ConvirganceException("Path " + path + " does not have a terminating '}'");
+                
+                types[i] = VARIABLE;
+                literals[i] = components[i].substring(0, start);
+                names[i] = components[i].substring(start+1, end);
+                suffixes[i] = components[i].substring(end+1);
+                
+                variables.add(names[i]);
+            }
+            else
+            {
+                types[i] = LITERAL;
+                literals[i] = components[i];
+            }
+        }
+        
+        this.variables = Collections.unmodifiableList(variables);
+    }
+
+    /**
+     * The path pattern this template was parsed from
+     * 
+     * @return the parameterized path
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * The names of the variables in the order they appear in the path
+     * 
+     * @return a list of variable names
+     */
+    public List<String> getVariables()
+    {
+        return variables;
+    }
+    
+    /**
+     * Returns a template with the context path removed from the start of the
+     * pattern. Returns this template if the pattern does not start with the
+     * context path.
+     * 
+     * @param context the context path of the request
+     * @return the template relative to the context path
+     */
+    public PathTemplate trim(String context)
+    {
+        PathTemplate template;
+        
+        if(context == null || context.isEmpty() || !path.startsWith(context)) return this;
+        
+        template = trimmed.get(context);
+        
+        if(template == null)
+        {
+            template = new PathTemplate(path.substring(context.length()));
+            
+            trimmed.put(context, template);
+        }
+        
+        return template;
+    }
+    
+    private String decode(String value)
+    {
+        try
+        {
+            if(value == null) return null;
+            
+            return URLDecoder.decode(value, "UTF-8");
+        }
+        catch(UnsupportedEncodingException e)
+        {
+            throw new ConvirganceException(e);
+        }
+    }
+    
+    private String extract(String actual, int index)
+    {
+        String left = literals[index];
+        String right = suffixes[index];
+        
+        if(actual.length() < left.length() + right.length()) return null;
+        if(!actual.startsWith(left)) return null;
+        if(!actual.endsWith(right)) return null;
+        
+        return decode(actual.substring(left.length(), actual.length() - right.length()));
+    }
+    
+    /**
+     * Extracts the variables from the components of a path. Matching stops at
+     * the first literal component that does not match. Variables that could 
+     * not be matched are not included in the result.
+     * 
+     * @param segments the path split into components
+     * @return a map of variable names to decoded values
+     */
+    public Map<String,String> match(String[] segments)
+    {
+        Map<String,String> values = new LinkedHashMap<>();
+        int length = Math.min(segments.length, types.length);
+        String value;
+        
+        for(int i=0; i<length; i++)
+        {
+            if(types[i] == WILDCARD) continue;
+            if(types[i] == LITERAL && !segments[i].equals(literals[i])) break;
+            
+            if(types[i] == VARIABLE)
+            {
+                value = extract(segments[i], i);
+                
+                if(value != null) values.put(names[i], value);
+            }
+        }
+        
+        return values;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Buffers writes to the servlet output stream in a buffer borrowed from a
+ * {@link BufferPool} so that many small writes reach the container as a few
+ * large ones. The buffer is returned to the pool when the stream is closed.
+ * Closing does not close the servlet stream since it is managed by the 
+ * container. Writing after close borrows a new buffer.<br>
+ * <br>
+ * The container is flushed whenever <code>flushThreshold</code> bytes have
+ * been written since the last flush, or when the stream is flushed directly.
+ * 
+ * @author jbanes
+ */
+class PooledOutputStream extends OutputStream
+{
+    private static final int TRANSFER_SIZE = 8192;
+    
+    private final OutputStream out;
+    private final BufferPool pool;
+    private final int flushThreshold;
+    
+    private ByteBuffer buffer;
+    private byte[] transfer;
+    
+    private long bytesWritten;
+    private long unflushed;
+    private int writes;
+    private int flushes;
+
+    public PooledOutputStream(OutputStream out, BufferPool pool, int flushThreshold)
+    {
+        this.out = out;
+        this.pool = pool;
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * Returns the number of bytes written to the container
+     * 
+     * @return the number of bytes written
+     */
+    public long getBytesWritten()
+    {
+        return bytesWritten;
+    }
+
+    /**
+     * Returns the number of writes made to the container
+     * 
+     * @return the number of container writes
+     */
+    public int getWrites()
+    {
+        return writes;
+    }
+
+    /**
+     * Returns the number of times the container was flushed
+     * 
+     * @return the number of container flushes
+     */
+    public int getFlushes()
+    {
+        return flushes;
+    }
+    
+    /**
+     * Discards any buffered data that has not been written to the container
+     */
+    public void reset()
+    {
+        if(buffer != null) buffer.clear();
+    }
+    
+    private void drain() throws IOException
+    {
+        int length;
+        
+        if(buffer == null || buffer.position() == 0) return;
+        
+        buffer.flip();
+        
+        length = buffer.limit();
+        
+        if(buffer.hasArray())
+        {
+            out.write(buffer.array(), buffer.arrayOffset(), length);
+        }
+        else
+        {
+            if(transfer == null) transfer = new byte[Math.min(TRANSFER_SIZE, pool.getBufferSize())];
+            
+            while(buffer.hasRemaining())
+            {
+                int count = Math.min(transfer.length, buffer.remaining());
+                
+                buffer.get(transfer, 0, count);
+                out.write(transfer, 0, count);
+            }
+        }
+        
+        buffer.clear();
+        written(length);
+    }
+    
+    private void written(int length) throws IOException
+    {
+        bytesWritten += length;
+        unflushed += length;
+        writes++;
+        
+        if(flushThreshold > 0 && unflushed >= flushThreshold) flushContainer();
+    }
+    
+    private void flushContainer() throws IOException
+    {
+        out.flush();
+        
+        unflushed = 0;
+        flushes++;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        if(buffer == null) buffer = pool.acquire();
+        if(!buffer.hasRemaining()) drain();
+        
+        buffer.put((byte)b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        int count;
+        
+        // Nothing gained by copying writes that would fill the buffer anyway
+        if(len >= pool.getBufferSize())
+        {
+            drain();
+            out.write(b, off, len);
+            written(len);
+            
+            return;
+        }
+        
+        if(buffer == null) buffer = pool.acquire();
+        
+        while(len > 0)
+        {
+            if(!buffer.hasRemaining()) drain();
+            
+            count = Math.min(len, buffer.remaining());
+            
+            buffer.put(b, off, count);
+            
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        drain();
+        flushContainer();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            drain();
+        }
+        finally
+        {
+            // Prevent close from being called in cases where the underlying stream
+            // is being managed. i.e. Web containers that manage the input and output
+            // streams independent of the Servlet
+            pool.release(buffer);
+            
+            buffer = null;
+        }
+    }
+}
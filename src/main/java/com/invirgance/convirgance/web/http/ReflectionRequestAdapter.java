@@ -0,0 +1,281 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.ConvirganceException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Calls request methods by name. Used for objects that are neither Jakarta 
+ * nor Java EE requests but expose the same methods.
+ * 
+ * @author jbanes
+ */
+class ReflectionRequestAdapter implements RequestAdapter
+{
+    private Object request;
+
+    public ReflectionRequestAdapter(Object request)
+    {
+        this.request = request;
+    }
+    
+    private Object execMethod(Object obj, String methodName, Object... parameters)
+    {
+        try
+        {
+            for(var method : obj.getClass().getMethods())
+            {
+                if(!method.getName().equals(methodName)) continue;
+                if(method.getParameterCount() != parameters.length) continue;
+
+                return method.invoke(obj, parameters);
+            }
+            
+            throw new ConvirganceException("Method " + methodName + " with " + parameters.length + " parameters not found");
+        }
+        catch(Exception e) { throw new ConvirganceException(e); }
+    }
+    
+    private Object execRequestMethod(String methodName, Object... parameters)
+    {
+        Class clazz = request.getClass();
+        Class[] types = new Class[parameters.length];
+        
+        for(int i=0; i<parameters.length; i++) types[i] = parameters[i].getClass();
+        
+        try
+        {
+            return clazz.getMethod(methodName, types).invoke(request, parameters);
+        }
+        catch(Exception e) { throw new ConvirganceException(e); }
+    }
+
+    @Override
+    public String getContextPath()
+    {
+        return (String)execRequestMethod("getContextPath");
+    }
+
+    @Override
+    public long getDateHeader(String name)
+    {
+        return (long)execRequestMethod("getDateHeader", name);
+    }
+
+    @Override
+    public String getHeader(String name)
+    {
+        return (String)execRequestMethod("getHeader", name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name)
+    {
+        return (Enumeration<String>)execRequestMethod("getHeaders", name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames()
+    {
+        return (Enumeration<String>)execRequestMethod("getHeaderNames");
+    }
+
+    @Override
+    public String getMethod()
+    {
+        return (String)execRequestMethod("getMethod");
+    }
+
+    @Override
+    public String getPathInfo()
+    {
+        return (String)execRequestMethod("getPathInfo");
+    }
+
+    @Override
+    public String getPathTranslated()
+    {
+        return (String)execRequestMethod("getPathTranslated");
+    }
+
+    @Override
+    public String getQueryString()
+    {
+        return (String)execRequestMethod("getQueryString");
+    }
+
+    @Override
+    public String getRequestURI()
+    {
+        return (String)execRequestMethod("getRequestURI");
+    }
+
+    @Override
+    public StringBuffer getRequestURL()
+    {
+        return (StringBuffer)execRequestMethod("getRequestURL");
+    }
+
+    @Override
+    public String getServletPath()
+    {
+        return (String)execRequestMethod("getServletPath");
+    }
+
+    @Override
+    public Object getSession()
+    {
+        return execRequestMethod("getSession");
+    }
+
+    @Override
+    public String getCharacterEncoding()
+    {
+        return (String)execRequestMethod("getCharacterEncoding");
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return (String)execRequestMethod("getContentType");
+    }
+
+    @Override
+    public InputStream getInputStream()
+    {
+        return (InputStream)execRequestMethod("getInputStream");
+    }
+
+    @Override
+    public String getParameter(String name)
+    {
+        return (String)execRequestMethod("getParameter", name);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames()
+    {
+        return (Enumeration<String>)execRequestMethod("getParameterNames");
+    }
+
+    @Override
+    public String[] getParameterValues(String name)
+    {
+        return (String[])execRequestMethod("getParameterValues", name);
+    }
+
+    @Override
+    public Map<String,String[]> getParameterMap()
+    {
+        return (Map<String,String[]>)execRequestMethod("getParameterMap");
+    }
+
+    @Override
+    public String getProtocol()
+    {
+        return (String)execRequestMethod("getProtocol");
+    }
+
+    @Override
+    public String getScheme()
+    {
+        return (String)execRequestMethod("getScheme");
+    }
+
+    @Override
+    public String getServerName()
+    {
+        return (String)execRequestMethod("getServerName");
+    }
+
+    @Override
+    public int getServerPort()
+    {
+        return (int)execRequestMethod("getServerPort");
+    }
+
+    @Override
+    public String getRemoteAddr()
+    {
+        return (String)execRequestMethod("getRemoteAddr");
+    }
+
+    @Override
+    public String getRemoteHost()
+    {
+        return (String)execRequestMethod("getRemoteHost");
+    }
+
+    @Override
+    public int getRemotePort()
+    {
+        return (int)execRequestMethod("getRemotePort");
+    }
+
+    @Override
+    public Locale getLocale()
+    {
+        return (Locale)execRequestMethod("getLocale");
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales()
+    {
+        return (Enumeration<Locale>)execRequestMethod("getLocales");
+    }
+
+    @Override
+    public String getLocalAddr()
+    {
+        return (String)execRequestMethod("getLocalAddr");
+    }
+
+    @Override
+    public String getLocalName()
+    {
+        return (String)execRequestMethod("getLocalName");
+    }
+
+    @Override
+    public int getLocalPort()
+    {
+        return (int)execRequestMethod("getLocalPort");
+    }
+
+    @Override
+    public String getRealPath(String path)
+    {
+        return (String)execMethod(execRequestMethod("getServletContext"), "getRealPath", path);
+    }
+
+    @Override
+    public Object getRequestDispatcher(String path)
+    {
+        return execRequestMethod("getRequestDispatcher", path);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.output.Output;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calls response methods by name. Used for objects that are neither Jakarta
+ * nor Java EE responses but expose the same methods. Methods are resolved
+ * once per class and name rather than on every call.
+ * 
+ * @author jbanes
+ */
+class ReflectionResponseAdapter implements ResponseAdapter
+{
+    private static final Map<Class,Map<String,Method>> methods = new ConcurrentHashMap<>();
+    
+    private Object response;
+
+    public ReflectionResponseAdapter(Object response)
+    {
+        this.response = response;
+    }
+    
+    private Method findMethod(String methodName, int parameterCount)
+    {
+        var cache = methods.computeIfAbsent(response.getClass(), key -> new ConcurrentHashMap<>());
+        var key = methodName + "/" + parameterCount;
+        var method = cache.get(key);
+        
+        if(method != null) return method;
+        
+        for(var candidate : response.getClass().getMethods())
+        {
+            if(!candidate.getName().equals(methodName)) continue;
+            if(candidate.getParameterCount() != parameterCount) continue;
+
+            cache.put(key, candidate);
+            
+            return candidate;
+        }
+
+        throw new ConvirganceException("Method " + methodName + " with " + parameterCount + " parameters not found");
+    }
+    
+    private Object execResponseMethod(String methodName, Object... parameters)
+    {
+        var method = findMethod(methodName, parameters.length);
+        
+        try
+        {
+            return method.invoke(response, parameters);
+        }
+        catch(Exception e) { throw new ConvirganceException(e); }
+    }
+
+    @Override
+    public boolean containsHeader(String name)
+    {
+        return (boolean)execResponseMethod("containsHeader", name);
+    }
+
+    @Override
+    public void sendError(int code, String message)
+    {
+        execResponseMethod("sendError", code, message);
+    }
+
+    @Override
+    public void sendRedirect(String location)
+    {
+        execResponseMethod("sendRedirect", location);
+    }
+
+    @Override
+    public void addDateHeader(String name, long time)
+    {
+        execResponseMethod("addDateHeader", name, time);
+    }
+
+    @Override
+    public void setDateHeader(String name, long time)
+    {
+        execResponseMethod("setDateHeader", name, time);
+    }
+
+    @Override
+    public void addHeader(String name, String value)
+    {
+        execResponseMethod("addHeader", name, value);
+    }
+
+    @Override
+    public void setHeader(String name, String value)
+    {
+        execResponseMethod("setHeader", name, value);
+    }
+
+    @Override
+    public void addIntHeader(String name, int value)
+    {
+        execResponseMethod("addIntHeader", name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value)
+    {
+        execResponseMethod("setIntHeader", name, value);
+    }
+
+    @Override
+    public int getStatus()
+    {
+        return (int)execResponseMethod("getStatus");
+    }
+
+    @Override
+    public void setStatus(int code)
+    {
+        execResponseMethod("setStatus", code);
+    }
+
+    @Override
+    public String getHeader(String name)
+    {
+        return (String)execResponseMethod("getHeader", name);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name)
+    {
+        return (Collection<String>)execResponseMethod("getHeaders", name);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames()
+    {
+        return (Collection<String>)execResponseMethod("getHeaderNames");
+    }
+
+    @Override
+    public void setContentType(String type)
+    {
+        execResponseMethod("setContentType", type);
+    }
+
+    @Override
+    public OutputStream getOutputStream()
+    {
+        return (OutputStream)execResponseMethod("getOutputStream");
+    }
+
+    @Override
+    public Locale getLocale()
+    {
+        return (Locale)execResponseMethod("getLocale");
+    }
+
+    @Override
+    public void setLocale(Locale locale)
+    {
+        execResponseMethod("setLocale", locale);
+    }
+
+    @Override
+    public void flushBuffer()
+    {
+        execResponseMethod("flushBuffer");
+    }
+
+    @Override
+    public void resetBuffer()
+    {
+        execResponseMethod("resetBuffer");
+    }
+
+    @Override
+    public boolean isCommitted()
+    {
+        return (Boolean)execResponseMethod("isCommitted");
+    }
+
+    @Override
+    public boolean writeNonBlocking(Output output, Iterable<JSONObject> records, Runnable complete)
+    {
+        return false;
+    }
+}
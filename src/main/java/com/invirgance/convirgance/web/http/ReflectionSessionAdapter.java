@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.ConvirganceException;
+import java.lang.reflect.Method;
+import java.util.Enumeration;
+
+/**
+ * Calls session methods by name. Used for objects that are neither Jakarta 
+ * nor Java EE sessions but expose the same methods. Methods are resolved 
+ * once when the adapter is created.
+ * 
+ * @author jbanes
+ */
+class ReflectionSessionAdapter implements SessionAdapter
+{
+    private Object session;
+    
+    private Method getAttribute;
+    private Method setAttribute;
+    private Method getAttributeNames;
+
+    public ReflectionSessionAdapter(Object session)
+    {
+        Class clazz = session.getClass();
+        
+        this.session = session;
+        
+        try
+        {
+            this.getAttribute = clazz.getMethod("getAttribute", String.class);
+            this.setAttribute = clazz.getMethod("setAttribute", String.class, Object.class);
+            this.getAttributeNames = clazz.getMethod("getAttributeNames");
+        }
+        catch(NoSuchMethodException e) { throw new ConvirganceException(e); }
+    }
+    
+    private Object invoke(Method method, Object... parameters)
+    {
+        try
+        {
+            return method.invoke(session, parameters);
+        }
+        catch(Exception e) { throw new ConvirganceException(e); }
+    }
+
+    @Override
+    public Object getAttribute(String name)
+    {
+        return invoke(getAttribute, name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value)
+    {
+        invoke(setAttribute, name, value);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames()
+    {
+        return (Enumeration<String>)invoke(getAttributeNames);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Access to the underlying servlet request. An implementation is chosen once
+ * when the {@link HttpRequest} is created so that each accessor is a plain 
+ * method call rather than a reflective lookup.
+ * 
+ * @author jbanes
+ */
+interface RequestAdapter
+{
+    Class JAKARTA = find("jakarta.servlet.http.HttpServletRequest");
+    Class JAVAEE = find("javax.servlet.http.HttpServletRequest");
+    
+    private static Class find(String name)
+    {
+        try
+        {
+            return Class.forName(name, false, RequestAdapter.class.getClassLoader());
+        }
+        catch(ClassNotFoundException | LinkageError e)
+        {
+            return null;
+        }
+    }
+    
+    /**
+     * Selects the adapter for the request object. Jakarta and Java EE requests
+     * are called directly. Any other object falls back to reflection.
+     * 
+     * @param request the servlet request or an object with the same methods
+     * @return an adapter for the request
+     */
+    static RequestAdapter create(Object request)
+    {
+        if(JAKARTA != null && JAKARTA.isInstance(request)) return new JakartaRequestAdapter((jakarta.servlet.http.HttpServletRequest)request);
+        if(JAVAEE != null && JAVAEE.isInstance(request)) return new JavaEERequestAdapter((javax.servlet.http.HttpServletRequest)request);
+        
+        return new ReflectionRequestAdapter(request);
+    }
+    
+    String getContextPath();
+    long getDateHeader(String name);
+    String getHeader(String name);
+    Enumeration<String> getHeaders(String name);
+    Enumeration<String> getHeaderNames();
+    String getMethod();
+    String getPathInfo();
+    String getPathTranslated();
+    String getQueryString();
+    String getRequestURI();
+    StringBuffer getRequestURL();
+    String getServletPath();
+    Object getSession();
+    String getCharacterEncoding();
+    String getContentType();
+    InputStream getInputStream();
+    String getParameter(String name);
+    Enumeration<String> getParameterNames();
+    String[] getParameterValues(String name);
+    Map<String,String[]> getParameterMap();
+    String getProtocol();
+    String getScheme();
+    String getServerName();
+    int getServerPort();
+    String getRemoteAddr();
+    String getRemoteHost();
+    int getRemotePort();
+    Locale getLocale();
+    Enumeration<Locale> getLocales();
+    String getLocalAddr();
+    String getLocalName();
+    int getLocalPort();
+    String getRealPath(String path);
+    Object getRequestDispatcher(String path);
+}
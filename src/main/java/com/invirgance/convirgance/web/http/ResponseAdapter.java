@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.output.Output;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Access to the underlying servlet response. An implementation is chosen once
+ * when the {@link HttpResponse} is created so that setting headers, status 
+ * and writing the body involve no reflective lookups.
+ * 
+ * @author jbanes
+ */
+interface ResponseAdapter
+{
+    Class JAKARTA = find("jakarta.servlet.http.HttpServletResponse");
+    Class JAVAEE = find("javax.servlet.http.HttpServletResponse");
+    
+    private static Class find(String name)
+    {
+        try
+        {
+            return Class.forName(name, false, ResponseAdapter.class.getClassLoader());
+        }
+        catch(ClassNotFoundException | LinkageError e)
+        {
+            return null;
+        }
+    }
+    
+    /**
+     * Selects the adapter for the response object. Jakarta and Java EE 
+     * responses are called directly. Any other object falls back to reflection.
+     * 
+     * @param response the servlet response or an object with the same methods
+     * @return an adapter for the response
+     */
+    static ResponseAdapter create(Object response)
+    {
+        if(JAKARTA != null && JAKARTA.isInstance(response)) return new JakartaResponseAdapter((jakarta.servlet.http.HttpServletResponse)response);
+        if(JAVAEE != null && JAVAEE.isInstance(response)) return new JavaEEResponseAdapter((javax.servlet.http.HttpServletResponse)response);
+        
+        return new ReflectionResponseAdapter(response);
+    }
+    
+    boolean containsHeader(String name);
+    void sendError(int code, String message);
+    void sendRedirect(String location);
+    void addDateHeader(String name, long time);
+    void setDateHeader(String name, long time);
+    void addHeader(String name, String value);
+    void setHeader(String name, String value);
+    void addIntHeader(String name, int value);
+    void setIntHeader(String name, int value);
+    int getStatus();
+    void setStatus(int code);
+    String getHeader(String name);
+    Collection<String> getHeaders(String name);
+    Collection<String> getHeaderNames();
+    void setContentType(String type);
+    OutputStream getOutputStream();
+    Locale getLocale();
+    void setLocale(Locale locale);
+    void flushBuffer();
+    void resetBuffer();
+    boolean isCommitted();
+    
+    /**
+     * Starts writing the records to the response without blocking. Only 
+     * valid once the request has been put into async mode.
+     * 
+     * @param output the format of the records
+     * @param records the records to write
+     * @param complete called once all records have been written or the write fails
+     * @return false if the response does not support non-blocking writes
+     */
+    boolean writeNonBlocking(Output output, Iterable<JSONObject> records, Runnable complete);
+}
@@ -23,7 +23,6 @@
  */
 package com.invirgance.convirgance.web.http;
 
-import com.invirgance.convirgance.ConvirganceException;
 import java.util.Collections;
 import java.util.Enumeration;
 
@@ -34,25 +33,11 @@ import java.util.Enumeration;
  */
 public class Session
 {
-    private Object session;
+    private SessionAdapter adapter;
 
     public Session(Object session)
     {
-        this.session = session;
-    }
-    
-    private Object execSessionMethod(String methodName, Object... parameters)
-    {
-        Class clazz = session.getClass();
-        Class[] types = new Class[parameters.length];
-        
-        for(int i=0; i<parameters.length; i++) types[i] = parameters[i].getClass();
-        
-        try
-        {
-            return clazz.getMethod(methodName, types).invoke(session, parameters);
-        }
-        catch(Exception e) { throw new ConvirganceException(e); }
+        this.adapter = SessionAdapter.create(session);
     }
     
     /**
@@ -65,7 +50,7 @@ public class Session
      */
     public Object getAttribute(String name)
     {
-        return execSessionMethod("getAttribute", name);
+        return adapter.getAttribute(name);
     }
     
     /**
@@ -78,14 +63,7 @@ public class Session
      */
     public void setAttribute(String name, Object value)
     {
-        Class clazz = session.getClass();
-        Class[] types = {String.class, Object.class};
-        
-        try
-        {
-            clazz.getMethod("setAttribute", types).invoke(session, new Object[]{name, value});
-        }
-        catch(Exception e) { throw new ConvirganceException(e); }
+        adapter.setAttribute(name, value);
     }
     
     /**
@@ -97,7 +75,7 @@ public class Session
      */
     public Iterable<String> getAttributeNames()
     {
-        Enumeration<String> enumeration = (Enumeration<String>)execSessionMethod("getAttributeNames");
+        Enumeration<String> enumeration = adapter.getAttributeNames();
         
         return Collections.list(enumeration);
     }
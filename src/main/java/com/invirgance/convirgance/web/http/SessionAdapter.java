@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import java.util.Enumeration;
+
+/**
+ * Access to the underlying servlet session. An implementation is chosen once
+ * when the {@link Session} is created so that attribute access involves no
+ * reflective lookups.
+ * 
+ * @author jbanes
+ */
+interface SessionAdapter
+{
+    Class JAKARTA = find("jakarta.servlet.http.HttpSession");
+    Class JAVAEE = find("javax.servlet.http.HttpSession");
+    
+    private static Class find(String name)
+    {
+        try
+        {
+            return Class.forName(name, false, SessionAdapter.class.getClassLoader());
+        }
+        catch(ClassNotFoundException | LinkageError e)
+        {
+            return null;
+        }
+    }
+    
+    /**
+     * Selects the adapter for the session object. Jakarta and Java EE sessions
+     * are called directly. Any other object falls back to reflection.
+     * 
+     * @param session the servlet session or an object with the same methods
+     * @return an adapter for the session
+     */
+    static SessionAdapter create(Object session)
+    {
+        if(JAKARTA != null && JAKARTA.isInstance(session)) return new JakartaSessionAdapter((jakarta.servlet.http.HttpSession)session);
+        if(JAVAEE != null && JAVAEE.isInstance(session)) return new JavaEESessionAdapter((javax.servlet.http.HttpSession)session);
+        
+        return new ReflectionSessionAdapter(session);
+    }
+    
+    Object getAttribute(String name);
+    void setAttribute(String name, Object value);
+    Enumeration<String> getAttributeNames();
+}
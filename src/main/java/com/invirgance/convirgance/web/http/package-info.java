@@ -30,6 +30,14 @@ SOFTWARE.
  *       access to request parameters, headers, and the request body.</li>
  *   <li>{@link HttpResponse} - A wrapper for HTTP response objects that enables
  *      setting headers, status codes, and writing to the response body.</li>
+ *   <li>{@link PathMatch} - The request path parsed once and shared by routing
+ *       and path variables.</li>
+ *   <li>{@link PathTemplate} - A parsed path pattern with variables and
+ *       wildcards.</li>
+ *   <li>{@link Compression} - Settings for gzip and deflate compression of
+ *       response bodies.</li>
+ *   <li>{@link BufferPool} - Reusable buffers that batch writes to the
+ *       response body.</li>
  * </ul>
  * 
  * @author jbanes
@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.output;
+
+import com.invirgance.convirgance.output.Output;
+import com.invirgance.convirgance.output.OutputCursor;
+import com.invirgance.convirgance.target.Target;
+import com.invirgance.convirgance.web.http.Compression;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.web.servlet.ServiceState;
+import com.invirgance.convirgance.wiring.annotation.Wiring;
+
+/**
+ * A wrapper that compresses the response with gzip or deflate when the
+ * client's <code>Accept-Encoding</code> header allows it. Settings here 
+ * replace any compression configured globally on the servlet for this 
+ * service. Responses smaller than the threshold are sent uncompressed.
+ * 
+ * @author jbanes
+ */
+@Wiring
+public class CompressedOutput implements Output
+{
+    private Output output;
+    private Compression compression = new Compression();
+
+    /**
+     * Returns the {@link Output} object being wrapped.
+     * 
+     * @return the wrapped output
+     */
+    public Output getOutput()
+    {
+        return output;
+    }
+
+    /**
+     * Set the {@link Output} object to wrap.
+     * 
+     * @param output generates the data to compress
+     */
+    public void setOutput(Output output)
+    {
+        this.output = output;
+    }
+    
+    /**
+     * Returns the compression level from 1 (fastest) to 9 (smallest) or -1
+     * for the default level.
+     * 
+     * @return the compression level
+     */
+    public int getLevel()
+    {
+        return compression.getLevel();
+    }
+
+    /**
+     * Sets the compression level from 1 (fastest) to 9 (smallest). Defaults
+     * to -1 which selects the default level of 6.
+     * 
+     * @param level the compression level
+     */
+    public void setLevel(int level)
+    {
+        compression.setLevel(level);
+    }
+
+    /**
+     * Returns the minimum size in bytes of a response that will be compressed.
+     * 
+     * @return the threshold in bytes
+     */
+    public int getThreshold()
+    {
+        return compression.getThreshold();
+    }
+
+    /**
+     * Sets the minimum size in bytes of a response that will be compressed.
+     * Defaults to 1024.
+     * 
+     * @param threshold the threshold in bytes
+     */
+    public void setThreshold(int threshold)
+    {
+        compression.setThreshold(threshold);
+    }
+
+    /**
+     * Returns true if flushing the output flushes the compressor.
+     * 
+     * @return true if sync flush is enabled
+     */
+    public boolean isSyncFlush()
+    {
+        return compression.isSyncFlush();
+    }
+
+    /**
+     * Set to true to send everything compressed so far each time the output
+     * is flushed. Useful for streaming large results to clients that process
+     * records as they arrive.
+     * 
+     * @param syncFlush true to flush the compressor when the output is flushed
+     */
+    public void setSyncFlush(boolean syncFlush)
+    {
+        compression.setSyncFlush(syncFlush);
+    }
+    
+    @Override
+    public OutputCursor write(Target target)
+    {
+        var request = (HttpRequest)ServiceState.get("request");
+        var response = (HttpResponse)ServiceState.get("response");
+        
+        // The response applies compression when the target is opened
+        if(request != null && response != null) response.setCompression(compression, request);
+        
+        return output.write(target);
+    }
+
+    /**
+     * Returns the MIME type of the wrapped {@link Output} object.
+     * 
+     * @return the MIME type of the output
+     */
+    @Override
+    public String getContentType()
+    {
+        return output.getContentType();
+    }
+}
@@ -25,9 +25,8 @@ package com.invirgance.convirgance.web.parameter;
 
 import com.invirgance.convirgance.ConvirganceException;
 import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.PathTemplate;
 import com.invirgance.convirgance.wiring.annotation.Wiring;
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
 
 /**
  * Extracts a variable from the URL path. This parameter can only extract a 
@@ -46,6 +45,8 @@ import java.net.URLDecoder;
 public class PathVariable implements Parameter
 {
     private String path;
+    private String name;
+    private PathTemplate template;
 
     /**
      * The path pattern that has been set
@@ -58,17 +59,24 @@ public class PathVariable implements Parameter
     }
 
     /**
-     * Set the path pattern
+     * Set the path pattern. The pattern is parsed immediately so that 
+     * configuration errors are reported when the service is wired.
      * 
      * @param path the parameterized path
      */
     public void setPath(String path)
     {
         this.path = path;
+        this.name = null;
+        this.template = null;
+        
+        if(path == null) return;
+        
+        this.name = parseName(path);
+        this.template = new PathTemplate(path);
     }
-
-    @Override
-    public String getName()
+    
+    private String parseName(String path)
     {
         int start = path.indexOf('{');
         int end = path.indexOf('}', Math.max(start, 0));
@@ -79,58 +87,16 @@ public class PathVariable implements Parameter
         
         return path.substring(start+1, end);
     }
-    
-    private String normalize(String actual, String component)
-    {
-        String left = component.substring(0, component.indexOf('{'));
-        String right = component.substring(component.indexOf('}')+1);
-        
-        if(!actual.startsWith(left)) return null;
-        if(!actual.endsWith(right)) return null;
-        
-        return actual.substring(component.indexOf('{'), actual.length() - right.length());
-    }
-    
-    private String trimContext(String path, String context)
-    {
-        if(context == null) return path;
-        
-        if(path.startsWith(context)) return path.substring(context.length());
-        
-        return path;
-    }
-    
-    private String decode(String value)
+
+    @Override
+    public String getName()
     {
-        try
-        {
-            if(value == null) return null;
-            
-            return URLDecoder.decode(value, "UTF-8");
-        }
-        catch(UnsupportedEncodingException e)
-        {
-            throw new ConvirganceException(e);
-        }
+        return name;
     }
 
     @Override
     public Object getValue(HttpRequest request)
     {
-        String name = getName();
-        String[] actual = trimContext(request.getRequestURI(), request.getContextPath()).split("/");
-        String[] components = trimContext(this.path, request.getContextPath()).split("/");
-        
-        int length = Math.min(actual.length, components.length);
-        String token = "{" + name + "}";
-        
-        for(int i=0; i<length; i++)
-        {
-            if(components[i].equals("*")) continue;
-            if(components[i].contains(token)) return decode(normalize(actual[i], components[i]));
-            if(!actual[i].equals(components[i])) return null;
-        }
-        
-        return null;
+        return request.getPathMatch().getVariable(template, name);
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.service;
+
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.wiring.annotation.Wiring;
+
+/**
+ * Marks a service to be executed asynchronously by the services servlet. The
+ * request is released from the container thread and the wrapped service is 
+ * run on the servlet's async executor, so long running services such as large
+ * exports do not hold a container worker for their full duration.<br>
+ * <br>
+ * The <code>timeout</code> overrides the servlet's default async timeout for 
+ * this service. The wrapper may appear anywhere in the routing chain. e.g. 
+ * as the GET service of a {@link RESTService}.
+ * 
+ * @author jbanes
+ */
+@Wiring
+public class AsyncService implements Service, Routable
+{
+    private Service service;
+    private long timeout = -1;
+
+    /**
+     * The service to execute asynchronously
+     * 
+     * @return the wrapped service
+     */
+    public Service getService()
+    {
+        return service;
+    }
+
+    /**
+     * Set the service to execute asynchronously
+     * 
+     * @param service the wrapped service
+     */
+    public void setService(Service service)
+    {
+        this.service = service;
+    }
+
+    /**
+     * The time in milliseconds the service has to complete before the request
+     * is timed out. A negative value uses the servlet's default and zero 
+     * disables the timeout.
+     * 
+     * @return the timeout in milliseconds
+     */
+    public long getTimeout()
+    {
+        return timeout;
+    }
+
+    /**
+     * Set the time in milliseconds the service has to complete. A negative 
+     * value uses the servlet's default and zero disables the timeout.
+     * 
+     * @param timeout the timeout in milliseconds
+     */
+    public void setTimeout(long timeout)
+    {
+        this.timeout = timeout;
+    }
+    
+    /**
+     * Follows the routing from the service to find an AsyncService handling
+     * the request.
+     * 
+     * @param service the root service for the request
+     * @param request the HTTP request being routed
+     * @return the AsyncService handling the request or null if there is none
+     */
+    public static AsyncService find(Service service, HttpRequest request)
+    {
+        while(service != null)
+        {
+            if(service instanceof AsyncService) return (AsyncService)service;
+            if(!(service instanceof Routable)) return null;
+            
+            service = ((Routable)service).getDestinationService(request);
+        }
+        
+        return null;
+    }
+
+    @Override
+    public Service getDestinationService(HttpRequest request)
+    {
+        return service;
+    }
+
+    @Override
+    public void execute(HttpRequest request, HttpResponse response)
+    {
+        if(service != null) service.execute(request, response);
+        else response.sendError(404, "Not Found");
+    }
+}
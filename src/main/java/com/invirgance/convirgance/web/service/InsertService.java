@@ -29,9 +29,9 @@ import com.invirgance.convirgance.input.Input;
 import com.invirgance.convirgance.json.JSONObject;
 import com.invirgance.convirgance.output.JSONOutput;
 import com.invirgance.convirgance.output.Output;
-import com.invirgance.convirgance.target.OutputStreamTarget;
 import com.invirgance.convirgance.transform.IdentityTransformer;
 import com.invirgance.convirgance.transform.Transformer;
+import com.invirgance.convirgance.web.cache.CacheTags;
 import com.invirgance.convirgance.web.consumer.Consumer;
 import com.invirgance.convirgance.web.http.HttpRequest;
 import com.invirgance.convirgance.web.http.HttpResponse;
@@ -72,6 +72,7 @@ public class InsertService implements Service, Processable
     private List<Transformer> transformers;
     private Consumer consumer;
     private Output output = new JSONOutput();
+    private List<String> invalidates;
     
     
     /**
@@ -194,6 +195,29 @@ public class InsertService implements Service, Processable
         this.output = output;
     }
     
+    /**
+     * Returns the cache tags invalidated after the data is consumed.
+     * 
+     * @return the tags or null if none are declared
+     */
+    public List<String> getInvalidates()
+    {
+        return invalidates;
+    }
+
+    /**
+     * Sets the cache tags invalidated once the consumer has committed the
+     * data. Cached results that depend on these tags are discarded. Tags may
+     * include parameters in curly braces, such as <code>customer:{id}</code>,
+     * which are filled in from the request parameters.
+     * 
+     * @param invalidates the tags to invalidate
+     */
+    public void setInvalidates(List<String> invalidates)
+    {
+        this.invalidates = invalidates;
+    }
+    
     public Iterable<JSONObject> process(HttpRequest request)
     {
         
@@ -239,7 +263,12 @@ public class InsertService implements Service, Processable
         }
 
         // Consume the uploaded stream of data
-        return consumer.consume(iterable, params);
+        iterable = consumer.consume(iterable, params);
+        
+        // Discard cached reads made stale by the committed changes
+        if(invalidates != null) CacheTags.invalidate(CacheTags.resolve(invalidates, params));
+        
+        return iterable;
     }
     
     /**
@@ -259,7 +288,7 @@ public class InsertService implements Service, Processable
         {
             response.setContentType(output.getContentType());
 
-            output.write(new OutputStreamTarget(response.getOutputStream()), iterable);
+            response.write(output, iterable);
         }
     }
 }
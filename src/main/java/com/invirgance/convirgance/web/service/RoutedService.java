@@ -26,11 +26,13 @@ package com.invirgance.convirgance.web.service;
 import com.invirgance.convirgance.json.JSONArray;
 import com.invirgance.convirgance.web.http.HttpRequest;
 import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.web.http.PathMatch;
 import com.invirgance.convirgance.wiring.annotation.Wiring;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Routes requests between multiples services based on the request URL. URLs
@@ -41,7 +43,11 @@ import java.util.Map;
  * Longer paths are checked before shorter paths, so <code>/owner/32/pet/12</code>
  * would match <code>/owner/&#42;/pet</code> instead of <code>/owner</code>.<br>
  * <br>
- * Conversely <code>/owner/32/edit</code> would match <code>/owner</code>.
+ * Conversely <code>/owner/32/edit</code> would match <code>/owner</code>.<br>
+ * <br>
+ * Routes are compiled into a tree of path segments when configured so that
+ * finding the destination is a single walk over the request path. The path
+ * is parsed once per request and shared with {@link com.invirgance.convirgance.web.parameter.PathVariable}.
  * 
  * @author jbanes
  */
@@ -50,6 +56,7 @@ public class RoutedService implements Service, Routable
 {
     private Map<String,Service> routes;
     private List<String> sortedKeys;
+    private Map<String,RouteNode> compiled = new ConcurrentHashMap<>();
 
     /**
      * The list of paths for routing and the service configured to handle each
@@ -104,6 +111,18 @@ public class RoutedService implements Service, Routable
                 return diff;
             });
         }
+        
+        this.compiled = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * The route paths in the order they are checked
+     * 
+     * @return the sorted list of route paths
+     */
+    List<String> getSortedKeys()
+    {
+        return sortedKeys;
     }
     
     private String trimContext(String path, String context)
@@ -115,28 +134,85 @@ public class RoutedService implements Service, Routable
         return path;
     }
     
-    @Override
-    public Service getDestinationService(HttpRequest request)
+    private RouteNode compile(String context)
     {
-        String[] actual = trimContext(request.getRequestURI(), request.getContextPath()).split("/");
-        String[] components;
-
-        routes: for(String path : sortedKeys)
+        RouteNode root = new RouteNode();
+        RouteNode node;
+        
+        for(int rank=0; rank<sortedKeys.size(); rank++)
         {
-            components = trimContext(path, request.getContextPath()).split("/");
-
-            if(actual.length < components.length) continue;
+            node = root;
             
-            for(int i=0; i<components.length; i++)
+            for(String component : trimContext(sortedKeys.get(rank), context).split("/"))
             {
-                if(components[i].equals("*")) continue;
-                if(!actual[i].equals(components[i])) continue routes;
+                node = node.child(component);
             }
-
-            return routes.get(path);
+            
+            node.rank = Math.min(node.rank, rank);
+        }
+        
+        return root;
+    }
+    
+    private RouteNode getCompiled(String context)
+    {
+        RouteNode root;
+        
+        if(context == null) context = "";
+        
+        root = compiled.get(context);
+        
+        if(root == null)
+        {
+            root = compile(context);
+            
+            compiled.put(context, root);
         }
         
-        return null;
+        return root;
+    }
+    
+    /**
+     * Finds the highest priority route matching the remaining path segments.
+     * 
+     * @param node the current position in the route tree
+     * @param segments the request path split on <code>/</code>
+     * @param index the index of the next segment
+     * @return the rank of the best matching route or Integer.MAX_VALUE if none match
+     */
+    private int match(RouteNode node, String[] segments, int index)
+    {
+        int best = node.rank;
+        RouteNode child;
+        
+        if(index >= segments.length) return best;
+        
+        if(node.wildcard != null) best = Math.min(best, match(node.wildcard, segments, index+1));
+        
+        if(node.children != null)
+        {
+            child = node.children.get(segments[index]);
+            
+            if(child != null) best = Math.min(best, match(child, segments, index+1));
+        }
+        
+        return best;
+    }
+    
+    @Override
+    public Service getDestinationService(HttpRequest request)
+    {
+        PathMatch path;
+        int rank;
+        
+        if(sortedKeys == null) return null;
+        
+        path = request.getPathMatch();
+        rank = match(getCompiled(path.getContext()), path.getSegments(), 0);
+        
+        if(rank == Integer.MAX_VALUE) return null;
+        
+        return routes.get(sortedKeys.get(rank));
     }
     
     @Override
@@ -148,4 +224,35 @@ public class RoutedService implements Service, Routable
         else response.sendError(404, "Not Found");
     }
     
+    private static class RouteNode
+    {
+        private int rank = Integer.MAX_VALUE;
+        private Map<String,RouteNode> children;
+        private RouteNode wildcard;
+        
+        public RouteNode child(String component)
+        {
+            RouteNode node;
+            
+            if(component.equals("*"))
+            {
+                if(wildcard == null) wildcard = new RouteNode();
+                
+                return wildcard;
+            }
+            
+            if(children == null) children = new HashMap<>();
+            
+            node = children.get(component);
+            
+            if(node == null)
+            {
+                node = new RouteNode();
+                
+                children.put(component, node);
+            }
+            
+            return node;
+        }
+    }
 }
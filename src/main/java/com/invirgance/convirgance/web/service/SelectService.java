@@ -24,9 +24,9 @@ package com.invirgance.convirgance.web.service;
 import com.invirgance.convirgance.web.servlet.ServiceState;
 import com.invirgance.convirgance.json.JSONObject;
 import com.invirgance.convirgance.output.Output;
-import com.invirgance.convirgance.target.OutputStreamTarget;
 import com.invirgance.convirgance.transform.Transformer;
 import com.invirgance.convirgance.web.binding.Binding;
+import com.invirgance.convirgance.web.cache.ResponseCache;
 import com.invirgance.convirgance.web.http.HttpRequest;
 import com.invirgance.convirgance.web.http.HttpResponse;
 import com.invirgance.convirgance.web.parameter.Parameter;
@@ -62,6 +62,7 @@ public class SelectService implements Service, Processable
     private Binding binding;
     private List<Transformer> transformers;
     private Output output;
+    private ResponseCache cache;
 
     /**
      * Gets the list of parameters to extract from the request.
@@ -144,29 +145,31 @@ public class SelectService implements Service, Processable
     }
     
     /**
-     * Processes an HTTP request to retrieve data without generating a response.
-     * <p>
-     * This method implements the core data retrieval pipeline and can be used
-     * by other components that need access to the data without writing to a response.
-     * </p>
-     * <ol>
-     *   <li>Extract parameters from the HTTP request</li>
-     *   <li>Store parameters in thread-local storage for access by other components</li>
-     *   <li>Use the configured binding to retrieve data based on the parameters</li>
-     *   <li>Apply any configured transformers to the data</li>
-     * </ol>
+     * Gets the cache of encoded responses.
      *
-     * @param request The HTTP request containing the parameters
-     * @return An iterable of JSONObjects containing the retrieved and transformed data
+     * @return The response cache or null if responses are not cached
      */
-    @Override
-    public Iterable<JSONObject> process(HttpRequest request)
+    public ResponseCache getCache()
+    {
+        return cache;
+    }
+    
+    /**
+     * Sets a cache for the encoded responses. A cached response is written 
+     * without calling the binding, transformers, or output.
+     *
+     * @param cache The response cache
+     */
+    public void setCache(ResponseCache cache)
+    {
+        this.cache = cache;
+    }
+    
+    private JSONObject bind(HttpRequest request)
     {
         JSONObject params = new JSONObject();
-        Iterable<JSONObject> iterable;
         
         if(this.parameters == null) this.parameters = new ArrayList<>();
-        if(this.transformers == null) this.transformers = new ArrayList<>();
         
         // Obtain the parameters for binding
         for(Parameter parameter : this.parameters)
@@ -177,6 +180,15 @@ public class SelectService implements Service, Processable
         // Record the bindings to a thread local so it can be referenced deep in the heirarchy
         ServiceState.set("parameters", params);
         
+        return params;
+    }
+    
+    private Iterable<JSONObject> process(JSONObject params)
+    {
+        Iterable<JSONObject> iterable;
+        
+        if(this.transformers == null) this.transformers = new ArrayList<>();
+        
         // Generate the source of information by binding the parameters
         iterable = binding.getBinding(params);
         
@@ -189,6 +201,28 @@ public class SelectService implements Service, Processable
         return iterable;
     }
     
+    /**
+     * Processes an HTTP request to retrieve data without generating a response.
+     * <p>
+     * This method implements the core data retrieval pipeline and can be used
+     * by other components that need access to the data without writing to a response.
+     * </p>
+     * <ol>
+     *   <li>Extract parameters from the HTTP request</li>
+     *   <li>Store parameters in thread-local storage for access by other components</li>
+     *   <li>Use the configured binding to retrieve data based on the parameters</li>
+     *   <li>Apply any configured transformers to the data</li>
+     * </ol>
+     *
+     * @param request The HTTP request containing the parameters
+     * @return An iterable of JSONObjects containing the retrieved and transformed data
+     */
+    @Override
+    public Iterable<JSONObject> process(HttpRequest request)
+    {
+        return process(bind(request));
+    }
+    
     /**
      * Executes the select service, retrieving and returning data in 
      * response to an HTTP request.
@@ -199,11 +233,20 @@ public class SelectService implements Service, Processable
     @Override
     public void execute(HttpRequest request, HttpResponse response)
     {
-        Iterable<JSONObject> iterable = process(request);
+        JSONObject params = bind(request);
+        Iterable<JSONObject> iterable;
+        
+        if(cache != null)
+        {
+            cache.write(request, response, params, output, () -> process(params));
+            return;
+        }
+        
+        iterable = process(params);
         
         // Write out the response
         response.setContentType(output.getContentType());
         
-        output.write(new OutputStreamTarget(response.getOutputStream()), iterable);
+        response.write(output, iterable);
     }
 }
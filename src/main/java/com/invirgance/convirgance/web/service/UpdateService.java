@@ -25,10 +25,11 @@ package com.invirgance.convirgance.web.service;
 
 import com.invirgance.convirgance.ConvirganceException;
 import com.invirgance.convirgance.dbms.DBMS;
-import com.invirgance.convirgance.dbms.Query;
 import com.invirgance.convirgance.dbms.TransactionOperation;
 import com.invirgance.convirgance.json.JSONArray;
 import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.binding.SqlTemplate;
+import com.invirgance.convirgance.web.cache.CacheTags;
 import com.invirgance.convirgance.web.http.HttpRequest;
 import com.invirgance.convirgance.web.http.HttpResponse;
 import com.invirgance.convirgance.web.parameter.Parameter;
@@ -36,6 +37,7 @@ import com.invirgance.convirgance.web.servlet.ApplicationInitializer;
 import com.invirgance.convirgance.web.servlet.ServiceState;
 import com.invirgance.convirgance.wiring.annotation.Wiring;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.sql.DataSource;
@@ -57,6 +59,10 @@ public class UpdateService implements Service, Processable
     private String jndiName;
     private List<String> statements;
     private Map<String,String> children;
+    private List<String> invalidates;
+    
+    private volatile List<SqlTemplate> statementTemplates;
+    private volatile Map<String,SqlTemplate> childTemplates;
 
     /**
      * Gets the list of parameters to extract from the request.
@@ -122,6 +128,7 @@ public class UpdateService implements Service, Processable
     public void setStatements(List<String> sql)
     {
         this.statements = sql;
+        this.statementTemplates = null;
     }
     
     /**
@@ -146,6 +153,7 @@ public class UpdateService implements Service, Processable
     public void setSql(String sql)
     {
         this.statements = new ArrayList<>();
+        this.statementTemplates = null;
         
         this.statements.add(sql);
     }
@@ -173,38 +181,81 @@ public class UpdateService implements Service, Processable
     public void setChildren(Map<String, String> children)
     {
         this.children = children;
+        this.childTemplates = null;
+    }
+    
+    /**
+     * Returns the cache tags invalidated after the statements commit.
+     * 
+     * @return the tags or null if none are declared
+     */
+    public List<String> getInvalidates()
+    {
+        return invalidates;
+    }
+
+    /**
+     * Sets the cache tags invalidated once the statements have been committed. Cached
+     * results that depend on these tags are discarded. Tags may include 
+     * parameters in curly braces, such as <code>customer:{id}</code>, which 
+     * are filled in from the request parameters.
+     * 
+     * @param invalidates the tags to invalidate
+     */
+    public void setInvalidates(List<String> invalidates)
+    {
+        this.invalidates = invalidates;
     }
     
     private DBMS lookup()
     {
-        DataSource source = ApplicationInitializer.lookup(this.jndiName);
+        return ApplicationInitializer.getDBMS(jndiName);
+    }
+
+    private List<SqlTemplate> getStatementTemplates()
+    {
+        var templates = this.statementTemplates;
+        
+        if(templates != null) return templates;
+        if(statements == null) return List.of();
+        
+        templates = new ArrayList<>(statements.size());
+        
+        for(String statement : statements) templates.add(new SqlTemplate(statement));
+        
+        return (this.statementTemplates = templates);
+    }
+    
+    private Map<String,SqlTemplate> getChildTemplates()
+    {
+        var templates = this.childTemplates;
+        
+        if(templates != null) return templates;
         
-        if(jndiName == null) throw new ConvirganceException("jndiName property must be set!");
-        if(source == null) return DBMS.lookup(jndiName);
+        templates = new LinkedHashMap<>();
         
-        return new DBMS(source);
+        for(String key : children.keySet()) templates.put(key, new SqlTemplate(children.get(key)));
+        
+        return (this.childTemplates = templates);
     }
 
     private void addChildTransactions(TransactionOperation transaction, JSONObject parameters)
     {
-        Query query;
+        List<Object[]> batch;
         
-        for(String key : children.keySet())
+        for(var entry : getChildTemplates().entrySet())
         {
-            if(parameters.get(key) == null) continue;
+            if(parameters.get(entry.getKey()) == null) continue;
             
-            for(var child : (JSONArray<JSONObject>)parameters.getJSONArray(key, new JSONArray()))
-            {
-                query = new Query(children.get(key));
+            batch = new ArrayList<>();
             
-                for(String parameter : query.getParameterNames())
-                {
-                    if(child.containsKey(parameter)) query.setBinding(parameter, child.get(parameter));
-                    else query.setBinding(parameter, parameters.get(parameter));
-                }
-                
-                transaction.add(query);
+            // Child values take precedence over the parent parameters
+            for(var child : (JSONArray<JSONObject>)parameters.getJSONArray(entry.getKey(), new JSONArray()))
+            {
+                batch.add(entry.getValue().bind(child, parameters));
             }
+            
+            if(!batch.isEmpty()) transaction.add(entry.getValue().batch(batch));
         }
     }
     
@@ -216,7 +267,6 @@ public class UpdateService implements Service, Processable
         var transaction = new TransactionOperation();
         
         if(this.parameters == null) this.parameters = new ArrayList<>();
-        if(this.statements == null) this.statements = new ArrayList<>();
         
         // Obtain the parameters for binding
         for(Parameter parameter : this.parameters)
@@ -228,9 +278,9 @@ public class UpdateService implements Service, Processable
         ServiceState.set("parameters", params);
         
         // Bind the parameters and build a transaction
-        for(var statement : this.statements)
+        for(var template : getStatementTemplates())
         {
-            transaction.add(new Query(statement, params));
+            transaction.add(template.update(params));
         }
         
         // Descend into children
@@ -239,6 +289,9 @@ public class UpdateService implements Service, Processable
         // Execute the transaction
         dbms.update(transaction);
         
+        // Discard cached reads made stale by the committed changes
+        if(invalidates != null) CacheTags.invalidate(CacheTags.resolve(invalidates, params));
+        
         // No data to return
         return new JSONArray<>();
     }
@@ -6,12 +6,20 @@ import com.invirgance.convirgance.dbms.DBMS;
 import com.invirgance.convirgance.dbms.Query;
 import com.invirgance.convirgance.jdbc.datasource.DriverDataSource;
 import com.invirgance.convirgance.source.ClasspathSource;
+import com.invirgance.convirgance.web.datasource.PooledDataSource;
+import com.invirgance.convirgance.web.datasource.RoutingDataSource;
 import javax.sql.DataSource;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.naming.*;
 
 /*
@@ -38,19 +46,207 @@ SOFTWARE.
 
 /**
  * Web application lifecycle listener that will load an <code>application.properties</code>
- * file if included in the project.
+ * file if included in the project.<br>
+ * <br>
+ * Connections to the <code>jdbc.database.url</code> database are pooled by a 
+ * {@link PooledDataSource} unless <code>jdbc.pool.enabled</code> is false. The 
+ * pool is configured with these optional properties:
+ * <ul>
+ *   <li><code>jdbc.pool.min</code> - connections kept open when idle (default 0)</li>
+ *   <li><code>jdbc.pool.max</code> - maximum open connections (default 10)</li>
+ *   <li><code>jdbc.pool.idleTimeout</code> - milliseconds before an idle connection is closed (default 600000)</li>
+ *   <li><code>jdbc.pool.maxLifetime</code> - milliseconds before a connection is retired (default 1800000)</li>
+ *   <li><code>jdbc.pool.acquireTimeout</code> - milliseconds to wait for a free connection (default 30000)</li>
+ *   <li><code>jdbc.pool.validationQuery</code> - query used to check idle connections (default none)</li>
+ * </ul>
+ * The pool is closed when the application is shut down.<br>
+ * <br>
+ * Additional databases can be configured with any name in place of 
+ * <code>database</code>, e.g. <code>jdbc.reports.url</code>. Pool settings
+ * can be overridden for each database, e.g. <code>jdbc.reports.pool.max</code>.
+ * A database can list other databases as its read replicas:
+ * <ul>
+ *   <li><code>jdbc.&lt;name&gt;.replicas</code> - comma separated names of the replicas</li>
+ *   <li><code>jdbc.&lt;name&gt;.routing</code> - <code>round-robin</code> (default) or <code>least-in-flight</code></li>
+ *   <li><code>jdbc.&lt;name&gt;.replicationLag</code> - milliseconds reads that need their writes stay on the primary (default 1000)</li>
+ * </ul>
+ * The JNDI name of such a database is bound to a {@link RoutingDataSource}. 
+ * Query bindings and tags read from the replicas while services that write
+ * use the primary.
  *
  * @author jbanes
  */
 public class ApplicationInitializer implements ServletContextListener
 {
-    private static HashMap<String,DataSource> jndiLookup = new HashMap<>();
+    private static final Map<String,DataSource> jndiLookup = new ConcurrentHashMap<>();
+    private static final Map<String,DataSource> sources = new ConcurrentHashMap<>();
+    private static final Map<String,DBMS> databases = new ConcurrentHashMap<>();
     
+    private static final Map<String,DBMS> readers = new ConcurrentHashMap<>();
+    private static final Map<String,DBMS> primaries = new ConcurrentHashMap<>();
+    
+    private final List<PooledDataSource> pools = new ArrayList<>();
+    private final List<String> paths = new ArrayList<>();
+    
+    /**
+     * Returns the data source registered under the given JNDI name by this
+     * class. Does not consult JNDI.
+     * 
+     * @param path the JNDI name
+     * @return the registered data source or null if none is registered
+     */
     public static DataSource lookup(String path)
     {
         return jndiLookup.get(path);
     }
     
+    /**
+     * Resolves the data source for a JNDI name. Registered data sources are
+     * used first, falling back to a JNDI lookup. The result is cached so that
+     * JNDI is only consulted the first time a name is used.
+     * 
+     * @param path the JNDI name
+     * @return the data source
+     * @throws ConvirganceException if the name cannot be resolved
+     */
+    public static DataSource resolve(String path)
+    {
+        if(path == null) throw new ConvirganceException("jndiName property must be set!");
+        
+        return sources.computeIfAbsent(path, name -> {
+            DataSource source = jndiLookup.get(name);
+            
+            if(source != null) return source;
+            
+            try
+            {
+                return (DataSource)new InitialContext().lookup(name);
+            }
+            catch(NamingException e)
+            {
+                throw new ConvirganceException("Unable to find data source " + name, e);
+            }
+        });
+    }
+    
+    /**
+     * Returns a {@link DBMS} for a JNDI name. Registered data sources are 
+     * used first, falling back to {@link DBMS#lookup(String)}. The DBMS is 
+     * created once per name and cached until {@link #invalidate(String)} is 
+     * called.
+     * 
+     * @param path the JNDI name
+     * @return the DBMS for the data source
+     * @throws ConvirganceException if the name is null
+     */
+    public static DBMS getDBMS(String path)
+    {
+        if(path == null) throw new ConvirganceException("jndiName property must be set!");
+        
+        return databases.computeIfAbsent(path, name -> {
+            DataSource source = jndiLookup.get(name);
+            
+            if(source == null) return DBMS.lookup(name);
+            
+            return new DBMS(source);
+        });
+    }
+    
+    /**
+     * Resolves the data source to read from for a JNDI name. When the name
+     * is bound to a {@link RoutingDataSource}, reads are sent to its replicas.
+     * Otherwise this is the same as {@link #resolve(String)}.
+     * 
+     * @param path the JNDI name
+     * @param readYourWrites true if recent writes must be visible to the read
+     * @return the data source to read from
+     */
+    public static DataSource resolveReader(String path, boolean readYourWrites)
+    {
+        DataSource source = resolve(path);
+        
+        if(source instanceof RoutingDataSource) return ((RoutingDataSource)source).getReader(readYourWrites);
+        
+        return source;
+    }
+    
+    /**
+     * Returns a {@link DBMS} for reads against a JNDI name. When the name is
+     * bound to a {@link RoutingDataSource}, queries are sent to its replicas.
+     * Otherwise this is the same as {@link #getDBMS(String)}.
+     * 
+     * @param path the JNDI name
+     * @return the DBMS to read from
+     */
+    public static DBMS getReadDBMS(String path)
+    {
+        return getReadDBMS(path, false);
+    }
+    
+    /**
+     * Returns a {@link DBMS} for reads against a JNDI name. When the name is
+     * bound to a {@link RoutingDataSource}, queries are sent to its replicas
+     * unless read-your-writes is requested and the primary was recently 
+     * written to. Otherwise this is the same as {@link #getDBMS(String)}.
+     * 
+     * @param path the JNDI name
+     * @param readYourWrites true if recent writes must be visible to the read
+     * @return the DBMS to read from
+     */
+    public static DBMS getReadDBMS(String path, boolean readYourWrites)
+    {
+        DataSource source = resolve(path);
+        RoutingDataSource routing;
+        DataSource reader;
+        
+        if(!(source instanceof RoutingDataSource)) return getDBMS(path);
+        
+        routing = (RoutingDataSource)source;
+        reader = routing.getReader(readYourWrites);
+        
+        if(reader == routing.getPrimary()) return primaries.computeIfAbsent(path, name -> new DBMS(routing.getPrimary()));
+        
+        return readers.computeIfAbsent(path, name -> new DBMS(reader));
+    }
+    
+    /**
+     * Discards the cached data source and DBMS for a JNDI name so that the 
+     * next use resolves it again. Call this after rebinding a name in JNDI.
+     * 
+     * @param path the JNDI name
+     */
+    public static void invalidate(String path)
+    {
+        sources.remove(path);
+        databases.remove(path);
+        readers.remove(path);
+        primaries.remove(path);
+    }
+    
+    /**
+     * Discards all cached data sources and DBMS instances.
+     */
+    public static void invalidate()
+    {
+        sources.clear();
+        databases.clear();
+        readers.clear();
+        primaries.clear();
+    }
+    
+    /**
+     * Makes a data source available to services under the given JNDI name
+     * without binding it in JNDI. Useful for embedded databases and tests.
+     * 
+     * @param path the JNDI name services will use to find the data source
+     * @param source the data source
+     */
+    public static void register(String path, DataSource source)
+    {
+        jndiLookup.put(path, source);
+        invalidate(path);
+    }
+    
     private Properties getProperties()
     {
         Properties props = new Properties();
@@ -64,34 +260,107 @@ public class ApplicationInitializer implements ServletContextListener
         return props;
     }
     
-    private DataSource getDataSource(Properties props)
+    private DataSource getDataSource(Properties props, String name)
+    {
+        String url = props.getProperty("jdbc." + name + ".url");
+        String username = props.getProperty("jdbc." + name + ".username", "");
+        String password = props.getProperty("jdbc." + name + ".password", "");
+        
+        return getDataSource(url, username, password);
+    }
+
+    private DataSource getDataSource(String url, String username, String password)
+    {
+        return DriverDataSource.getDataSource(url, username, password);
+    }
+    
+    private Set<String> getDataSourceNames(Properties props)
     {
-        String url = props.getProperty("jdbc.database.url");
-        String username = props.getProperty("jdbc.database.username", "");
-        String password = props.getProperty("jdbc.database.password", "");
+        Set<String> names = new TreeSet<>();
+        String name;
+        
+        for(String key : props.stringPropertyNames())
+        {
+            if(!key.startsWith("jdbc.") || !key.endsWith(".url")) continue;
+            
+            name = key.substring(5, key.length() - 4);
+            
+            if(!name.isEmpty() && !name.contains(".")) names.add(name);
+        }
+        
+        return names;
+    }
+    
+    private String getPoolProperty(Properties props, String name, String key)
+    {
+        return props.getProperty("jdbc." + name + ".pool." + key, props.getProperty("jdbc.pool." + key));
+    }
+    
+    private long getLong(Properties props, String name, String key, long defaultValue)
+    {
+        String value = getPoolProperty(props, name, key);
+        
+        if(value == null || value.isBlank()) return defaultValue;
         
         try
         {
-            Class.forName("com.invirgance.convirgance.jdbc.datasource.DriverDataSource");
+            return Long.parseLong(value.trim());
         }
-        catch(Exception e)
+        catch(NumberFormatException e)
         {
-            throw new ConvirganceException("You must add convirgance-jdbc as a dependency to this project if you wish to use application.properties", e);
+            throw new ConvirganceException("Invalid value for jdbc." + name + ".pool." + key + ": " + value);
         }
+    }
+    
+    private PooledDataSource getPool(DataSource source, Properties props, String name)
+    {
+        PooledDataSource pool = new PooledDataSource(source);
         
-        return getDataSource(url, username, password);
+        pool.setMin((int)getLong(props, name, "min", pool.getMin()));
+        pool.setMax((int)getLong(props, name, "max", pool.getMax()));
+        pool.setIdleTimeout(getLong(props, name, "idleTimeout", pool.getIdleTimeout()));
+        pool.setMaxLifetime(getLong(props, name, "maxLifetime", pool.getMaxLifetime()));
+        pool.setAcquireTimeout(getLong(props, name, "acquireTimeout", pool.getAcquireTimeout()));
+        pool.setValidationQuery(getPoolProperty(props, name, "validationQuery"));
+        
+        return pool;
     }
-
-    private DataSource getDataSource(String url, String username, String password)
+    
+    private RoutingDataSource getRouting(DataSource primary, Map<String,DataSource> sources, Properties props, String name)
     {
-        return DriverDataSource.getDataSource(url, username, password);
+        List<DataSource> replicas = new ArrayList<>();
+        String balancing = props.getProperty("jdbc." + name + ".routing", "round-robin");
+        String lag = props.getProperty("jdbc." + name + ".replicationLag");
+        RoutingDataSource routing;
+        
+        for(String replica : props.getProperty("jdbc." + name + ".replicas").split(","))
+        {
+            if(!sources.containsKey(replica.trim())) throw new ConvirganceException("Replica " + replica.trim() + " of " + name + " has no jdbc." + replica.trim() + ".url");
+            
+            replicas.add(sources.get(replica.trim()));
+        }
+        
+        routing = new RoutingDataSource(primary, replicas);
+        
+        try
+        {
+            routing.setBalancing(RoutingDataSource.Balancing.valueOf(balancing.trim().toUpperCase().replace('-', '_')));
+            
+            if(lag != null) routing.setReplicationLag(Long.parseLong(lag.trim()));
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new ConvirganceException("Invalid routing configuration for " + name + ": " + e.getMessage());
+        }
+        
+        return routing;
     }
     
     private void registerDataSource(DataSource source, String path)
     {
         try
         {
-            jndiLookup.put(path, source);
+            register(path, source);
             
             new InitialContext().rebind(path, source);
         }
@@ -101,21 +370,55 @@ public class ApplicationInitializer implements ServletContextListener
         }
     }
     
-    @Override
-    public void contextInitialized(ServletContextEvent sce)
+    /**
+     * Creates, pools, and registers every data source in the properties, then
+     * runs the init scripts against the <code>database</code> data source.
+     * 
+     * @param props the application properties
+     */
+    void configure(Properties props)
     {
-        Properties props = getProperties();
-        DataSource source = getDataSource(props);
+        Map<String,DataSource> sources = new LinkedHashMap<>();
+        boolean pooled = !props.getProperty("jdbc.pool.enabled", "true").trim().equalsIgnoreCase("false");
+        DataSource source;
+        PooledDataSource pool;
         
-        System.out.println("Intializing Convirgance Web Services Application...");
+        for(String name : getDataSourceNames(props))
+        {
+            source = getDataSource(props, name);
+            
+            if(pooled)
+            {
+                source = pool = getPool(source, props, name);
+                
+                pools.add(pool);
+            }
+            
+            sources.put(name, source);
+        }
         
-        if(props.containsKey("jdbc.database.jndi")) 
+        for(String name : sources.keySet())
         {
-            registerDataSource(source, props.getProperty("jdbc.database.jndi"));
+            source = sources.get(name);
+            
+            if(props.containsKey("jdbc." + name + ".replicas"))
+            {
+                source = getRouting(source, sources, props, name);
+            }
+            
+            if(props.containsKey("jdbc." + name + ".jndi"))
+            {
+                paths.add(props.getProperty("jdbc." + name + ".jndi"));
+                registerDataSource(source, props.getProperty("jdbc." + name + ".jndi"));
+            }
         }
+        
+        source = sources.get("database");
 
         if(props.containsKey("jdbc.init.sql.schema"))
         {
+            if(source == null) throw new ConvirganceException("jdbc.database.url must be set to run jdbc.init.sql.schema");
+            
             System.out.println("Intializing database schema from file [" + props.getProperty("jdbc.init.sql.schema") + "]...");
             
             new DBMS(source).update(new Query(new ClasspathSource(props.getProperty("jdbc.init.sql.schema"))));
@@ -123,10 +426,31 @@ public class ApplicationInitializer implements ServletContextListener
 
         if(props.containsKey("jdbc.init.sql.data"))
         {
+            if(source == null) throw new ConvirganceException("jdbc.database.url must be set to run jdbc.init.sql.data");
+            
             System.out.println("Intializing database data from file [" + props.getProperty("jdbc.init.sql.schema") + "]...");
             
             new DBMS(source).update(new Query(new ClasspathSource(props.getProperty("jdbc.init.sql.data"))));
         }
+    }
+    
+    @Override
+    public void contextInitialized(ServletContextEvent sce)
+    {
+        Properties props = getProperties();
+        
+        System.out.println("Intializing Convirgance Web Services Application...");
+        
+        try
+        {
+            Class.forName("com.invirgance.convirgance.jdbc.datasource.DriverDataSource");
+        }
+        catch(Exception e)
+        {
+            throw new ConvirganceException("You must add convirgance-jdbc as a dependency to this project if you wish to use application.properties", e);
+        }
+        
+        configure(props);
         
         System.out.println("Convirgance Web Services Application initialization complete");
     }
@@ -134,5 +458,26 @@ public class ApplicationInitializer implements ServletContextListener
     @Override
     public void contextDestroyed(ServletContextEvent sce)
     {
+        for(String path : paths)
+        {
+            jndiLookup.remove(path);
+            invalidate(path);
+            
+            try
+            {
+                new InitialContext().unbind(path);
+            }
+            catch(NamingException naming) { /* Was never bound */ }
+        }
+        
+        for(PooledDataSource pool : pools)
+        {
+            System.out.println("Closing connection pool " + pool + "...");
+            
+            pool.close();
+        }
+        
+        pools.clear();
+        paths.clear();
     }
-}
+}
\ No newline at end of file
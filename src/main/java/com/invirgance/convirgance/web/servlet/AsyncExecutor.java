@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.servlet;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executor used to run services in async mode. Virtual threads 
+ * are used when running on a JDK that supports them so that thousands of 
+ * concurrent requests do not require thousands of platform threads.
+ * 
+ * @author jbanes
+ */
+class AsyncExecutor
+{
+    /**
+     * Creates an executor for running services. When threads is zero or less,
+     * a virtual thread per task executor is created on JDK 21+ and an 
+     * unbounded pool of daemon threads otherwise.
+     * 
+     * @param threads the number of threads or zero to use virtual threads
+     * @return a new executor
+     */
+    public static ExecutorService create(int threads)
+    {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "Convirgance Async Worker " + count.incrementAndGet());
+            
+            thread.setDaemon(true);
+            
+            return thread;
+        };
+        
+        if(threads > 0) return Executors.newFixedThreadPool(threads, factory);
+        
+        try
+        {
+            // Compiled against JDK 17, so virtual threads are found reflectively
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            return Executors.newCachedThreadPool(factory);
+        }
+    }
+}
@@ -22,12 +22,24 @@ SOFTWARE.
 package com.invirgance.convirgance.web.servlet;
 
 import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.http.BufferPool;
+import com.invirgance.convirgance.web.http.Compression;
 import com.invirgance.convirgance.web.http.HttpRequest;
 import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.web.service.AsyncService;
 import com.invirgance.convirgance.web.service.Service;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -49,7 +61,28 @@ public class JavaEEServicesServlet extends HttpServlet
     private boolean allowPost = true;
     private boolean allowPut = true;
     private boolean allowDelete = true;
+    
+    private boolean preload;
+    private String preloadPath;
+    private int preloadThreads = Runtime.getRuntime().availableProcessors();
+    private boolean preloadFailFast;
+    
+    private ServiceLoader.ReloadMode reload;
 
+    private boolean async;
+    private long asyncTimeout = -1;
+    private int asyncThreads;
+    
+    private boolean compress;
+    private Compression compression = new Compression();
+    
+    private int bufferSize = 8192;
+    private boolean bufferDirect;
+    private int bufferPoolSize = 256;
+    private int flushThreshold;
+    private BufferPool pool = BufferPool.getDefault();
+    private ExecutorService executor;
+    
     private ServiceLoader loader = ServiceLoader.getInstance();
     
     private void initMethods(String list) throws ServletException
@@ -90,8 +123,85 @@ public class JavaEEServicesServlet extends HttpServlet
         }
     }
     
+    private String getPreloadPath()
+    {
+        var registration = getServletContext().getServletRegistration(getServletName());
+        
+        if(preloadPath != null) return preloadPath;
+        if(registration == null) return "";
+        
+        // Use the directory of the first path mapping. e.g. /services/*
+        for(String mapping : registration.getMappings())
+        {
+            if(mapping.endsWith("/*")) return mapping.substring(0, mapping.length() - 2);
+        }
+        
+        return "";
+    }
+    
+    private void preload() throws ServletException
+    {
+        String path = getPreloadPath();
+        int errors = 0;
+        
+        System.out.println("Preloading services from [" + path + "/] using " + preloadThreads + " threads...");
+        
+        try
+        {
+            for(JSONObject result : loader.preload(getServletContext(), path, preloadThreads, preloadFailFast))
+            {
+                if(result.containsKey("error"))
+                {
+                    System.err.println("Unable to load service " + result.getString("path") + ": " + result.getString("error"));
+                    errors++;
+                }
+                else
+                {
+                    System.out.println("Loaded service " + result.getString("path") + " in " + result.get("time") + "ms");
+                }
+            }
+        }
+        catch(ConvirganceException e)
+        {
+            throw new ServletException(e);
+        }
+        
+        System.out.println("Preloaded services in " + loader.getPreloadTime() + "ms with " + errors + " errors");
+    }
+    
     /**
-     * Initializes the servlet with the configuration.
+     * Initializes the servlet with the configuration. Set the <code>preload</code>
+     * init parameter to <code>true</code> to parse all wiring files under the 
+     * servlet's mapped path (or <code>preloadPath</code>) on startup using 
+     * <code>preloadThreads</code> threads. Files that fail to parse are logged
+     * unless <code>preloadFailFast</code> is <code>true</code>, in which case 
+     * initialization fails.<br>
+     * <br>
+     * The <code>reload</code> init parameter controls how changes to wiring
+     * files are detected. See {@link ServiceLoader.ReloadMode} for the values
+     * supported. <code>reloadInterval</code> sets the polling interval in 
+     * milliseconds.<br>
+     * <br>
+     * Set <code>async</code> to <code>true</code> to run every service on an
+     * executor rather than the container thread. Services wrapped in an 
+     * {@link AsyncService} are always run this way. <code>asyncTimeout</code>
+     * sets the default timeout in milliseconds, and <code>asyncThreads</code>
+     * sets the size of a fixed pool. The default of zero uses virtual threads
+     * when the JDK supports them. In async mode, records written through
+     * {@link HttpResponse#write} are sent without blocking as the client is 
+     * ready to receive them.<br>
+     * <br>
+     * Set <code>compression</code> to <code>true</code> to compress responses
+     * with gzip or deflate for clients that accept it. <code>compressionLevel</code>,
+     * <code>compressionThreshold</code>, and <code>compressionSyncFlush</code>
+     * configure the {@link Compression} settings. Individual services can use
+     * a {@link com.invirgance.convirgance.web.output.CompressedOutput} instead.<br>
+     * <br>
+     * Response bodies are buffered in pooled buffers of <code>bufferSize</code>
+     * bytes (8192 by default). <code>bufferDirect</code> allocates direct 
+     * rather than heap buffers and <code>bufferPoolSize</code> limits the 
+     * number of idle buffers kept. <code>flushThreshold</code> flushes the
+     * container each time that many bytes have been written.
      * 
      * @throws ServletException If the initialization fails.
      */
@@ -108,8 +218,199 @@ public class JavaEEServicesServlet extends HttpServlet
                 case "methods":
                     initMethods(config.getInitParameter(name));
                     break;
+                    
+                case "missingcachesize":
+                    loader.setMissingCacheSize(Integer.parseInt(config.getInitParameter(name)));
+                    break;
+                    
+                case "missingcachetimeout":
+                    loader.setMissingCacheTimeout(Long.parseLong(config.getInitParameter(name)));
+                    break;
+                    
+                case "preload":
+                    preload = Boolean.parseBoolean(config.getInitParameter(name));
+                    break;
+                    
+                case "preloadpath":
+                    preloadPath = config.getInitParameter(name);
+                    break;
+                    
+                case "preloadthreads":
+                    preloadThreads = Integer.parseInt(config.getInitParameter(name));
+                    break;
+                    
+                case "preloadfailfast":
+                    preloadFailFast = Boolean.parseBoolean(config.getInitParameter(name));
+                    break;
+                    
+                case "reload":
+                    reload = ServiceLoader.ReloadMode.valueOf(config.getInitParameter(name).trim().toUpperCase());
+                    break;
+                    
+                case "reloadinterval":
+                    loader.setReloadInterval(Long.parseLong(config.getInitParameter(name)));
+                    break;
+                    
+                case "async":
+                    async = Boolean.parseBoolean(config.getInitParameter(name));
+                    break;
+                    
+                case "asynctimeout":
+                    asyncTimeout = Long.parseLong(config.getInitParameter(name));
+                    break;
+                    
+                case "asyncthreads":
+                    asyncThreads = Integer.parseInt(config.getInitParameter(name));
+                    break;
+                    
+                case "compression":
+                    compress = Boolean.parseBoolean(config.getInitParameter(name));
+                    break;
+                    
+                case "compressionlevel":
+                    compression.setLevel(Integer.parseInt(config.getInitParameter(name)));
+                    break;
+                    
+                case "compressionthreshold":
+                    compression.setThreshold(Integer.parseInt(config.getInitParameter(name)));
+                    break;
+                    
+                case "compressionsyncflush":
+                    compression.setSyncFlush(Boolean.parseBoolean(config.getInitParameter(name)));
+                    break;
+                    
+                case "buffersize":
+                    bufferSize = Integer.parseInt(config.getInitParameter(name));
+                    pool = null;
+                    break;
+                    
+                case "bufferdirect":
+                    bufferDirect = Boolean.parseBoolean(config.getInitParameter(name));
+                    pool = null;
+                    break;
+                    
+                case "bufferpoolsize":
+                    bufferPoolSize = Integer.parseInt(config.getInitParameter(name));
+                    pool = null;
+                    break;
+                    
+                case "flushthreshold":
+                    flushThreshold = Integer.parseInt(config.getInitParameter(name));
+                    break;
             }
         }
+        
+        if(pool == null) pool = new BufferPool(bufferSize, bufferDirect, bufferPoolSize);
+        if(preload) preload();
+        if(reload != null) loader.setReloadMode(reload);
+    }
+    
+    /**
+     * Stops any background thread watching for changes to wiring files and 
+     * the async executor.
+     */
+    @Override
+    public synchronized void destroy()
+    {
+        if(reload != null) loader.shutdown();
+        if(executor != null) executor.shutdown();
+        
+        executor = null;
+    }
+    
+    private synchronized ExecutorService getExecutor()
+    {
+        if(executor == null) executor = AsyncExecutor.create(asyncThreads);
+        
+        return executor;
+    }
+    
+    private void executeAsync(HttpServletRequest servletRequest, HttpServletResponse servletResponse, RequestContext requestContext, Service service, long timeout)
+    {
+        HttpRequest request = requestContext.getRequest();
+        HttpResponse response = requestContext.getResponse();
+        AsyncContext context = servletRequest.startAsync(servletRequest, servletResponse);
+        AtomicBoolean completed = new AtomicBoolean();
+        AtomicReference<Future<?>> task = new AtomicReference<>();
+        
+        if(timeout >= 0) context.setTimeout(timeout);
+        
+        context.addListener(new AsyncListener() {
+            
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException
+            {
+                if(!completed.compareAndSet(false, true)) return;
+                
+                System.err.println("Service timed out after " + context.getTimeout() + "ms: " + servletRequest.getRequestURI());
+                
+                // Stop the worker from writing into a response the container may recycle
+                response.complete();
+                
+                if(task.get() != null) task.get().cancel(true);
+                if(!servletResponse.isCommitted()) servletResponse.sendError(503, "Service timed out");
+                
+                context.complete();
+            }
+
+            @Override
+            public void onError(AsyncEvent event)
+            {
+                completed.set(true);
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event)
+            {
+                completed.set(true);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event)
+            {
+            }
+        });
+        
+        // A non-blocking write completes the request once the client has all of the data
+        response.setAsyncCompletion(() -> {
+            if(completed.compareAndSet(false, true)) context.complete();
+        });
+        
+        try
+        {
+            // The request context moves with the service to the worker thread
+            task.set(getExecutor().submit(requestContext.wrap(() -> {
+                try
+                {
+                    service.execute(request, response);
+                    response.finish();
+                }
+                catch(Throwable t)
+                {
+                    // Failures after a timeout are expected from cancellation
+                    if(response.isCompleted()) return;
+                    
+                    t.printStackTrace();
+
+                    if(!completed.get() && !servletResponse.isCommitted()) 
+                    {
+                        servletResponse.reset();
+                        response.sendError(500, "Internal Server Error");
+                    }
+                }
+                finally
+                {
+                    if(!response.isCompletionDeferred() && completed.compareAndSet(false, true)) context.complete();
+                }
+            })));
+        }
+        catch(RejectedExecutionException e)
+        {
+            if(!completed.compareAndSet(false, true)) return;
+            
+            response.sendError(503, "Service unavailable");
+            context.complete();
+        }
     }
     
     /**
@@ -124,23 +425,40 @@ public class JavaEEServicesServlet extends HttpServlet
     {
         HttpRequest request = new HttpRequest(servletRequest);
         HttpResponse response = new HttpResponse(servletResponse);
+        AsyncService asyncService;
+        long timeout;
+        
+        RequestContext context = RequestContext.open(request, response);
+        
+        if(compress) response.setCompression(compression, request);
         
-        ServiceState.set("request", request);
-        ServiceState.set("response", response);
+        response.setBufferPool(pool);
+        response.setFlushThreshold(flushThreshold);
         
         Service service = loader.get(servletRequest);
         
         if(service == null)
         {
-            System.err.println("Unable to find service XML file at " + servletRequest.getPathInfo() + ".xml");
+            loader.logMissing(servletRequest.getPathInfo() + ".xml");
             servletResponse.sendError(404, "Service not found");
-            ServiceState.release();
+            RequestContext.release();
+            return;
+        }
+        
+        asyncService = AsyncService.find(service, request);
+        timeout = (asyncService != null && asyncService.getTimeout() >= 0) ? asyncService.getTimeout() : asyncTimeout;
+        
+        if((async || asyncService != null) && servletRequest.isAsyncSupported())
+        {
+            RequestContext.release();
+            executeAsync(servletRequest, servletResponse, context, service, timeout);
             return;
         }
         
         try
-        {   
+        {
             service.execute(request, response);
+            response.finish();
         }
         catch(Throwable t)
         {
@@ -148,7 +466,7 @@ public class JavaEEServicesServlet extends HttpServlet
 
             if(!servletResponse.isCommitted()) 
             {
-                servletResponse.resetBuffer();
+                response.resetBuffer();
                 servletResponse.reset();
             }
             
@@ -156,7 +474,7 @@ public class JavaEEServicesServlet extends HttpServlet
         }
         finally
         {
-            ServiceState.release();
+            RequestContext.release();
         }
     }
 
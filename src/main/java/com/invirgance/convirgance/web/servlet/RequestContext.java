@@ -0,0 +1,259 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.servlet;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * The state of the request currently being serviced. The request, response 
+ * and parameters are held as fields so pipeline components can reach them 
+ * without a map lookup. The context is bound to the thread servicing the 
+ * request and can be handed off to other threads with {@link #wrap(Runnable)},
+ * {@link #wrap(Callable)} or {@link #propagate(Executor)}.<br>
+ * <br>
+ * {@link ServiceState} remains available as a key based view of the same 
+ * state for existing components.
+ * 
+ * @author jbanes
+ */
+public class RequestContext
+{
+    private static final ThreadLocal<RequestContext> local = new ThreadLocal<>();
+    
+    private HttpRequest request;
+    private HttpResponse response;
+    private JSONObject parameters;
+    private Map<String,Object> attributes;
+
+    public RequestContext()
+    {
+    }
+
+    public RequestContext(HttpRequest request, HttpResponse response)
+    {
+        this.request = request;
+        this.response = response;
+    }
+    
+    /**
+     * The context bound to the current thread
+     * 
+     * @return the current context or null if no request is being serviced
+     */
+    public static RequestContext current()
+    {
+        return local.get();
+    }
+    
+    /**
+     * Creates a context for the request and binds it to the current thread
+     * 
+     * @param request the request being serviced
+     * @param response the response for the request
+     * @return the new context
+     */
+    public static RequestContext open(HttpRequest request, HttpResponse response)
+    {
+        RequestContext context = new RequestContext(request, response);
+        
+        local.set(context);
+        
+        return context;
+    }
+    
+    /**
+     * Removes the context from the current thread to prepare the thread for 
+     * reuse, prevent leaking of information, and avoid memory leaks
+     */
+    public static void release()
+    {
+        local.remove();
+    }
+    
+    static RequestContext bind(RequestContext context)
+    {
+        RequestContext previous = local.get();
+        
+        if(context == null) local.remove();
+        else local.set(context);
+        
+        return previous;
+    }
+
+    /**
+     * The request being serviced
+     * 
+     * @return the request
+     */
+    public HttpRequest getRequest()
+    {
+        return request;
+    }
+
+    /**
+     * Set the request being serviced
+     * 
+     * @param request the request
+     */
+    public void setRequest(HttpRequest request)
+    {
+        this.request = request;
+    }
+
+    /**
+     * The response for the request
+     * 
+     * @return the response
+     */
+    public HttpResponse getResponse()
+    {
+        return response;
+    }
+
+    /**
+     * Set the response for the request
+     * 
+     * @param response the response
+     */
+    public void setResponse(HttpResponse response)
+    {
+        this.response = response;
+    }
+
+    /**
+     * The parameters collected for the service from the request, session, 
+     * and other locations
+     * 
+     * @return the parameters or null if they have not been collected yet
+     */
+    public JSONObject getParameters()
+    {
+        return parameters;
+    }
+
+    /**
+     * Set the parameters collected for the service
+     * 
+     * @param parameters the parameters
+     */
+    public void setParameters(JSONObject parameters)
+    {
+        this.parameters = parameters;
+    }
+    
+    /**
+     * Get any other value stored in the context
+     * 
+     * @param key the key to look up
+     * @return the value if found, null otherwise
+     */
+    public Object getAttribute(String key)
+    {
+        if(attributes == null) return null;
+        
+        return attributes.get(key);
+    }
+    
+    /**
+     * Store any other value in the context
+     * 
+     * @param key the key to set
+     * @param value the value to set for the key
+     */
+    public void setAttribute(String key, Object value)
+    {
+        if(attributes == null) attributes = new HashMap<>();
+        
+        attributes.put(key, value);
+    }
+    
+    /**
+     * Returns a task that runs with this context bound to whichever thread 
+     * executes it. The thread's previous context is restored afterward.
+     * 
+     * @param task the task to run
+     * @return a task carrying this context
+     */
+    public Runnable wrap(Runnable task)
+    {
+        return () -> {
+            RequestContext previous = bind(this);
+            
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                bind(previous);
+            }
+        };
+    }
+    
+    /**
+     * Returns a task that runs with this context bound to whichever thread 
+     * executes it. The thread's previous context is restored afterward.
+     * 
+     * @param <T> the type returned by the task
+     * @param task the task to run
+     * @return a task carrying this context
+     */
+    public <T> Callable<T> wrap(Callable<T> task)
+    {
+        return () -> {
+            RequestContext previous = bind(this);
+            
+            try
+            {
+                return task.call();
+            }
+            finally
+            {
+                bind(previous);
+            }
+        };
+    }
+    
+    /**
+     * Returns an executor that hands the context of the submitting thread to
+     * each task it runs. Useful for pipeline stages that run in parallel.
+     * 
+     * @param executor the executor to run tasks on
+     * @return an executor that propagates the request context
+     */
+    public static Executor propagate(Executor executor)
+    {
+        return task -> {
+            RequestContext context = current();
+            
+            executor.execute(context == null ? task : context.wrap(task));
+        };
+    }
+}
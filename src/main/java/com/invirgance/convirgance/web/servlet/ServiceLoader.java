@@ -23,22 +23,83 @@
  */
 package com.invirgance.convirgance.web.servlet;
 
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONArray;
+import com.invirgance.convirgance.json.JSONObject;
 import com.invirgance.convirgance.source.FileSource;
 import com.invirgance.convirgance.web.service.Service;
 import com.invirgance.convirgance.wiring.XMLWiringParser;
 import java.io.File;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
+ * Locates and caches the services defined by wiring files. Services are 
+ * registered by the path of their wiring file relative to the web application
+ * (e.g. <code>/services/customers.xml</code> or 
+ * <code>/services/customers/wiring.xml</code>) so that each request can find 
+ * its service with a single hash lookup. The registry is safe for concurrent
+ * use by request threads and each wiring file is only registered once.<br>
+ * <br>
+ * Paths that do not resolve to a wiring file are remembered for a short time
+ * so that repeated requests for unknown paths cost a map lookup rather than 
+ * a walk of the file system. The cache of missing paths is bounded and can be
+ * cleared with {@link #invalidate()} when the services change.<br>
+ * <br>
+ * By default the modification time of a wiring file is checked on every 
+ * request so that changes are picked up immediately. The {@link ReloadMode}
+ * can be changed to watch for changes in the background, or to never check for
+ * changes in production.
  *
  * @author jbanes
  */
 public class ServiceLoader
 {
-    private static ServiceLoader instance;
+    /**
+     * Determines how changes to wiring files are detected.
+     */
+    public enum ReloadMode
+    {
+        /** Check the modification time of the wiring file on every request */
+        MODIFIED,
+        /** Watch the file system for changes using a background thread */
+        WATCH,
+        /** Poll the modification time of loaded wiring files from a background thread */
+        POLL,
+        /** Never check for changes once a wiring file is loaded */
+        FROZEN
+    }
+    
+    private static final ServiceLoader instance = new ServiceLoader();
+    
+    private final ConcurrentHashMap<String,ServiceDescriptor> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String,Long> missing = new ConcurrentHashMap<>();
+    
+    private int missingCacheSize = 10000;
+    private long missingCacheTimeout = 10000;
+    
+    private long logInterval = 60000;
+    private final AtomicLong lastLogged = new AtomicLong();
+    private final AtomicInteger suppressed = new AtomicInteger();
+    
+    private long preloadTime;
+    
+    private volatile ReloadMode reloadMode = ReloadMode.MODIFIED;
+    private long reloadInterval = 2000;
+    private ServiceWatcher watcher;
     
-    private List<ServiceDescriptor> cache = new ArrayList<>();
+    private final AtomicLong reloadCount = new AtomicLong();
+    private volatile long lastReloadTime;
     
     /**
      * Returns the current service loader or new instance.
@@ -47,80 +108,354 @@ public class ServiceLoader
      */
     public static ServiceLoader getInstance()
     {
-        if(instance == null) instance = new ServiceLoader();
-        
         return instance;
     }
     
     /**
-     * Returns a {@link ServiceDescriptor} for the request and path.
+     * Returns the number of wiring files currently registered.
      * 
-     * @param request The jakarta {@link jakarta.servlet.http.HttpServletRequest}.
-     * @param path The path.
-     * @return A ServiceDescriptor.
+     * @return the number of registered services
      */
-    public ServiceDescriptor load(jakarta.servlet.http.HttpServletRequest request, String path)
+    public int size()
+    {
+        return cache.size();
+    }
+    
+    /**
+     * The maximum number of unknown paths remembered. When the limit is 
+     * reached the cache of unknown paths is cleared and starts over.
+     * 
+     * @return the maximum number of unknown paths to remember
+     */
+    public int getMissingCacheSize()
+    {
+        return missingCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of unknown paths remembered. Set to zero to
+     * disable caching of unknown paths. Defaults to 10,000.
+     * 
+     * @param missingCacheSize the maximum number of unknown paths to remember
+     */
+    public void setMissingCacheSize(int missingCacheSize)
+    {
+        this.missingCacheSize = missingCacheSize;
+        
+        missing.clear();
+    }
+
+    /**
+     * The number of milliseconds an unknown path is remembered before the 
+     * file system is checked again.
+     * 
+     * @return the time in milliseconds
+     */
+    public long getMissingCacheTimeout()
+    {
+        return missingCacheTimeout;
+    }
+
+    /**
+     * Sets the number of milliseconds an unknown path is remembered before the 
+     * file system is checked again. Defaults to 10 seconds.
+     * 
+     * @param missingCacheTimeout the time in milliseconds
+     */
+    public void setMissingCacheTimeout(long missingCacheTimeout)
+    {
+        this.missingCacheTimeout = missingCacheTimeout;
+        
+        missing.clear();
+    }
+    
+    /**
+     * The method used to detect changes to wiring files.
+     * 
+     * @return the current reload mode
+     */
+    public ReloadMode getReloadMode()
+    {
+        return reloadMode;
+    }
+
+    /**
+     * Sets the method used to detect changes to wiring files. 
+     * {@link ReloadMode#WATCH} and {@link ReloadMode#POLL} start a background
+     * thread that can be stopped with {@link #shutdown()}. If watching the 
+     * file system is not supported, polling will be used instead.
+     * 
+     * @param reloadMode the new reload mode
+     */
+    public synchronized void setReloadMode(ReloadMode reloadMode)
     {
-        ServiceDescriptor descriptor;
-        String context = request.getContextPath();
-        String filePath;
+        shutdown();
+        
+        this.reloadMode = reloadMode;
         
-        if(path.startsWith(context)) path = path.substring(context.length());
+        if(reloadMode != ReloadMode.WATCH && reloadMode != ReloadMode.POLL) return;
         
-        if(path.endsWith("/")) filePath = path + "wiring.xml";
-        else if(!path.endsWith(".xml")) filePath = path + ".xml";
-        else filePath = path;
+        this.watcher = new ServiceWatcher(this, reloadMode == ReloadMode.POLL, reloadInterval);
+        
+        for(ServiceDescriptor descriptor : cache.values()) watcher.watch(descriptor.file);
+        
+        watcher.start();
+    }
 
-        // Transform URI path to file path
-        filePath = request.getServletContext().getRealPath(filePath);
+    /**
+     * The time in milliseconds between checks for changes when polling.
+     * 
+     * @return the interval in milliseconds
+     */
+    public long getReloadInterval()
+    {
+        return reloadInterval;
+    }
 
-        if(filePath == null || !new File(filePath).exists()) return null;
-        if(path.endsWith("/wiring.xml")) path = path.substring(0, path.length() - "/wiring.xml".length());
-        if(path.endsWith(".xml"))  path = path.substring(0, path.length() - ".xml".length());
+    /**
+     * Sets the time in milliseconds between checks for changes when polling.
+     * Takes effect the next time the reload mode is set. Defaults to 2 seconds.
+     * 
+     * @param reloadInterval the interval in milliseconds
+     */
+    public void setReloadInterval(long reloadInterval)
+    {
+        this.reloadInterval = reloadInterval;
+    }
+    
+    /**
+     * The number of times a changed wiring file has been reloaded.
+     * 
+     * @return the number of reloads
+     */
+    public long getReloadCount()
+    {
+        return reloadCount.get();
+    }
 
-        descriptor = new ServiceDescriptor(new File(filePath), path);
+    /**
+     * The time in milliseconds the most recent reload of a changed wiring
+     * file took.
+     * 
+     * @return the time in milliseconds or zero if nothing has been reloaded
+     */
+    public long getLastReloadTime()
+    {
+        return lastReloadTime;
+    }
+    
+    /**
+     * Returns a record for each registered wiring file with the service
+     * <code>path</code>, the number of <code>reloads</code>, and the
+     * <code>lastReloadTime</code> in milliseconds. Intended for monitoring.
+     * 
+     * @return a record for each registered wiring file
+     */
+    public JSONArray<JSONObject> getStatistics()
+    {
+        JSONArray<JSONObject> statistics = new JSONArray<>();
+        JSONObject record;
         
-        this.cache.add(descriptor);
+        for(ServiceDescriptor descriptor : cache.values())
+        {
+            record = new JSONObject();
+            
+            record.put("path", descriptor.path);
+            record.put("reloads", descriptor.reloads);
+            record.put("lastReloadTime", descriptor.lastReloadTime);
+            
+            statistics.add(record);
+        }
         
-        return descriptor;
+        return statistics;
     }
     
+    /**
+     * Stops any background thread watching for changes. Services will no
+     * longer be reloaded unless the reload mode is {@link ReloadMode#MODIFIED}.
+     */
+    public synchronized void shutdown()
+    {
+        if(watcher != null) watcher.stop();
+        
+        watcher = null;
+    }
     
     /**
-     * Returns a {@link ServiceDescriptor} for the request and path.
+     * Called by the watcher when a file in a watched directory changes.
      * 
-     * @param request The jakarta {@link jakarta.servlet.http.HttpServletRequest}.
-     * @return A ServiceDescriptor.
+     * @param file the file that changed
+     * @param deleted true if the file was deleted
      */
-    public ServiceDescriptor load(jakarta.servlet.http.HttpServletRequest request)
+    void changed(File file, boolean deleted)
     {
-        return load(request, request.getRequestURI());
+        // New wiring files may answer paths previously found to be missing
+        invalidate();
+        
+        for(ServiceDescriptor descriptor : cache.values())
+        {
+            if(!descriptor.file.getAbsoluteFile().equals(file)) continue;
+            
+            if(deleted) cache.remove(descriptor.wiringPath, descriptor);
+            else descriptor.stale = true;
+        }
     }
-
+    
     /**
-     * Returns a {@link Service} for the request and path.
+     * Called by the watcher to check the modification time of every loaded 
+     * wiring file.
+     */
+    void checkModified()
+    {
+        for(ServiceDescriptor descriptor : cache.values())
+        {
+            if(!descriptor.file.exists()) cache.remove(descriptor.wiringPath, descriptor);
+            else if(descriptor.timestamp < descriptor.file.lastModified()) descriptor.stale = true;
+        }
+    }
+    
+    /**
+     * Parses the wiring file of a service.
      * 
-     * @param request The jakarta {@link jakarta.servlet.http.HttpServletRequest}.
-     * @param path The path.
-     * @return A Service.
-     */    
-    public Service get(jakarta.servlet.http.HttpServletRequest request, String path)
+     * @param file the wiring file
+     * @return the service the file describes
+     */
+    Service parseWiring(File file)
+    {
+        return (Service)new XMLWiringParser(new FileSource(file)).getRoot();
+    }
+    
+    /**
+     * Forgets all paths previously found to be missing. Should be called 
+     * whenever wiring files are added to the application.
+     */
+    public void invalidate()
+    {
+        missing.clear();
+    }
+    
+    /**
+     * Reports that a service could not be found for the given path. Messages
+     * are limited to one per minute with a count of the messages suppressed
+     * in between, preventing scanners requesting random URLs from flooding 
+     * the logs.
+     * 
+     * @param path the path that could not be found
+     */
+    public void logMissing(String path)
+    {
+        long now = System.currentTimeMillis();
+        long last = lastLogged.get();
+        int count;
+        
+        if(now - last < logInterval || !lastLogged.compareAndSet(last, now))
+        {
+            suppressed.incrementAndGet();
+            return;
+        }
+        
+        count = suppressed.getAndSet(0);
+        
+        if(count > 0) System.err.println("Unable to find service XML file at " + path + " (" + count + " similar messages suppressed)");
+        else System.err.println("Unable to find service XML file at " + path);
+    }
+    
+    private boolean isMissing(String path)
+    {
+        Long expires = missing.get(path);
+        
+        if(expires == null) return false;
+        if(expires > System.currentTimeMillis()) return true;
+        
+        missing.remove(path, expires);
+        
+        return false;
+    }
+    
+    private void addMissing(String path)
+    {
+        if(missingCacheSize <= 0) return;
+        if(missing.size() >= missingCacheSize) missing.clear();
+        
+        missing.put(path, System.currentTimeMillis() + missingCacheTimeout);
+    }
+    
+    private String trimContext(String path, String context)
+    {
+        if(context == null) return path;
+        
+        if(path.startsWith(context)) return path.substring(context.length());
+        
+        return path;
+    }
+    
+    /**
+     * Converts a request path into the path of the wiring file that would
+     * define it. Paths ending in <code>/</code> map to <code>wiring.xml</code>
+     * in that directory. All other paths map to a file with an <code>.xml</code>
+     * extension.
+     * 
+     * @param path the request path with the context removed
+     * @return the path to the wiring file relative to the web application
+     */
+    static String getWiringPath(String path)
+    {
+        if(path.endsWith("/")) return path + "wiring.xml";
+        if(!path.endsWith(".xml")) return path + ".xml";
+        
+        return path;
+    }
+    
+    /**
+     * Converts the path of a wiring file back into the path of the service
+     * it defines.
+     * 
+     * @param wiringPath path to the wiring file
+     * @return the service path
+     */
+    static String getServicePath(String wiringPath)
+    {
+        if(wiringPath.endsWith("/wiring.xml")) return wiringPath.substring(0, wiringPath.length() - "/wiring.xml".length());
+        if(wiringPath.endsWith(".xml")) return wiringPath.substring(0, wiringPath.length() - ".xml".length());
+        
+        return wiringPath;
+    }
+    
+    private ServiceDescriptor register(String path, Function<String,String> resolver)
+    {
+        String wiringPath = getWiringPath(path);
+        ServiceDescriptor descriptor = cache.get(wiringPath);
+        
+        if(descriptor != null) return descriptor;
+        
+        return cache.computeIfAbsent(wiringPath, key -> {
+            
+            // Transform URI path to file path
+            String filePath = resolver.apply(key);
+            
+            if(filePath == null || !new File(filePath).exists()) return null;
+            
+            return new ServiceDescriptor(new File(filePath), key);
+        });
+    }
+    
+    private ServiceDescriptor find(String path, Function<String,String> resolver)
     {
         ServiceDescriptor loaded;
-        String context = request.getContextPath();
-
-        if(path.startsWith(context)) path = path.substring(context.length());
-
+        
         do
         {
-            for(ServiceDescriptor descriptor : this.cache)
+            // Skip the file system for paths recently found to be missing
+            if(isMissing(path))
             {
-                if(descriptor.path.equals(path)) return descriptor.getService();
-                if(descriptor.path.equals(path + ".xml")) return descriptor.getService();
-                if(path.endsWith("/") && descriptor.path.equals(path + "wiring.xml")) return descriptor.getService();
+                loaded = null;
+            }
+            else
+            {
+                loaded = register(path, resolver);
+                
+                if(loaded == null) addMissing(path);
             }
-
-            loaded = load(request, path);
 
             if(loaded == null && path.contains("/")) 
             {
@@ -130,6 +465,174 @@ public class ServiceLoader
         }
         while(loaded == null && path.length() > 0 && path.contains("/"));
 
+        return loaded;
+    }
+    
+    /**
+     * The time in milliseconds the last call to <code>preload</code> took to
+     * parse all wiring files.
+     * 
+     * @return the time in milliseconds or zero if services were not preloaded
+     */
+    public long getPreloadTime()
+    {
+        return preloadTime;
+    }
+    
+    private JSONObject preload(String wiringPath, File file, boolean failFast)
+    {
+        JSONObject result = new JSONObject();
+        long start = System.currentTimeMillis();
+        
+        result.put("path", wiringPath);
+        
+        try
+        {
+            cache.computeIfAbsent(wiringPath, key -> new ServiceDescriptor(file, key)).getService();
+        }
+        catch(RuntimeException e)
+        {
+            if(failFast) throw new ConvirganceException("Unable to load service " + wiringPath, e);
+            
+            result.put("error", String.valueOf(e.getMessage()));
+        }
+        
+        result.put("time", System.currentTimeMillis() - start);
+        
+        return result;
+    }
+    
+    private boolean isWiringFile(Path root, Path file)
+    {
+        String first = root.relativize(file).getName(0).toString();
+        
+        if(first.equals("WEB-INF") || first.equals("META-INF")) return false;
+        
+        return Files.isRegularFile(file) && file.getFileName().toString().endsWith(".xml");
+    }
+    
+    private JSONArray<JSONObject> preload(String path, Function<String,String> resolver, int threads, boolean failFast)
+    {
+        String directory = resolver.apply(path.length() > 0 ? path : "/");
+        ForkJoinPool pool = new ForkJoinPool(Math.max(threads, 1));
+        JSONArray<JSONObject> results = new JSONArray<>();
+        long start = System.currentTimeMillis();
+        
+        Path root;
+        List<Path> files;
+        
+        if(directory == null) throw new ConvirganceException("Unable to locate services directory " + path);
+        
+        root = Path.of(directory);
+        
+        if(path.endsWith("/")) path = path.substring(0, path.length()-1);
+        
+        try(var stream = Files.walk(root))
+        {
+            files = stream.filter(file -> !file.equals(root) && isWiringFile(root, file)).collect(Collectors.toList());
+        }
+        catch(IOException e) { throw new ConvirganceException(e); }
+        
+        try
+        {
+            final String prefix = path;
+            
+            results.addAll(pool.submit(() -> files.parallelStream()
+                    .map(file -> preload(prefix + "/" + root.relativize(file).toString().replace(File.separatorChar, '/'), file.toFile(), failFast))
+                    .collect(Collectors.toList())
+            ).get());
+        }
+        catch(InterruptedException e) { throw new ConvirganceException(e); }
+        catch(ExecutionException e)
+        {
+            if(e.getCause() instanceof ConvirganceException) throw (ConvirganceException)e.getCause();
+            
+            throw new ConvirganceException(e.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        
+        this.preloadTime = System.currentTimeMillis() - start;
+        
+        invalidate();
+        
+        return results;
+    }
+    
+    /**
+     * Parses and registers every wiring file found under the given path in
+     * parallel so that the first request to each service does not pay the
+     * cost of parsing. <code>WEB-INF</code> and <code>META-INF</code> are 
+     * skipped.
+     * 
+     * @param context the jakarta {@link jakarta.servlet.ServletContext} used to locate the files
+     * @param path the web path of the directory containing the wiring files
+     * @param threads the number of threads to parse with
+     * @param failFast if true, the first file that fails to parse stops the preload with an exception
+     * @return a record for each file with the <code>path</code>, parse <code>time</code> in milliseconds, and any <code>error</code>
+     */
+    public JSONArray<JSONObject> preload(jakarta.servlet.ServletContext context, String path, int threads, boolean failFast)
+    {
+        return preload(path, context::getRealPath, threads, failFast);
+    }
+    
+    /**
+     * Parses and registers every wiring file found under the given path in
+     * parallel so that the first request to each service does not pay the
+     * cost of parsing. <code>WEB-INF</code> and <code>META-INF</code> are 
+     * skipped.
+     * 
+     * @param context the {@link javax.servlet.ServletContext} used to locate the files
+     * @param path the web path of the directory containing the wiring files
+     * @param threads the number of threads to parse with
+     * @param failFast if true, the first file that fails to parse stops the preload with an exception
+     * @return a record for each file with the <code>path</code>, parse <code>time</code> in milliseconds, and any <code>error</code>
+     */
+    public JSONArray<JSONObject> preload(javax.servlet.ServletContext context, String path, int threads, boolean failFast)
+    {
+        return preload(path, context::getRealPath, threads, failFast);
+    }
+    
+    /**
+     * Returns a {@link ServiceDescriptor} for the request and path.
+     * 
+     * @param request The jakarta {@link jakarta.servlet.http.HttpServletRequest}.
+     * @param path The path.
+     * @return A ServiceDescriptor.
+     */
+    public ServiceDescriptor load(jakarta.servlet.http.HttpServletRequest request, String path)
+    {
+        var context = request.getServletContext();
+        
+        return register(trimContext(path, request.getContextPath()), context::getRealPath);
+    }
+    
+    
+    /**
+     * Returns a {@link ServiceDescriptor} for the request and path.
+     * 
+     * @param request The jakarta {@link jakarta.servlet.http.HttpServletRequest}.
+     * @return A ServiceDescriptor.
+     */
+    public ServiceDescriptor load(jakarta.servlet.http.HttpServletRequest request)
+    {
+        return load(request, request.getRequestURI());
+    }
+
+    /**
+     * Returns a {@link Service} for the request and path.
+     * 
+     * @param request The jakarta {@link jakarta.servlet.http.HttpServletRequest}.
+     * @param path The path.
+     * @return A Service.
+     */    
+    public Service get(jakarta.servlet.http.HttpServletRequest request, String path)
+    {
+        var context = request.getServletContext();
+        var loaded = find(trimContext(path, request.getContextPath()), context::getRealPath);
+
         if(loaded == null) return null;
 
         return loaded.getService();
@@ -155,25 +658,9 @@ public class ServiceLoader
      */
     public ServiceDescriptor load(javax.servlet.http.HttpServletRequest request, String path)
     {
-        ServiceDescriptor descriptor;
-        String context = request.getContextPath();
-        String filePath;
-        
-        if(path.startsWith(context)) path = path.substring(context.length());
-        
-        if(path.endsWith("/")) path += "wiring.xml";
-        else if(!path.endsWith(".xml")) path += ".xml";
-
-        // Transform URI path to file path
-        filePath = request.getServletContext().getRealPath(path);
-
-        if(filePath == null || !new File(filePath).exists()) return null;
-        
-        descriptor = new ServiceDescriptor(new File(filePath), path);
+        var context = request.getServletContext();
         
-        this.cache.add(descriptor);
-        
-        return descriptor;
+        return register(trimContext(path, request.getContextPath()), context::getRealPath);
     }
     
     
@@ -197,27 +684,8 @@ public class ServiceLoader
      */    
     public Service get(javax.servlet.http.HttpServletRequest request, String path)
     {
-        ServiceDescriptor loaded;
-        String context = request.getContextPath();
-
-        if(path.startsWith(context)) path = path.substring(context.length());
-
-        do
-        {
-            for(ServiceDescriptor descriptor : this.cache)
-            {
-                if(descriptor.path.equals(path)) return descriptor.getService();
-            }
-
-            loaded = load(request, path);
-
-            if(loaded == null && path.contains("/")) 
-            {
-                if(path.endsWith("/")) path = path.substring(0, path.lastIndexOf('/'));
-                else path = path.substring(0, path.lastIndexOf('/')+1);
-            }
-        }
-        while(loaded == null && path.length() > 0 && path.contains("/"));
+        var context = request.getServletContext();
+        var loaded = find(trimContext(path, request.getContextPath()), context::getRealPath);
 
         if(loaded == null) return null;
 
@@ -237,27 +705,90 @@ public class ServiceLoader
     
     private class ServiceDescriptor
     {
-        long timestamp;
+        volatile long timestamp;
         File file;
         String path;
+        String wiringPath;
+        
+        volatile boolean stale;
+        volatile long reloads;
+        volatile long lastReloadTime;
         
-        private Service service;
+        private volatile Service service;
+        private final AtomicBoolean loading = new AtomicBoolean();
 
-        public ServiceDescriptor(File file, String path)
+        public ServiceDescriptor(File file, String wiringPath)
         {
+            ServiceWatcher watcher = ServiceLoader.this.watcher;
+            
             this.file = file;
-            this.path = path;
+            this.wiringPath = wiringPath;
+            this.path = getServicePath(wiringPath);
+            
+            if(watcher != null) watcher.watch(file);
         }
         
+        private void parse()
+        {
+            // Clear the flags first so that changes made while parsing are not lost
+            this.stale = false;
+            this.timestamp = file.lastModified();
+            this.service = parseWiring(file);
+        }
+        
+        private synchronized Service initialize()
+        {
+            if(this.service == null) parse();
+            
+            return this.service;
+        }
+        
+        private void reload()
+        {
+            long start = System.currentTimeMillis();
+            
+            parse();
+            
+            this.lastReloadTime = System.currentTimeMillis() - start;
+            this.reloads++;
+            
+            reloadCount.incrementAndGet();
+            
+            ServiceLoader.this.lastReloadTime = this.lastReloadTime;
+        }
+        
+        /**
+         * Returns the service, parsing the wiring file if it has not been
+         * loaded or has changed. Only one thread parses a changed file. Other
+         * threads continue to receive the previous service until the new one
+         * is ready.
+         * 
+         * @return the service
+         */
         public Service getService()
         {
-            if(this.service == null || this.timestamp < file.lastModified())
+            Service service = this.service;
+            
+            if(reloadMode == ReloadMode.MODIFIED && this.timestamp < file.lastModified()) this.stale = true;
+            
+            // First load blocks all callers until the service is available
+            if(service == null) return initialize();
+            
+            if(this.stale && loading.compareAndSet(false, true))
             {
-                this.timestamp = file.lastModified();
-                this.service = (Service)new XMLWiringParser(new FileSource(file)).getRoot();
+                try
+                {
+                    reload();
+                }
+                finally
+                {
+                    loading.set(false);
+                }
+                
+                return this.service;
             }
             
-            return this.service;
+            return service;
         }
     }
 }
@@ -24,17 +24,20 @@
 package com.invirgance.convirgance.web.servlet;
 
 import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
 
 /**
- * Records the current state of the Service using a ThreadLocal so that pluggable
- * objects can access the state during execution.
+ * Records the current state of the Service so that pluggable objects can 
+ * access the state during execution. This is a key based view of the 
+ * {@link RequestContext} bound to the current thread. The keys 
+ * <code>request</code>, <code>response</code> and <code>parameters</code> 
+ * map to the fields of the context. Other keys are stored as attributes.
  * 
  * @author jbanes
  */
 public class ServiceState
 {
-    private static final ThreadLocal<JSONObject> local = new ThreadLocal<>();
-    
     /**
      * Get the key configured by the current Service. e.g. "parameters" is often
      * a JSONObject containing parameters collected from the request, session, and
@@ -45,32 +48,56 @@ public class ServiceState
      */
     public static Object get(String key)
     {
-        JSONObject state = local.get();
+        RequestContext context = RequestContext.current();
         
-        if(state == null) return null;
+        if(context == null) return null;
         
-        return state.get(key);
+        switch(key)
+        {
+            case "request":
+                return context.getRequest();
+                
+            case "response":
+                return context.getResponse();
+                
+            case "parameters":
+                return context.getParameters();
+                
+            default:
+                return context.getAttribute(key);
+        }
     }
     
     /**
-     * Sets the key/value pair on the thread local
+     * Sets the key/value pair on the current request context, creating the 
+     * context if needed
      * 
      * @param key the key to set
      * @param value the value to set for the key
      */
     public static void set(String key, Object value)
     {
-        JSONObject state = local.get();
+        RequestContext context = RequestContext.current();
         
+        if(context == null) context = RequestContext.open(null, null);
         
-        if(state == null)
+        switch(key)
         {
-            state = new JSONObject();
-            
-            local.set(state);
+            case "request":
+                context.setRequest((HttpRequest)value);
+                break;
+                
+            case "response":
+                context.setResponse((HttpResponse)value);
+                break;
+                
+            case "parameters":
+                context.setParameters((JSONObject)value);
+                break;
+                
+            default:
+                context.setAttribute(key, value);
         }
-        
-        state.put(key, value);
     }
     
     /**
@@ -79,6 +106,6 @@ public class ServiceState
      */
     public static void release()
     {
-        local.remove();
+        RequestContext.release();
     }
 }
@@ -0,0 +1,209 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.servlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background thread that detects changes to wiring files so that requests do
+ * not need to check the file system. Uses the NIO {@link WatchService} when 
+ * available and falls back to periodically checking the modification time of
+ * each loaded wiring file when it is not.
+ * 
+ * @author jbanes
+ */
+class ServiceWatcher implements Runnable
+{
+    private final ServiceLoader loader;
+    private final long interval;
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    
+    private WatchService service;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Creates a new watcher for the loader.
+     * 
+     * @param loader the loader to notify of changes
+     * @param poll if true, the file system will be polled rather than watched
+     * @param interval the polling interval in milliseconds
+     */
+    public ServiceWatcher(ServiceLoader loader, boolean poll, long interval)
+    {
+        this.loader = loader;
+        this.interval = interval;
+        
+        if(poll) return;
+        
+        try
+        {
+            this.service = FileSystems.getDefault().newWatchService();
+        }
+        catch(IOException | UnsupportedOperationException e)
+        {
+            System.err.println("File watching is not available. Falling back to polling for changes...");
+        }
+    }
+    
+    /**
+     * Returns true if changes are being detected by polling rather than
+     * through the file system's watch service.
+     * 
+     * @return true if polling
+     */
+    public boolean isPolling()
+    {
+        return (service == null);
+    }
+    
+    /**
+     * Watch the directory containing the given wiring file for changes.
+     * 
+     * @param file the wiring file to watch
+     */
+    public void watch(File file)
+    {
+        Path directory = file.getAbsoluteFile().toPath().getParent();
+        
+        if(service == null || directory == null || !directories.add(directory)) return;
+        
+        try
+        {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        catch(IOException e)
+        {
+            System.err.println("Unable to watch " + directory + " for changes. Falling back to polling for changes...");
+            
+            close(service);
+            
+            this.service = null;
+        }
+    }
+    
+    private void close(WatchService service)
+    {
+        try
+        {
+            if(service != null) service.close();
+        }
+        catch(IOException e) { /* Nothing to be done */ }
+    }
+    
+    /**
+     * Starts the background thread.
+     */
+    public synchronized void start()
+    {
+        if(running) return;
+        
+        running = true;
+        thread = new Thread(this, "Convirgance Service Watcher");
+        
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Stops the background thread and releases the watch service.
+     */
+    public synchronized void stop()
+    {
+        running = false;
+        
+        if(thread != null) thread.interrupt();
+        
+        close(service);
+        
+        thread = null;
+    }
+    
+    private void process(WatchKey key)
+    {
+        Path directory = (Path)key.watchable();
+        
+        for(WatchEvent<?> event : key.pollEvents())
+        {
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW)
+            {
+                loader.checkModified();
+                continue;
+            }
+            
+            loader.changed(directory.resolve((Path)event.context()).toFile(), event.kind() == StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        
+        if(!key.reset()) directories.remove(directory);
+    }
+
+    @Override
+    public void run()
+    {
+        WatchService service;
+        WatchKey key;
+        
+        while(running)
+        {
+            service = this.service;
+            
+            try
+            {
+                if(service == null)
+                {
+                    Thread.sleep(interval);
+                    loader.checkModified();
+                    
+                    continue;
+                }
+                
+                key = service.poll(interval, TimeUnit.MILLISECONDS);
+                
+                if(key != null) process(key);
+            }
+            catch(InterruptedException e)
+            {
+                return;
+            }
+            catch(Exception e)
+            {
+                // Watch service was closed or failed. Stop if we're shutting
+                // down, otherwise continue by polling.
+                if(!running) return;
+                
+                this.service = null;
+            }
+        }
+    }
+}
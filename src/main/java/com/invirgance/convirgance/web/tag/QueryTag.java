@@ -31,7 +31,6 @@ import jakarta.servlet.jsp.JspException;
 import jakarta.servlet.jsp.PageContext;
 import jakarta.servlet.jsp.tagext.BodyTagSupport;
 import static jakarta.servlet.jsp.tagext.Tag.SKIP_BODY;
-import javax.sql.DataSource;
 
 /**
  * A custom JSP tag that executes a database query and stores the result in a variable.
@@ -145,11 +144,7 @@ public class QueryTag extends BodyTagSupport
 
     private DBMS lookup()
     {
-        DataSource source = ApplicationInitializer.lookup(this.jndi);
-        
-        if(source == null) return DBMS.lookup(jndi);
-        
-        return new DBMS(source);
+        return ApplicationInitializer.getReadDBMS(jndi);
     }
     
     /**
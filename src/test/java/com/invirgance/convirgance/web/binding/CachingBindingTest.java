@@ -0,0 +1,363 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.CloseableIterator;
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.web.http.MockJakartaRequest;
+import com.invirgance.convirgance.web.http.MockJakartaResponse;
+import com.invirgance.convirgance.web.servlet.RequestContext;
+import com.invirgance.convirgance.web.servlet.ServiceState;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class CachingBindingTest
+{
+    private static JSONObject parameters(Object... pairs)
+    {
+        var parameters = new JSONObject();
+        
+        for(int i=0; i<pairs.length; i+=2) parameters.put((String)pairs[i], pairs[i+1]);
+        
+        return parameters;
+    }
+    
+    private static List<JSONObject> list(Iterable<JSONObject> records)
+    {
+        var list = new ArrayList<JSONObject>();
+        
+        for(JSONObject record : records) list.add(record);
+        
+        return list;
+    }
+    
+    private static class CountingBinding implements Binding
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch latch;
+
+        @Override
+        public Iterable<JSONObject> getBinding(JSONObject parameters)
+        {
+            var records = new ArrayList<JSONObject>();
+            
+            calls.incrementAndGet();
+            
+            try
+            {
+                if(latch != null) latch.await();
+            }
+            catch(InterruptedException e) { throw new RuntimeException(e); }
+            
+            for(int i=0; i<3; i++)
+            {
+                var record = new JSONObject();
+                
+                record.put("id", i);
+                record.put("name", "Record " + i);
+                record.put("state", parameters.get("state"));
+                
+                records.add(record);
+            }
+            
+            return records;
+        }
+    }
+    
+    private static class StreamingBinding implements Binding
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger read = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+        
+        @Override
+        public Iterable<JSONObject> getBinding(JSONObject parameters)
+        {
+            calls.incrementAndGet();
+            
+            return () -> new CloseableIterator<JSONObject>() {
+                
+                private int index;
+                
+                @Override
+                public boolean hasNext()
+                {
+                    return index < 1000;
+                }
+
+                @Override
+                public JSONObject next()
+                {
+                    var record = new JSONObject(true);
+                    
+                    read.incrementAndGet();
+                    record.put("name", "Record " + index);
+                    record.put("id", index++);
+                    
+                    return record;
+                }
+
+                @Override
+                public void close()
+                {
+                    closed.incrementAndGet();
+                }
+            };
+        }
+    }
+    
+    @Test
+    public void testHitsAndMisses()
+    {
+        var source = new CountingBinding();
+        var binding = new CachingBinding();
+        
+        binding.setBinding(source);
+        
+        var first = list(binding.getBinding(parameters("state", "NY", "limit", 10)));
+        var second = list(binding.getBinding(parameters("limit", 10, "state", "NY")));
+        
+        assertEquals(1, source.calls.get());
+        assertEquals(3, first.size());
+        assertEquals(first, second);
+        assertEquals("NY", second.get(2).get("state"));
+        assertEquals(1, binding.getCache().getHits());
+        assertEquals(1, binding.getCache().getMisses());
+        
+        // Records handed out can be modified without affecting the cache
+        first.get(0).put("name", "Changed");
+        assertEquals("Record 0", list(binding.getBinding(parameters("state", "NY", "limit", 10))).get(0).get("name"));
+        
+        list(binding.getBinding(parameters("state", "CA", "limit", 10)));
+        
+        assertEquals(2, source.calls.get());
+        assertEquals(2, binding.getCache().size());
+        assertTrue(binding.getCache().getBytes() > 0);
+    }
+    
+    @Test
+    public void testEviction()
+    {
+        var source = new CountingBinding();
+        var binding = new CachingBinding();
+        
+        binding.setBinding(source);
+        binding.setMaxEntries(2);
+        
+        binding.getBinding(parameters("state", "NY"));
+        binding.getBinding(parameters("state", "CA"));
+        binding.getBinding(parameters("state", "NY"));
+        binding.getBinding(parameters("state", "TX"));
+        
+        // CA was least recently used
+        assertEquals(1, binding.getCache().getEvictions());
+        assertEquals(3, source.calls.get());
+        
+        binding.getBinding(parameters("state", "NY"));
+        assertEquals(3, source.calls.get());
+        
+        binding.getBinding(parameters("state", "CA"));
+        assertEquals(4, source.calls.get());
+        
+        // Nothing fits
+        binding.setMaxBytes(1);
+        
+        assertEquals(0, binding.getCache().size());
+        
+        binding.getBinding(parameters("state", "CA"));
+        binding.getBinding(parameters("state", "CA"));
+        assertEquals(6, source.calls.get());
+    }
+    
+    @Test
+    public void testTtl() throws Exception
+    {
+        var source = new CountingBinding();
+        var binding = new CachingBinding();
+        
+        binding.setBinding(source);
+        binding.setTtl(50);
+        
+        binding.getBinding(parameters("state", "NY"));
+        binding.getBinding(parameters("state", "NY"));
+        assertEquals(1, source.calls.get());
+        
+        Thread.sleep(100);
+        
+        binding.getBinding(parameters("state", "NY"));
+        assertEquals(2, source.calls.get());
+        assertEquals(1, binding.getCache().getExpirations());
+    }
+    
+    @Test
+    public void testSingleFlight() throws Exception
+    {
+        var source = new CountingBinding();
+        var binding = new CachingBinding();
+        var threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        var futures = new ArrayList<Future<List<JSONObject>>>();
+        
+        binding.setBinding(source);
+        source.latch = new CountDownLatch(1);
+        
+        try
+        {
+            for(int i=0; i<threads; i++)
+            {
+                futures.add(executor.submit(() -> list(binding.getBinding(parameters("state", "NY")))));
+            }
+            
+            // Give every thread a chance to miss before the load completes
+            Thread.sleep(200);
+            source.latch.countDown();
+            
+            for(var future : futures) assertEquals(3, future.get().size());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        
+        assertEquals(1, source.calls.get());
+        assertEquals(1, binding.getCache().getMisses());
+        assertEquals(threads - 1, binding.getCache().getHits());
+    }
+    
+    @Test
+    public void testTooLarge() throws Exception
+    {
+        var source = new StreamingBinding();
+        var binding = new CachingBinding();
+        Iterator<JSONObject> iterator;
+        JSONObject record;
+        int count = 0;
+        
+        binding.setBinding(source);
+        binding.setMaxBytes(2048);
+        
+        // Copying stops at the limit instead of reading the whole result
+        iterator = binding.getBinding(parameters("state", "NY")).iterator();
+        
+        assertTrue(source.read.get() < 100);
+        assertEquals(0, source.closed.get());
+        
+        while(iterator.hasNext())
+        {
+            record = iterator.next();
+            
+            assertEquals(count, record.get("id"));
+            assertEquals("name", record.keySet().iterator().next());
+            count++;
+        }
+        
+        ((AutoCloseable)iterator).close();
+        
+        assertEquals(1000, count);
+        assertEquals(1000, source.read.get());
+        assertEquals(1, source.closed.get());
+        assertEquals(0, binding.getCache().size());
+        
+        // Nothing was cached, so the next call queries again
+        assertEquals(1000, list(binding.getBinding(parameters("state", "NY"))).size());
+        assertEquals(2, source.calls.get());
+    }
+    
+    @Test
+    public void testStreamOwner() throws Exception
+    {
+        var source = new StreamingBinding();
+        var records = new CachedRecords(source.getBinding(null), 2048);
+        var other = new AtomicReference<Iterable<JSONObject>>();
+        var thread = new Thread(() -> other.set(records.stream()));
+        Iterable<JSONObject> stream;
+        
+        assertFalse(records.isComplete());
+        
+        // The source belongs to the thread that made the copy
+        thread.start();
+        thread.join();
+        
+        assertNull(other.get());
+        
+        stream = records.stream();
+        
+        assertNotNull(stream);
+        assertNull(records.stream());
+        assertEquals(1000, list(stream).size());
+        assertThrows(ConvirganceException.class, () -> stream.iterator());
+    }
+    
+    @Test
+    public void testPageLink()
+    {
+        var binding = new CachingBinding();
+        var calls = new AtomicInteger();
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "/services", "/customers").setQueryString("state=NY&page=1"));
+        MockJakartaResponse response;
+        
+        binding.setBinding(parameters -> {
+            calls.incrementAndGet();
+            
+            return new Pagination.Page(list(new CountingBinding().getBinding(parameters)), new Pagination.Next("page", "2"));
+        });
+        
+        for(int i=0; i<2; i++)
+        {
+            response = new MockJakartaResponse();
+            RequestContext.open(request, new HttpResponse(response));
+            
+            try
+            {
+                assertEquals(3, list(binding.getBinding(parameters("state", "NY"))).size());
+            }
+            finally
+            {
+                ServiceState.release();
+            }
+            
+            // Added once on the miss and again on the hit
+            assertEquals(1, response.getHeaders("Link").size());
+            assertEquals("</services/customers?state=NY&page=2>; rel=\"next\"", response.getHeader("Link"));
+        }
+        
+        assertEquals(1, calls.get());
+    }
+}
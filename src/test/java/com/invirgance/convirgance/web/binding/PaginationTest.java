@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.json.JSONObject;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author jbanes
+ */
+public class PaginationTest
+{
+    @Test
+    public void testOffsetSql()
+    {
+        var pagination = new Pagination();
+        
+        assertEquals("select * from customer order by id LIMIT :convirgance_page_limit OFFSET :convirgance_page_offset", pagination.offsetSql("select * from customer order by id;\n"));
+        
+        pagination.setFetchSyntax(true);
+        
+        assertEquals("select * from customer order by id OFFSET :convirgance_page_offset ROWS FETCH NEXT :convirgance_page_limit ROWS ONLY", pagination.offsetSql("select * from customer order by id"));
+    }
+    
+    @Test
+    public void testKeysetSql()
+    {
+        var pagination = new Pagination();
+        
+        pagination.setKeys(List.of("created DESC", "id"));
+        
+        assertEquals("SELECT * FROM (select * from orders) convirgance_page ORDER BY created DESC, id ASC LIMIT :convirgance_page_limit", pagination.keysetSql("select * from orders", false));
+        assertEquals("SELECT * FROM (select * from orders) convirgance_page WHERE (created < :convirgance_page_cursor0) OR (created = :convirgance_page_cursor0 AND id > :convirgance_page_cursor1) ORDER BY created DESC, id ASC LIMIT :convirgance_page_limit", pagination.keysetSql("select * from orders", true));
+    }
+    
+    @Test
+    public void testCursor()
+    {
+        var pagination = new Pagination();
+        var record = new JSONObject();
+        
+        pagination.setKeys(List.of("created DESC", "id"));
+        record.put("id", 42);
+        record.put("created", "2026-01-01");
+        record.put("name", "ignored");
+        
+        var cursor = pagination.encodeCursor(record);
+        var values = pagination.decodeCursor(cursor);
+        
+        assertFalse(cursor.contains("="));
+        assertEquals(2, values.size());
+        assertEquals("2026-01-01", values.get(0));
+        assertEquals(42, values.get(1));
+        
+        assertThrows(ConvirganceException.class, () -> pagination.decodeCursor("not a cursor!"));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.CloseableIterator;
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.servlet.ApplicationInitializer;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author jbanes
+ */
+public class QueryBindingTest
+{
+    private static <T> T proxy(Class<T> type, List<String> calls, Object... results)
+    {
+        return (T)Proxy.newProxyInstance(QueryBindingTest.class.getClassLoader(), new Class[]{ type }, (proxy, method, args) -> {
+            calls.add(method.getName() + (args == null ? "" : List.of(args).toString()));
+            
+            for(int i=0; i<results.length; i+=2)
+            {
+                if(method.getName().equals(results[i])) return results[i+1];
+            }
+            
+            if(method.getReturnType() == boolean.class) return false;
+            if(method.getReturnType() == int.class) return 0;
+            
+            return null;
+        });
+    }
+    
+    private static DataSource mockDataSource(List<String> calls, int rows)
+    {
+        return mockDataSource(calls, rows, true);
+    }
+    
+    private static DataSource mockDataSource(List<String> calls, int rows, boolean initialAutoCommit)
+    {
+        var remaining = new int[]{ rows };
+        var metadata = proxy(ResultSetMetaData.class, calls, "getColumnCount", 1, "getColumnLabel", "id");
+        var set = (ResultSet)Proxy.newProxyInstance(QueryBindingTest.class.getClassLoader(), new Class[]{ ResultSet.class }, (proxy, method, args) -> {
+            calls.add(method.getName());
+            
+            switch(method.getName())
+            {
+                case "getMetaData": return metadata;
+                case "next": return (remaining[0]-- > 0);
+                case "getObject": return remaining[0];
+            }
+            
+            return null;
+        });
+        var statement = proxy(PreparedStatement.class, calls, "executeQuery", set);
+        var autoCommit = new boolean[]{ initialAutoCommit };
+        var connection = (Connection)Proxy.newProxyInstance(QueryBindingTest.class.getClassLoader(), new Class[]{ Connection.class }, (proxy, method, args) -> {
+            calls.add(method.getName() + (args == null ? "" : List.of(args).toString()));
+            
+            switch(method.getName())
+            {
+                case "prepareStatement": return statement;
+                case "getAutoCommit": return autoCommit[0];
+                case "setAutoCommit": autoCommit[0] = (Boolean)args[0]; return null;
+            }
+            
+            return (method.getReturnType() == boolean.class) ? false : null;
+        });
+        
+        return proxy(DataSource.class, calls, "getConnection", connection);
+    }
+    
+    @Test
+    public void testStatementOptions()
+    {
+        var calls = new ArrayList<String>();
+        var binding = new QueryBinding();
+        var parameters = new JSONObject();
+        var ids = new ArrayList<Object>();
+        
+        ApplicationInitializer.register("jdbc/querybindingtest", mockDataSource(calls, 3));
+        
+        binding.setJndiName("jdbc/querybindingtest");
+        binding.setSql("select id from customer where state = :state");
+        binding.setFetchSize(500);
+        binding.setMaxRows(10000);
+        binding.setQueryTimeout(30);
+        
+        parameters.put("state", "NY");
+        
+        for(JSONObject record : binding.getBinding(parameters)) ids.add(record.get("id"));
+        
+        assertEquals(List.of(2, 1, 0), ids);
+        assertTrue(calls.contains("setAutoCommit[false]"));
+        assertTrue(calls.contains("prepareStatement[select id from customer where state = ?, " + ResultSet.TYPE_FORWARD_ONLY + ", " + ResultSet.CONCUR_READ_ONLY + "]"));
+        assertTrue(calls.contains("setFetchSize[500]"));
+        assertTrue(calls.contains("setMaxRows[10000]"));
+        assertTrue(calls.contains("setQueryTimeout[30]"));
+        assertTrue(calls.contains("setObject[1, NY]"));
+        
+        // Connection is released and restored once the results are exhausted
+        assertTrue(calls.contains("rollback"));
+        assertTrue(calls.contains("setAutoCommit[true]"));
+        assertEquals("close", calls.get(calls.size() - 1));
+    }
+    
+    @Test
+    public void testDefaults()
+    {
+        var calls = new ArrayList<String>();
+        var binding = new QueryBinding();
+        var parameters = new JSONObject();
+        var ids = new ArrayList<Object>();
+        
+        ApplicationInitializer.register("jdbc/querybindingtest", mockDataSource(calls, 2));
+        
+        binding.setJndiName("jdbc/querybindingtest");
+        binding.setSql("select id from customer where state = :state");
+        
+        parameters.put("state", "CA");
+        
+        // Parsed once, then bound and prepared for each request
+        for(int i=0; i<2; i++)
+        {
+            for(JSONObject record : binding.getBinding(parameters)) ids.add(record.get("id"));
+        }
+        
+        assertEquals(List.of(1, 0), ids);
+        assertEquals(2, calls.stream().filter(call -> call.startsWith("prepareStatement[select id from customer where state = ?")).count());
+        assertTrue(calls.contains("setObject[1, CA]"));
+        assertFalse(calls.stream().anyMatch(call -> call.startsWith("setFetchSize") || call.startsWith("setAutoCommit")));
+    }
+    
+    @Test
+    public void testCloseEarly() throws Exception
+    {
+        var calls = new ArrayList<String>();
+        var binding = new QueryBinding();
+        
+        ApplicationInitializer.register("jdbc/querybindingtest", mockDataSource(calls, 1000));
+        
+        binding.setJndiName("jdbc/querybindingtest");
+        binding.setSql("select id from customer");
+        binding.setFetchSize(100);
+        
+        var iterator = binding.getBinding(new JSONObject()).iterator();
+        
+        assertEquals(999, iterator.next().get("id"));
+        assertFalse(calls.contains("close"));
+        
+        ((CloseableIterator<JSONObject>)iterator).close();
+        
+        assertEquals("close", calls.get(calls.size() - 1));
+        assertEquals(3, calls.stream().filter(call -> call.equals("close")).count());
+    }
+    
+    @Test
+    public void testCallerTransaction()
+    {
+        var calls = new ArrayList<String>();
+        var binding = new QueryBinding();
+        
+        ApplicationInitializer.register("jdbc/querybindingtest", mockDataSource(calls, 3, false));
+        
+        binding.setJndiName("jdbc/querybindingtest");
+        binding.setSql("select id from customer");
+        binding.setFetchSize(100);
+        
+        for(JSONObject record : binding.getBinding(new JSONObject())) assertNotNull(record);
+        
+        // A transaction the cursor did not start is left alone
+        assertFalse(calls.contains("rollback"));
+        assertFalse(calls.stream().anyMatch(call -> call.startsWith("setAutoCommit")));
+        assertEquals("close", calls.get(calls.size() - 1));
+    }
+}
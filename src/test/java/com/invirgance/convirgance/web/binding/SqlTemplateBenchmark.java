@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.dbms.Query;
+import com.invirgance.convirgance.json.JSONObject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares building a new {@link Query} for every request against binding a 
+ * {@link SqlTemplate} parsed once, using a statement with 20 parameters.<br>
+ * <br>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.invirgance.convirgance.web.binding.SqlTemplateBenchmark
+ * </pre>
+ * 
+ * @author jbanes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlTemplateBenchmark
+{
+    private String sql;
+    private SqlTemplate template;
+    private JSONObject parameters;
+    
+    @Setup
+    public void setup()
+    {
+        var columns = new StringBuilder();
+        var values = new StringBuilder();
+        
+        parameters = new JSONObject();
+        
+        for(int i=0; i<20; i++)
+        {
+            if(i > 0) columns.append(", ");
+            if(i > 0) values.append(", ");
+            
+            columns.append("column").append(i);
+            values.append(":value").append(i);
+            parameters.put("value" + i, (i % 2 == 0) ? "text " + i : i);
+        }
+        
+        sql = "insert into benchmark (" + columns + ") values (" + values + ")";
+        template = new SqlTemplate(sql);
+    }
+    
+    @Benchmark
+    public Object query()
+    {
+        return new Query(sql, parameters);
+    }
+    
+    @Benchmark
+    public Object template()
+    {
+        return template.update(parameters);
+    }
+    
+    public static void main(String[] args) throws Exception
+    {
+        new Runner(new OptionsBuilder().include(SqlTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
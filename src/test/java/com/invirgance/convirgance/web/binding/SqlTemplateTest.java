@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.binding;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.json.JSONArray;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author jbanes
+ */
+public class SqlTemplateTest
+{
+    @Test
+    public void testParse()
+    {
+        var template = new SqlTemplate("select * from customer where id = :id and (name = :name or :name is null)");
+        
+        assertEquals("select * from customer where id = ? and (name = ? or ? is null)", template.getJdbcSql());
+        assertArrayEquals(new String[]{ "id", "name", "name" }, template.getNames());
+    }
+    
+    @Test
+    public void testIgnored()
+    {
+        var template = new SqlTemplate("select ':skip', \"col:skip\", created::date -- :skip\nfrom t /* :skip */ where x = :x_1");
+        
+        assertEquals("select ':skip', \"col:skip\", created::date -- :skip\nfrom t /* :skip */ where x = ?", template.getJdbcSql());
+        assertArrayEquals(new String[]{ "x_1" }, template.getNames());
+    }
+    
+    @Test
+    public void testBind()
+    {
+        var template = new SqlTemplate("insert into line (order_id, sku, qty) values (:id, :sku, :qty)");
+        var parent = new JSONObject();
+        var child = new JSONObject();
+        
+        parent.put("id", 7);
+        parent.put("sku", "parent");
+        child.put("sku", "A-1");
+        child.put("qty", null);
+        
+        assertArrayEquals(new Object[]{ 7, "A-1", null }, template.bind(child, parent));
+        assertArrayEquals(new Object[]{ 7, "parent", null }, template.bind(parent));
+    }
+    
+    @Test
+    public void testBatch() throws Exception
+    {
+        var calls = new ArrayList<String>();
+        var loader = getClass().getClassLoader();
+        var template = new SqlTemplate("delete from line where id = :id");
+        var metadata = (ParameterMetaData)Proxy.newProxyInstance(loader, new Class[]{ ParameterMetaData.class }, (proxy, method, args) -> Types.INTEGER);
+        var statement = (PreparedStatement)Proxy.newProxyInstance(loader, new Class[]{ PreparedStatement.class }, (proxy, method, args) -> {
+            calls.add(method.getName() + (args == null ? "" : List.of(args).toString()));
+            
+            if(method.getName().equals("getParameterMetaData")) return metadata;
+            
+            return (method.getReturnType() == int.class) ? 1 : null;
+        });
+        var connection = (Connection)Proxy.newProxyInstance(loader, new Class[]{ Connection.class }, (proxy, method, args) -> {
+            calls.add(method.getName() + (args == null ? "" : List.of(args).toString()));
+            
+            return statement;
+        });
+        
+        template.batch(List.of(new Object[]{ 1 }, new Object[]{ 2 })).execute(connection);
+        
+        assertEquals(List.of("prepareStatement[delete from line where id = ?]", "setObject[1, 1]", "addBatch", "setObject[1, 2]", "addBatch", "executeBatch", "close"), calls);
+        
+        calls.clear();
+        template.update(new JSONObject()).execute(connection);
+        
+        // Nulls are bound with the parameter's type rather than Types.NULL
+        assertEquals("setNull[1, " + Types.INTEGER + "]", calls.get(2));
+        assertEquals("executeUpdate", calls.get(3));
+        
+        // The parameter types are only looked up once
+        template.update(new JSONObject()).execute(connection);
+        
+        assertEquals(1, calls.stream().filter(call -> call.equals("getParameterMetaData")).count());
+        assertEquals("setNull[1, " + Types.INTEGER + "]", calls.get(6));
+        
+        calls.clear();
+        template.batch(List.of(new Object[]{ new Date(0) }, new Object[]{ BigInteger.TEN })).execute(connection);
+        
+        assertEquals("setTimestamp[1, " + new Timestamp(0) + "]", calls.get(1));
+        assertEquals("setBigDecimal[1, 10]", calls.get(3));
+    }
+    
+    @Test
+    public void testRead() throws Exception
+    {
+        var loader = getClass().getClassLoader();
+        var clob = (Clob)Proxy.newProxyInstance(loader, new Class[]{ Clob.class }, (proxy, method, args) -> {
+            if(method.getName().equals("length")) return 5L;
+            if(method.getName().equals("getSubString")) return "notes";
+            
+            return null;
+        });
+        var array = (Array)Proxy.newProxyInstance(loader, new Class[]{ Array.class }, (proxy, method, args) -> new int[]{ 1, 2 });
+        var values = new Object[]{ clob, array, 42 };
+        var set = (ResultSet)Proxy.newProxyInstance(loader, new Class[]{ ResultSet.class }, (proxy, method, args) -> values[(Integer)args[0] - 1]);
+        var expected = new JSONArray();
+        
+        expected.add(1);
+        expected.add(2);
+        
+        // Large objects are copied out so the record outlives the cursor
+        assertEquals("notes", SqlTemplate.read(set, 1));
+        assertEquals(expected, SqlTemplate.read(set, 2));
+        assertEquals(42, SqlTemplate.read(set, 3));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.cache;
+
+import com.invirgance.convirgance.json.JSONObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class CacheTagsTest
+{
+    private static JSONObject object(Object... pairs)
+    {
+        var object = new JSONObject();
+        
+        for(int i=0; i<pairs.length; i+=2) object.put((String)pairs[i], pairs[i+1]);
+        
+        return object;
+    }
+    
+    @Test
+    public void testResolve()
+    {
+        var record = object("id", 5, "state", "NY");
+        var parameters = object("id", 7, "region", "east");
+        
+        assertEquals("customers", CacheTags.resolve("customers", record));
+        assertEquals("customer:5", CacheTags.resolve("customer:{id}", record, parameters));
+        assertEquals("customer:7", CacheTags.resolve("customer:{id}", parameters, record));
+        assertEquals("east/NY/5", CacheTags.resolve("{region}/{state}/{id}", record, parameters));
+        assertEquals("customer:null", CacheTags.resolve("customer:{missing}", record, null));
+        assertEquals("open{", CacheTags.resolve("open{", record));
+        assertEquals(List.of("a:5", "b"), CacheTags.resolve(List.of("a:{id}", "b"), record));
+        assertTrue(CacheTags.resolve((List<String>)null, record).isEmpty());
+    }
+    
+    @Test
+    public void testInvalidate()
+    {
+        var cache = new Cache<String>(String::length);
+        var other = new Cache<String>(String::length);
+        
+        cache.put("1", "one", List.of("test-customer:1", "test-customers"));
+        cache.put("2", "two", List.of("test-customer:2", "test-customers"));
+        cache.put("3", "three");
+        other.put("1", "uno", List.of("test-customer:1"));
+        
+        assertEquals(2, CacheTags.invalidate("test-customer:1"));
+        assertNull(cache.get("1"));
+        assertNull(other.get("1"));
+        assertEquals("two", cache.get("2"));
+        
+        // Already removed from the other tags it was registered under
+        assertEquals(1, CacheTags.invalidate("test-customers"));
+        assertNull(cache.get("2"));
+        assertEquals("three", cache.get("3"));
+        assertEquals(0, CacheTags.invalidate("test-customers"));
+    }
+    
+    @Test
+    public void testRemovalUnregisters()
+    {
+        var cache = new Cache<String>(String::length);
+        
+        cache.setMaxEntries(1);
+        cache.put("1", "one", List.of("test-evicted"));
+        cache.put("2", "two", List.of("test-kept"));
+        
+        assertEquals(0, CacheTags.invalidate("test-evicted"));
+        
+        cache.put("2", "deux", List.of("test-replaced"));
+        
+        assertEquals(0, CacheTags.invalidate("test-kept"));
+        
+        cache.clear();
+        
+        assertEquals(0, CacheTags.invalidate("test-replaced"));
+    }
+    
+    @Test
+    public void testInvalidatedWhileLoading()
+    {
+        var cache = new Cache<String>(String::length);
+        
+        var value = cache.get("1", List.of("test-loading"), () -> {
+            CacheTags.invalidate("test-loading");
+            
+            return "stale";
+        });
+        
+        // Returned to the caller but not kept
+        assertEquals("stale", value);
+        assertNull(cache.get("1"));
+        
+        cache.get("1", List.of("test-loading"), () -> "fresh");
+        
+        assertEquals("fresh", cache.get("1"));
+    }
+    
+    @Test
+    public void testConcurrentInvalidate() throws Exception
+    {
+        var database = new AtomicInteger();
+        
+        for(int i=0; i<500; i++)
+        {
+            var cache = new Cache<String>(String::length);
+            var start = new CountDownLatch(1);
+            var loader = new Thread(() -> {
+                await(start);
+                cache.get("1", List.of("test-concurrent"), () -> String.valueOf(database.get()));
+            });
+            var writer = new Thread(() -> {
+                await(start);
+                database.incrementAndGet();
+                CacheTags.invalidate("test-concurrent");
+            });
+            
+            loader.start();
+            writer.start();
+            start.countDown();
+            loader.join();
+            writer.join();
+            
+            // Whatever survived must have been read after the write
+            if(cache.get("1") != null) assertEquals(String.valueOf(database.get()), cache.get("1"));
+        }
+    }
+    
+    @Test
+    public void testConcurrentRegistration() throws Exception
+    {
+        var cache = new Cache<String>(String::length);
+        var start = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        
+        cache.setMaxEntries(100000);
+        
+        for(int t=0; t<4; t++)
+        {
+            int offset = t * 1000;
+            
+            threads.add(new Thread(() -> {
+                await(start);
+                
+                for(int i=0; i<1000; i++) cache.put("key" + (offset + i), "value", List.of("test-registration"));
+            }));
+        }
+        
+        // Repeatedly empties the tag's registrations while the others add to it
+        threads.add(new Thread(() -> {
+            await(start);
+            
+            for(int i=0; i<4000; i++)
+            {
+                cache.put("churn", "value", List.of("test-registration"));
+                cache.invalidate("churn");
+            }
+        }));
+        
+        for(Thread thread : threads) thread.start();
+        
+        start.countDown();
+        
+        for(Thread thread : threads) thread.join();
+        
+        assertEquals(4000, CacheTags.invalidate("test-registration"));
+        assertEquals(0, cache.size());
+    }
+    
+    private static void await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
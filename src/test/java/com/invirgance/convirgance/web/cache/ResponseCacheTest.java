@@ -0,0 +1,271 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.cache;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.output.Output;
+import com.invirgance.convirgance.output.OutputCursor;
+import com.invirgance.convirgance.target.Target;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.web.http.MockJakartaRequest;
+import com.invirgance.convirgance.web.http.MockJakartaResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class ResponseCacheTest
+{
+    private final AtomicInteger loads = new AtomicInteger();
+    
+    private List<JSONObject> records(int count)
+    {
+        var records = new ArrayList<JSONObject>();
+        
+        loads.incrementAndGet();
+        
+        for(int i=0; i<count; i++)
+        {
+            var record = new JSONObject();
+            
+            record.put("id", i);
+            records.add(record);
+        }
+        
+        return records;
+    }
+    
+    private static JSONObject parameters(String state)
+    {
+        var parameters = new JSONObject();
+        
+        parameters.put("state", state);
+        
+        return parameters;
+    }
+    
+    private byte[] write(ResponseCache cache, MockJakartaRequest servletRequest, MockJakartaResponse servletResponse, JSONObject parameters, int count)
+    {
+        var response = new HttpResponse(servletResponse);
+        
+        servletResponse.clear();
+        cache.write(new HttpRequest(servletRequest), response, parameters, new LineOutput(), () -> records(count));
+        response.finish();
+        
+        return servletResponse.getBody();
+    }
+    
+    @Test
+    public void testHit()
+    {
+        var cache = new ResponseCache();
+        var request = new MockJakartaRequest("GET", "", "/services", "/customers");
+        var response = new MockJakartaResponse();
+        
+        var first = write(cache, request, response, parameters("NY"), 3);
+        
+        // The miss is streamed as it is generated
+        assertEquals("0\n1\n2\n", new String(first));
+        assertEquals("text/plain", response.getContentType());
+        assertFalse(response.containsHeader("Content-Length"));
+        assertEquals(1, loads.get());
+        
+        var second = write(cache, request, response, parameters("NY"), 3);
+        
+        assertArrayEquals(first, second);
+        assertEquals("text/plain", response.getContentType());
+        assertEquals("6", response.getHeader("Content-Length"));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getCache().getHits());
+        
+        write(cache, request, response, parameters("CA"), 3);
+        write(cache, new MockJakartaRequest("GET", "", "/services", "/orders"), response, parameters("NY"), 3);
+        
+        assertEquals(3, loads.get());
+        
+        cache.clear();
+        write(cache, request, response, parameters("NY"), 3);
+        
+        assertEquals(4, loads.get());
+    }
+    
+    @Test
+    public void testPrecompress() throws IOException
+    {
+        var cache = new ResponseCache();
+        var gzip = new MockJakartaRequest("GET", "", "/services", "/customers").setHeader("Accept-Encoding", "gzip");
+        var plain = new MockJakartaRequest("GET", "", "/services", "/customers");
+        var response = new MockJakartaResponse();
+        
+        cache.setPrecompress(true);
+        
+        var expected = write(cache, plain, response, parameters("NY"), 1000);
+        
+        assertFalse(response.containsHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        
+        var compressed = write(cache, gzip, response, parameters("NY"), 1000);
+        
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertTrue(compressed.length < expected.length);
+        assertArrayEquals(expected, new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes());
+        assertEquals(2, loads.get());
+        
+        compressed = write(cache, gzip, response, parameters("NY"), 1000);
+        
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals(String.valueOf(compressed.length), response.getHeader("Content-Length"));
+        assertArrayEquals(expected, new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes());
+        assertEquals(2, loads.get());
+        
+        // Too small to be worth compressing
+        write(cache, gzip, response, parameters("CA"), 3);
+        assertFalse(response.containsHeader("Content-Encoding"));
+    }
+    
+    @Test
+    public void testHeaders()
+    {
+        var cache = new ResponseCache();
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "/services", "/customers"));
+        
+        for(int i=0; i<2; i++)
+        {
+            var servletResponse = new MockJakartaResponse();
+            var response = new HttpResponse(servletResponse);
+            
+            response.setHeader("Cache-Control", "no-store");
+            
+            cache.write(request, response, parameters("NY"), new LineOutput(), () -> {
+                response.addHeader("Link", "</services/customers?page=2>; rel=\"next\"");
+                return records(3);
+            });
+            
+            response.finish();
+            
+            // Headers added while generating the response are kept with it
+            assertEquals("</services/customers?page=2>; rel=\"next\"", servletResponse.getHeader("Link"));
+            assertEquals(1, servletResponse.getHeaders("Link").size());
+            assertEquals(1, servletResponse.getHeaders("Cache-Control").size());
+            assertEquals("0\n1\n2\n", new String(servletResponse.getBody()));
+        }
+        
+        assertEquals(1, loads.get());
+    }
+    
+    @Test
+    public void testStreamed()
+    {
+        var cache = new ResponseCache();
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "/services", "/customers"));
+        var servletResponse = new MockJakartaResponse();
+        var response = new HttpResponse(servletResponse);
+        var sent = new AtomicInteger(-1);
+        
+        cache.write(request, response, parameters("NY"), new LineOutput(), () -> {
+            
+            var records = records(100000);
+            
+            // Note how much of the body reached the client before the last record
+            return () -> records.stream().peek(record -> {
+                if(record.get("id").equals(99999)) sent.set(servletResponse.getBodyLength());
+            }).iterator();
+        });
+        
+        response.finish();
+        
+        assertTrue(sent.get() > 0);
+        assertEquals(1, cache.getCache().size());
+        assertArrayEquals(servletResponse.getBody(), write(cache, new MockJakartaRequest("GET", "", "/services", "/customers"), servletResponse, parameters("NY"), 100000));
+        assertEquals(1, loads.get());
+    }
+    
+    @Test
+    public void testTooLarge()
+    {
+        var cache = new ResponseCache();
+        var request = new MockJakartaRequest("GET", "", "/services", "/customers");
+        var response = new MockJakartaResponse();
+        
+        cache.setMaxBytes(1024);
+        
+        // Sent in full but not kept
+        assertEquals(10000, new String(write(cache, request, response, parameters("NY"), 10000)).split("\n").length);
+        assertEquals(0, cache.getCache().size());
+        
+        write(cache, request, response, parameters("NY"), 10000);
+        
+        assertEquals(2, loads.get());
+        
+        // Small responses are still cached
+        write(cache, request, response, parameters("CA"), 3);
+        write(cache, request, response, parameters("CA"), 3);
+        
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.getCache().size());
+    }
+    
+    private static class LineOutput implements Output
+    {
+        @Override
+        public OutputCursor write(Target target)
+        {
+            OutputStream out = target.getOutputStream();
+            
+            return new OutputCursor() {
+                
+                @Override
+                public void write(JSONObject record)
+                {
+                    try
+                    {
+                        out.write((record.get("id") + "\n").getBytes("UTF-8"));
+                    }
+                    catch(IOException e) { throw new RuntimeException(e); }
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+
+        @Override
+        public String getContentType()
+        {
+            return "text/plain";
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.consumer;
+
+import com.invirgance.convirgance.CloseableIterator;
+import com.invirgance.convirgance.ConvirganceException;
+import com.invirgance.convirgance.dbms.DBMS;
+import com.invirgance.convirgance.dbms.Query;
+import com.invirgance.convirgance.json.JSONArray;
+import com.invirgance.convirgance.json.JSONObject;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.h2.jdbcx.JdbcDataSource;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author jbanes
+ */
+public class QueryConsumerTest
+{
+    /**
+     * Emulates a sequence created with INCREMENT BY the given step
+     */
+    private static class SequenceDBMS extends DBMS
+    {
+        private final long step;
+        private final boolean decimal;
+        private long value = 1;
+        private int queries;
+
+        public SequenceDBMS(long step)
+        {
+            this(step, false);
+        }
+        
+        public SequenceDBMS(long step, boolean decimal)
+        {
+            super(null);
+            
+            this.step = step;
+            this.decimal = decimal;
+        }
+
+        @Override
+        public Iterable<JSONObject> query(Query query)
+        {
+            var record = new JSONObject();
+            
+            // Drivers such as Oracle return sequence values as BigDecimal
+            record.put("nextval", decimal ? BigDecimal.valueOf(value) : value);
+            
+            value += step;
+            queries++;
+            
+            return () -> new CloseableIterator<JSONObject>() {
+                private boolean next = true;
+                
+                @Override
+                public boolean hasNext()
+                {
+                    return next;
+                }
+
+                @Override
+                public JSONObject next()
+                {
+                    next = false;
+                    
+                    return record;
+                }
+
+                @Override
+                public void close() {}
+            };
+        }
+    }
+    
+    private static List<Object> keys(QueryConsumer consumer, DBMS dbms, int count)
+    {
+        var keys = new ArrayList<Object>();
+        
+        for(int i=0; i<count; i++) keys.add(consumer.nextKey(dbms));
+        
+        return keys;
+    }
+    
+    private static JSONObject record(Object... pairs)
+    {
+        var record = new JSONObject();
+        
+        for(int i=0; i<pairs.length; i+=2) record.put((String)pairs[i], pairs[i+1]);
+        
+        return record;
+    }
+    
+    private static DBMS database(String name)
+    {
+        var source = new JdbcDataSource();
+        var dbms = new DBMS(source);
+        
+        source.setURL("jdbc:h2:mem:consumer_" + name + ";DB_CLOSE_DELAY=-1");
+        
+        dbms.update(new Query("create table orders (order_id numeric(19) primary key, name varchar(64))"));
+        dbms.update(new Query("create table items (item_id numeric(19) primary key, order_id numeric(19), name varchar(64))"));
+        
+        return dbms;
+    }
+    
+    private static long count(DBMS dbms, String sql)
+    {
+        for(JSONObject record : dbms.query(new Query(sql)))
+        {
+            return ((Number)record.values().iterator().next()).longValue();
+        }
+        
+        return 0;
+    }
+    
+    @Test
+    public void testSequencePerRecord()
+    {
+        var consumer = new QueryConsumer();
+        var dbms = new SequenceDBMS(1);
+        
+        consumer.setSequenceSql("select nextval('order_seq')");
+        
+        assertEquals(List.of(1L, 2L, 3L), keys(consumer, dbms, 3));
+        assertEquals(3, dbms.queries);
+    }
+    
+    @Test
+    public void testSequenceBlocks()
+    {
+        var consumer = new QueryConsumer();
+        var dbms = new SequenceDBMS(4);
+        
+        consumer.setSequenceSql("select nextval('order_seq')");
+        consumer.setSequenceBlockSize(4);
+        
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), keys(consumer, dbms, 6));
+        assertEquals(2, dbms.queries);
+        
+        // Remaining keys in the block carry over to the next request
+        assertEquals(List.of(7L, 8L, 9L), keys(consumer, dbms, 3));
+        assertEquals(3, dbms.queries);
+        
+        assertThrows(ConvirganceException.class, () -> consumer.setSequenceBlockSize(0));
+    }
+    
+    @Test
+    public void testDecimalSequence()
+    {
+        var consumer = new QueryConsumer();
+        var dbms = new SequenceDBMS(4, true);
+        
+        consumer.setSequenceSql("select order_seq.nextval from dual");
+        consumer.setSequenceBlockSize(4);
+        
+        assertEquals(List.of(BigDecimal.valueOf(1), BigDecimal.valueOf(2), BigDecimal.valueOf(3), BigDecimal.valueOf(4), BigDecimal.valueOf(5)), keys(consumer, dbms, 5));
+        assertEquals(2, dbms.queries);
+    }
+    
+    @Test
+    public void testGetOperation()
+    {
+        var database = database("flat");
+        var sequence = new SequenceDBMS(10, true);
+        var consumer = new QueryConsumer();
+        var keys = new JSONArray<JSONObject>();
+        var records = List.of(record("name", "First"), record("name", "Second"), record("name", "Third"));
+        
+        consumer.setSql("insert into orders (order_id, name) values (:order_id, :name)");
+        consumer.setSequenceSql("select order_seq.nextval from dual");
+        consumer.setSequenceId("order_id");
+        consumer.setSequenceBlockSize(10);
+        
+        database.update(consumer.getOperation(records, sequence, keys));
+        
+        // One key record per inserted record, holding only the generated key
+        assertEquals(3, keys.size());
+        
+        for(int i=0; i<keys.size(); i++)
+        {
+            assertEquals(List.of("order_id"), new ArrayList<>(keys.get(i).keySet()));
+            assertEquals(BigDecimal.valueOf(i + 1), keys.get(i).get("order_id"));
+            assertEquals(keys.get(i).get("order_id"), records.get(i).get("order_id"));
+        }
+        
+        assertEquals(1, sequence.queries);
+        assertEquals(3, count(database, "select count(*) from orders"));
+    }
+    
+    @Test
+    public void testGetOperationChildren()
+    {
+        var database = database("children");
+        var sequence = new SequenceDBMS(10, true);
+        var consumer = new QueryConsumer();
+        var items = new QueryConsumer();
+        var keys = new JSONArray<JSONObject>();
+        var lines = new JSONArray<JSONObject>();
+        
+        lines.add(record("name", "Widget"));
+        lines.add(record("name", "Gadget"));
+        
+        items.setSql("insert into items (item_id, order_id, name) values (:item_id, :order_id, :name)");
+        items.setSequenceSql("select item_seq.nextval from dual");
+        items.setSequenceId("item_id");
+        items.setSequenceBlockSize(10);
+        
+        consumer.setSql("insert into orders (order_id, name) values (:order_id, :name)");
+        consumer.setSequenceSql("select order_seq.nextval from dual");
+        consumer.setSequenceId("order_id");
+        consumer.setSequenceBlockSize(10);
+        consumer.setChildren(Map.of("items", items));
+        
+        database.update(consumer.getOperation(List.of(record("name", "First", "items", lines)), sequence, keys));
+        
+        // The key record of a parent nests the key records of its children
+        assertEquals(1, keys.size());
+        assertEquals(List.of("order_id", "items"), new ArrayList<>(keys.get(0).keySet()));
+        assertEquals(BigDecimal.valueOf(1), keys.get(0).get("order_id"));
+        assertEquals(2, keys.get(0).getJSONArray("items").size());
+        
+        for(Object item : keys.get(0).getJSONArray("items"))
+        {
+            assertEquals(List.of("item_id"), new ArrayList<>(((JSONObject)item).keySet()));
+            assertTrue(((JSONObject)item).get("item_id") instanceof BigDecimal);
+        }
+        
+        assertEquals(1, count(database, "select count(*) from orders"));
+        assertEquals(2, count(database, "select count(*) from items where order_id = 1"));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.datasource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author jbanes
+ */
+public class PooledDataSourceTest
+{
+    private static class MockConnection
+    {
+        boolean closed;
+        boolean valid = true;
+        boolean autoCommit = true;
+        List<String> calls = new ArrayList<>();
+    }
+    
+    private static DataSource mockDataSource(List<MockConnection> opened)
+    {
+        var loader = PooledDataSourceTest.class.getClassLoader();
+        
+        return (DataSource)Proxy.newProxyInstance(loader, new Class[]{ DataSource.class }, (proxy, method, args) -> {
+            if(!method.getName().equals("getConnection")) throw new UnsupportedOperationException(method.getName());
+            
+            var mock = new MockConnection();
+            
+            opened.add(mock);
+            
+            return Proxy.newProxyInstance(loader, new Class[]{ Connection.class }, (connection, call, params) -> {
+                mock.calls.add(call.getName());
+                
+                switch(call.getName())
+                {
+                    case "close": mock.closed = true; return null;
+                    case "isClosed": return mock.closed;
+                    case "isValid": return mock.valid;
+                    case "getAutoCommit": return mock.autoCommit;
+                    case "setAutoCommit": mock.autoCommit = (Boolean)params[0]; return null;
+                }
+                
+                return (call.getReturnType() == boolean.class) ? false : null;
+            });
+        });
+    }
+    
+    @Test
+    public void testReuse() throws SQLException
+    {
+        var opened = new ArrayList<MockConnection>();
+        
+        try(var pool = new PooledDataSource(mockDataSource(opened)))
+        {
+            var connection = pool.getConnection();
+            
+            assertEquals(1, pool.getActive());
+            assertEquals(0.1, pool.getUtilization());
+            
+            connection.setAutoCommit(false);
+            connection.close();
+            connection.close();
+            
+            assertTrue(connection.isClosed());
+            assertThrows(SQLException.class, () -> connection.createStatement());
+            
+            // Returned connections are rolled back and reset
+            assertFalse(opened.get(0).closed);
+            assertTrue(opened.get(0).calls.contains("rollback"));
+            assertTrue(opened.get(0).autoCommit);
+            assertEquals(0, pool.getActive());
+            assertEquals(1, pool.getIdle());
+            
+            pool.getConnection().close();
+            
+            assertEquals(1, opened.size());
+            assertEquals(2, pool.getAcquired());
+        }
+        
+        assertTrue(opened.get(0).closed);
+    }
+    
+    @Test
+    public void testTimeout() throws SQLException
+    {
+        var opened = new ArrayList<MockConnection>();
+        
+        try(var pool = new PooledDataSource(mockDataSource(opened)))
+        {
+            pool.setMax(2);
+            pool.setAcquireTimeout(50);
+            
+            var first = pool.getConnection();
+            var second = pool.getConnection();
+            
+            assertEquals(1.0, pool.getUtilization());
+            assertThrows(SQLTransientConnectionException.class, () -> pool.getConnection());
+            assertEquals(1, pool.getTimeouts());
+            assertEquals(2, pool.getTotal());
+            
+            first.close();
+            
+            try(var third = pool.getConnection())
+            {
+                assertEquals(2, opened.size());
+            }
+            
+            second.close();
+        }
+    }
+    
+    @Test
+    public void testMaintenance() throws Exception
+    {
+        var opened = new ArrayList<MockConnection>();
+        
+        try(var pool = new PooledDataSource(mockDataSource(opened)))
+        {
+            pool.setIdleTimeout(1);
+            pool.getConnection().close();
+            
+            opened.get(0).valid = false;
+            Thread.sleep(1100);
+            
+            // Invalid connections are replaced when handed out
+            pool.getConnection().close();
+            
+            assertTrue(opened.get(0).closed);
+            assertEquals(2, opened.size());
+            
+            var first = pool.getConnection();
+            var second = pool.getConnection();
+            
+            first.close();
+            second.close();
+            Thread.sleep(10);
+            
+            // Idle connections are closed down to the minimum
+            pool.setMin(1);
+            pool.maintain();
+            
+            assertEquals(1, pool.getTotal());
+        }
+    }
+}
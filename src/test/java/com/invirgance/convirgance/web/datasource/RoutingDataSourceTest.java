@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author jbanes
+ */
+public class RoutingDataSourceTest
+{
+    private static DataSource database(String name) throws SQLException
+    {
+        var source = new JdbcDataSource();
+        
+        source.setURL("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1");
+        source.setUser("sa");
+        source.setPassword("");
+        
+        try(var connection = source.getConnection(); var statement = connection.createStatement())
+        {
+            statement.execute("drop table if exists origin");
+            statement.execute("create table origin (name varchar(32))");
+            statement.execute("insert into origin values ('" + name + "')");
+        }
+        
+        return source;
+    }
+    
+    private static String name(Connection connection) throws SQLException
+    {
+        try(var statement = connection.createStatement(); var set = statement.executeQuery("select name from origin"))
+        {
+            set.next();
+            
+            return set.getString(1);
+        }
+    }
+    
+    private static String origin(Connection connection) throws SQLException
+    {
+        try(connection)
+        {
+            return name(connection);
+        }
+    }
+    
+    private static RoutingDataSource routing() throws SQLException
+    {
+        return new RoutingDataSource(database("primary"), List.of(database("replica1"), database("replica2")));
+    }
+    
+    @Test
+    public void testRoundRobin() throws SQLException
+    {
+        var routing = routing();
+        var reader = routing.getReader(false);
+        var origins = new ArrayList<String>();
+        
+        for(int i=0; i<4; i++) origins.add(origin(reader.getConnection()));
+        
+        assertEquals(List.of("replica1", "replica2", "replica1", "replica2"), origins);
+        assertEquals("primary", origin(routing.getConnection()));
+    }
+    
+    @Test
+    public void testLeastInFlight() throws SQLException
+    {
+        var routing = routing();
+        var reader = routing.getReader(false);
+        
+        routing.setBalancing(RoutingDataSource.Balancing.LEAST_IN_FLIGHT);
+        
+        try(var held = reader.getConnection())
+        {
+            var busy = name(held);
+            
+            assertEquals(1, routing.getInFlight()[0] + routing.getInFlight()[1]);
+            
+            // Every read avoids the replica with a connection in use
+            for(int i=0; i<4; i++) assertNotEquals(busy, origin(reader.getConnection()));
+        }
+        
+        assertEquals(0, routing.getInFlight()[0] + routing.getInFlight()[1]);
+    }
+    
+    @Test
+    public void testReadYourWrites() throws Exception
+    {
+        var routing = routing();
+        
+        routing.setReplicationLag(200);
+        
+        try(var connection = routing.getConnection(); var statement = connection.createStatement())
+        {
+            statement.execute("insert into origin values ('written')");
+        }
+        
+        assertSame(routing.getPrimary(), routing.getReader(true));
+        assertNotSame(routing.getPrimary(), routing.getReader(false));
+        
+        Thread.sleep(250);
+        
+        assertNotSame(routing.getPrimary(), routing.getReader(true));
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class BufferPoolTest
+{
+    @Test
+    public void testReuse()
+    {
+        var pool = new BufferPool(1024, false, 2);
+        var first = pool.acquire();
+        var second = pool.acquire();
+        var third = pool.acquire();
+        
+        assertEquals(1024, first.capacity());
+        assertFalse(first.isDirect());
+        assertEquals(0, pool.getIdle());
+        
+        first.put((byte)1);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        
+        // Pool is capped at its capacity
+        assertEquals(2, pool.getIdle());
+        
+        var reused = pool.acquire();
+        
+        assertSame(first, reused);
+        assertEquals(0, reused.position());
+        
+        // Foreign buffers are not pooled
+        pool.release(java.nio.ByteBuffer.allocate(512));
+        pool.release(java.nio.ByteBuffer.allocateDirect(1024));
+        
+        assertEquals(1, pool.getIdle());
+        assertTrue(new BufferPool(1024, true, 1).acquire().isDirect());
+    }
+    
+    @Test
+    public void testBatching() throws IOException
+    {
+        for(boolean direct : new boolean[]{ false, true })
+        {
+            var pool = new BufferPool(100, direct, 4);
+            var out = new ByteArrayOutputStream();
+            var stream = new PooledOutputStream(out, pool, 0);
+            var expected = new ByteArrayOutputStream();
+            
+            for(int i=0; i<250; i++) 
+            {
+                stream.write('a' + (i % 26));
+                expected.write('a' + (i % 26));
+            }
+            
+            // Buffered until the buffer fills
+            assertEquals(200, out.size());
+            assertEquals(2, stream.getWrites());
+            
+            stream.write(new byte[30], 0, 30);
+            expected.write(new byte[30], 0, 30);
+            
+            // Large writes go straight through after draining the buffer
+            stream.write(new byte[150], 0, 150);
+            expected.write(new byte[150], 0, 150);
+            
+            assertEquals(430, out.size());
+            assertEquals(4, stream.getWrites());
+            assertEquals(0, pool.getIdle());
+            
+            stream.write(1);
+            stream.close();
+            expected.write(1);
+            
+            assertArrayEquals(expected.toByteArray(), out.toByteArray());
+            assertEquals(431, stream.getBytesWritten());
+            assertEquals(5, stream.getWrites());
+            assertEquals(0, stream.getFlushes());
+            assertEquals(1, pool.getIdle());
+            
+            // Writing after close borrows a buffer again
+            stream.write(new byte[10], 0, 10);
+            assertEquals(0, pool.getIdle());
+            stream.close();
+            assertEquals(441, out.size());
+        }
+    }
+    
+    @Test
+    public void testFlushThreshold() throws IOException
+    {
+        var flushes = new int[1];
+        var out = new ByteArrayOutputStream() {
+            @Override
+            public void flush()
+            {
+                flushes[0]++;
+            }
+        };
+        var stream = new PooledOutputStream(out, new BufferPool(100, false, 1), 250);
+        
+        for(int i=0; i<1000; i++) stream.write(i);
+        
+        // Last 100 bytes are still buffered
+        assertEquals(900, out.size());
+        assertEquals(3, stream.getFlushes());
+        assertEquals(3, flushes[0]);
+        
+        stream.flush();
+        
+        assertEquals(1000, out.size());
+        assertEquals(4, stream.getFlushes());
+        assertEquals(4, flushes[0]);
+    }
+    
+    @Test
+    public void testResponse() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var pool = new BufferPool(64, false, 1);
+        
+        response.setBufferPool(pool);
+        response.setFlushThreshold(128);
+        
+        assertEquals(0, response.getBytesWritten());
+        
+        OutputStream out = response.getOutputStream();
+        
+        for(int i=0; i<50; i++) out.write('x');
+        
+        assertEquals(0, mock.getBodyLength());
+        assertFalse(response.isCommitted());
+        
+        // Reset discards what has not reached the container
+        response.resetBuffer();
+        
+        for(int i=0; i<300; i++) out.write('y');
+        
+        assertEquals(256, mock.getBodyLength());
+        
+        response.finish();
+        
+        assertEquals("y".repeat(300), new String(mock.getBody(), "UTF-8"));
+        assertEquals(300, response.getBytesWritten());
+        assertEquals(5, response.getContainerWrites());
+        assertEquals(2, response.getContainerFlushes());
+        assertEquals(1, pool.getIdle());
+    }
+}
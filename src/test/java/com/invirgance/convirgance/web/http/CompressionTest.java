@@ -0,0 +1,279 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.target.OutputStreamTarget;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class CompressionTest
+{
+    private static byte[] body(int size)
+    {
+        var buffer = new StringBuilder();
+        
+        while(buffer.length() < size) buffer.append("{\"id\":").append(buffer.length()).append(",\"name\":\"Customer\"}\n");
+        
+        buffer.setLength(size);
+        
+        return buffer.toString().getBytes();
+    }
+    
+    private static byte[] write(HttpResponse response, byte[] data) throws IOException
+    {
+        try(OutputStream out = response.getOutputStream())
+        {
+            // Write in pieces to cross the threshold part way through a write
+            for(int i=0; i<data.length; i+=100) out.write(data, i, Math.min(100, data.length - i));
+        }
+        
+        return data;
+    }
+    
+    private static byte[] read(InputStream in) throws IOException
+    {
+        try(in)
+        {
+            return in.readAllBytes();
+        }
+    }
+    
+    @Test
+    public void testNegotiate()
+    {
+        assertNull(Compression.negotiate(null));
+        assertNull(Compression.negotiate(""));
+        assertNull(Compression.negotiate("identity"));
+        assertNull(Compression.negotiate("br"));
+        assertNull(Compression.negotiate("gzip;q=0, deflate;q=0"));
+        
+        assertEquals("gzip", Compression.negotiate("gzip"));
+        assertEquals("gzip", Compression.negotiate("gzip, deflate, br"));
+        assertEquals("gzip", Compression.negotiate("deflate, gzip"));
+        assertEquals("gzip", Compression.negotiate("*"));
+        assertEquals("gzip", Compression.negotiate("GZIP;Q=0.5"));
+        assertEquals("deflate", Compression.negotiate("deflate"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0, *"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=bad, deflate"));
+    }
+    
+    @Test
+    public void testGzip() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var compression = new Compression();
+        var data = body(10000);
+        
+        compression.setLevel(9);
+        response.setCompression(compression, new HttpRequest(new MockJakartaRequest("GET", "", "", "/").setHeader("Accept-Encoding", "gzip, deflate")));
+        
+        write(response, data);
+        
+        assertEquals("gzip", mock.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", mock.getHeader("Vary"));
+        assertTrue(mock.getBodyLength() < data.length);
+        assertArrayEquals(data, read(new GZIPInputStream(new ByteArrayInputStream(mock.getBody()))));
+    }
+    
+    @Test
+    public void testDeflate() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var data = body(10000);
+        
+        response.setCompression(new Compression(), new HttpRequest(new MockJakartaRequest("GET", "", "", "/").setHeader("Accept-Encoding", "deflate")));
+        
+        write(response, data);
+        
+        assertEquals("deflate", mock.getHeader("Content-Encoding"));
+        assertArrayEquals(data, read(new InflaterInputStream(new ByteArrayInputStream(mock.getBody()))));
+    }
+    
+    @Test
+    public void testThreshold() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var compression = new Compression();
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "", "/").setHeader("Accept-Encoding", "gzip"));
+        
+        compression.setThreshold(2048);
+        response.setCompression(compression, request);
+        
+        // Exactly at the threshold is sent as-is
+        write(response, body(2048));
+        
+        assertFalse(mock.containsHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", mock.getHeader("Vary"));
+        assertArrayEquals(body(2048), mock.getBody());
+        
+        mock = new MockJakartaResponse();
+        response = new HttpResponse(mock);
+        
+        response.setCompression(compression, request);
+        write(response, body(2049));
+        
+        assertEquals("gzip", mock.getHeader("Content-Encoding"));
+        assertArrayEquals(body(2049), read(new GZIPInputStream(new ByteArrayInputStream(mock.getBody()))));
+    }
+    
+    @Test
+    public void testClosed() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "", "/").setHeader("Accept-Encoding", "gzip"));
+        byte[] body;
+        
+        response.setCompression(new Compression(), request);
+        write(response, body(5000));
+        
+        body = mock.getBody();
+        
+        // The gzip trailer has been written, so nothing may follow it
+        assertThrows(IOException.class, () -> response.getOutputStream().write(body(5000)));
+        
+        response.finish();
+        
+        assertArrayEquals(body, mock.getBody());
+        assertArrayEquals(body(5000), read(new GZIPInputStream(new ByteArrayInputStream(mock.getBody()))));
+    }
+    
+    @Test
+    public void testUnclosed() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "", "/").setHeader("Accept-Encoding", "gzip"));
+        var data = body(10000);
+        
+        // Held below the threshold until the servlet finishes the response
+        response.setCompression(new Compression(), request);
+        response.getOutputStream().write(body(100));
+        
+        assertEquals(0, mock.getBodyLength());
+        
+        response.finish();
+        
+        assertFalse(mock.containsHeader("Content-Encoding"));
+        assertArrayEquals(body(100), mock.getBody());
+        
+        // Separate writes share one stream and the trailer is written on finish
+        mock = new MockJakartaResponse();
+        response = new HttpResponse(mock);
+        
+        response.setCompression(new Compression(), request);
+        assertSame(response.getOutputStream(), response.getOutputStream());
+        
+        response.getOutputStream().write(data, 0, 5000);
+        response.getOutputStream().write(data, 5000, 5000);
+        response.finish();
+        
+        assertEquals("gzip", mock.getHeader("Content-Encoding"));
+        assertArrayEquals(data, read(new GZIPInputStream(new ByteArrayInputStream(mock.getBody()))));
+    }
+    
+    @Test
+    public void testNotAccepted() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var data = body(10000);
+        
+        response.setCompression(new Compression(), new HttpRequest(new MockJakartaRequest("GET", "", "", "/")));
+        write(response, data);
+        
+        assertFalse(mock.containsHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", mock.getHeader("Vary"));
+        assertArrayEquals(data, mock.getBody());
+        
+        // Already encoded content is not compressed a second time
+        mock.clear();
+        mock.setHeader("Content-Encoding", "br");
+        response.setCompression(new Compression(), new HttpRequest(new MockJakartaRequest("GET", "", "", "/").setHeader("Accept-Encoding", "gzip")));
+        write(response, data);
+        
+        assertEquals("br", mock.getHeader("Content-Encoding"));
+        assertArrayEquals(data, mock.getBody());
+    }
+    
+    @Test
+    public void testSyncFlush() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var compression = new Compression();
+        var data = body(4096);
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "", "/").setHeader("Accept-Encoding", "gzip"));
+        
+        compression.setSyncFlush(true);
+        response.setCompression(compression, request);
+        
+        try(OutputStream out = response.getOutputStream())
+        {
+            out.write(data);
+            out.flush();
+            
+            // Everything written so far can be decompressed before the end
+            try(var in = new GZIPInputStream(new ByteArrayInputStream(mock.getBody())))
+            {
+                assertArrayEquals(data, in.readNBytes(data.length));
+            }
+        }
+    }
+    
+    @Test
+    public void testLazyTarget() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var target = new CompressedTarget(response, new OutputStreamTarget(mock.getOutputStream()));
+        var data = body(10000);
+        
+        // Settings applied after the target is created but before it is opened
+        response.setCompression(new Compression(), new HttpRequest(new MockJakartaRequest("GET", "", "", "/").setHeader("Accept-Encoding", "gzip")));
+        
+        try(OutputStream out = target.getOutputStream())
+        {
+            assertSame(out, target.getOutputStream());
+            out.write(data);
+        }
+        
+        assertEquals("gzip", mock.getHeader("Content-Encoding"));
+        assertArrayEquals(data, read(new GZIPInputStream(new ByteArrayInputStream(mock.getBody()))));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading a typical request through reflection against the direct
+ * Jakarta adapter. Each invocation wraps the request and resolves the URI, 
+ * method, a header and 8 parameters, the way a service with 8 parameters
+ * would.<br>
+ * <br>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.invirgance.convirgance.web.http.HttpRequestBenchmark
+ * </pre>
+ * 
+ * @author jbanes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpRequestBenchmark
+{
+    private static final String[] PARAMETERS = { "id", "name", "email", "status", "page", "size", "sort", "filter" };
+    
+    private MockJakartaRequest request;
+    
+    @Setup
+    public void setup()
+    {
+        request = new MockJakartaRequest("GET", "/app", "/api", "/customers/123");
+        
+        request.setHeader("Accept", "application/json");
+        
+        for(String name : PARAMETERS) request.setParameter(name, name + "-value");
+    }
+    
+    private void resolve(HttpRequest wrapped, Blackhole blackhole)
+    {
+        blackhole.consume(wrapped.getRequestURI());
+        blackhole.consume(wrapped.getContextPath());
+        blackhole.consume(wrapped.getMethod());
+        blackhole.consume(wrapped.getHeader("Accept"));
+        
+        for(String name : PARAMETERS) blackhole.consume(wrapped.getParameter(name));
+    }
+    
+    @Benchmark
+    public void reflection(Blackhole blackhole)
+    {
+        resolve(new HttpRequest(request, new ReflectionRequestAdapter(request)), blackhole);
+    }
+    
+    @Benchmark
+    public void adapter(Blackhole blackhole)
+    {
+        resolve(new HttpRequest(request), blackhole);
+    }
+    
+    public static void main(String[] args) throws Exception
+    {
+        new Runner(new OptionsBuilder().include(HttpRequestBenchmark.class.getSimpleName()).build()).run();
+    }
+}
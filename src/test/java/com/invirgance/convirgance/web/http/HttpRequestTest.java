@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.json.JSONObject;
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class HttpRequestTest
+{
+    @Test
+    public void testAdapterSelection()
+    {
+        var jakarta = new MockJakartaRequest("GET", "", "/api", "/test");
+        
+        assertTrue(RequestAdapter.create(jakarta) instanceof JakartaRequestAdapter);
+        assertTrue(RequestAdapter.create(new Object()) instanceof ReflectionRequestAdapter);
+    }
+    
+    @Test
+    public void testAccessors()
+    {
+        var mock = new MockJakartaRequest("POST", "/app", "/api", "/customers/123");
+        
+        mock.setParameter("id", "123").setHeader("Accept", "application/json").setQueryString("id=123");
+        
+        for(var request : new HttpRequest[]{ new HttpRequest(mock), new HttpRequest(mock, new ReflectionRequestAdapter(mock)) })
+        {
+            assertEquals("/app/api/customers/123", request.getRequestURI());
+            assertEquals("/app", request.getContextPath());
+            assertEquals("/api", request.getServletPath());
+            assertEquals("/customers/123", request.getPathInfo());
+            assertEquals("POST", request.getMethod());
+            assertEquals("id=123", request.getQueryString());
+            assertEquals("123", request.getParameter("id"));
+            assertNull(request.getParameter("name"));
+            assertEquals("application/json", request.getHeader("Accept"));
+            assertEquals("accept", request.getHeaderNames(null).iterator().next());
+            assertEquals(80, request.getServerPort());
+            assertEquals("127.0.0.1", request.getRemoteAddress());
+        }
+    }
+    
+    @Test
+    public void testReflectionFallback()
+    {
+        var request = new HttpRequest(new PathRequest("/app/customers/123", "/app"));
+        
+        assertEquals("/app/customers/123", request.getRequestURI());
+        assertEquals("/app", request.getContextPath());
+        assertEquals("/customers/123", request.getPathMatch().getPath());
+        assertNull(request.getFileByPath("/missing.xml"));
+        assertEquals(new File("/root/index.xml"), request.getFileByPath("/index.xml"));
+    }
+    
+    public static class PathRequest
+    {
+        private String path;
+        private String context;
+
+        public PathRequest(String path, String context)
+        {
+            this.path = path;
+            this.context = context;
+        }
+        
+        public String getRequestURI()
+        {
+            return path;
+        }
+
+        public String getContextPath()
+        {
+            return context;
+        }
+        
+        public Object getServletContext()
+        {
+            return new PathContext();
+        }
+    }
+    
+    public static class PathContext
+    {
+        public String getRealPath(String path)
+        {
+            if(path.startsWith("/missing")) return null;
+            
+            return "/root" + path;
+        }
+    }
+    
+    @Test
+    public void testInclude() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "/api", "/test"));
+        var response = new HttpResponse(mock);
+        
+        response.getOutputStream().write("before ".getBytes("UTF-8"));
+        request.include("/page.jsp", new JSONObject(), response);
+        response.getOutputStream().write(" after".getBytes("UTF-8"));
+        response.finish();
+        
+        assertEquals("before /page.jsp after", new String(mock.getBody(), "UTF-8"));
+        
+        // Included content is never compressed, so the buffered body isn't either
+        mock.clear();
+        
+        response = new HttpResponse(mock);
+        response.setCompression(new Compression(), new HttpRequest(new MockJakartaRequest("GET", "", "/api", "/test").setHeader("Accept-Encoding", "gzip")));
+        
+        response.getOutputStream().write("before ".getBytes("UTF-8"));
+        request.include("/page.jsp", new JSONObject(), response);
+        response.getOutputStream().write(" after".getBytes("UTF-8"));
+        response.finish();
+        
+        assertEquals("before /page.jsp after", new String(mock.getBody(), "UTF-8"));
+        assertNull(mock.getHeader("Content-Encoding"));
+    }
+    
+    @Test
+    public void testForward() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var request = new HttpRequest(new MockJakartaRequest("GET", "", "/api", "/test"));
+        var response = new HttpResponse(mock);
+        
+        response.getOutputStream().write("discarded".getBytes("UTF-8"));
+        request.forward("/page.jsp", new JSONObject(), response);
+        response.getOutputStream().write(" after".getBytes("UTF-8"));
+        response.finish();
+        
+        assertEquals("/page.jsp", new String(mock.getBody(), "UTF-8"));
+    }
+}
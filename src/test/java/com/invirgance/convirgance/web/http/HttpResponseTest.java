@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class HttpResponseTest
+{
+    @Test
+    public void testAdapterSelection()
+    {
+        assertTrue(ResponseAdapter.create(new MockJakartaResponse()) instanceof JakartaResponseAdapter);
+        assertTrue(ResponseAdapter.create(new Object()) instanceof ReflectionResponseAdapter);
+        assertTrue(SessionAdapter.create(new MockSession()) instanceof ReflectionSessionAdapter);
+    }
+    
+    @Test
+    public void testAccessors() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        
+        for(var response : new HttpResponse[]{ new HttpResponse(mock), new HttpResponse(mock, new ReflectionResponseAdapter(mock)) })
+        {
+            mock.clear();
+            
+            response.setStatus(201);
+            response.setHeader("X-Test", "one");
+            response.addIntHeader("X-Count", 2);
+            response.setContentType("application/json");
+            response.setLocale(Locale.FRANCE);
+            
+            try(OutputStream out = response.getOutputStream())
+            {
+                out.write("{}".getBytes("UTF-8"));
+            }
+            
+            assertEquals(201, response.getStatus());
+            assertEquals("one", response.getHeader("X-Test"));
+            assertEquals("2", response.getHeader("X-Count"));
+            assertTrue(response.containsHeader("X-Test"));
+            assertEquals("application/json", mock.getContentType());
+            assertEquals(Locale.FRANCE, response.getLocale());
+            assertEquals("{}", new String(mock.getBody(), "UTF-8"));
+            assertTrue(response.isCommitted());
+            
+            response.sendError(404, "Not Found");
+            
+            assertEquals(404, response.getStatus());
+            assertEquals("Not Found", mock.getMessage());
+        }
+    }
+    
+    @Test
+    public void testCompleted() throws IOException
+    {
+        var mock = new MockJakartaResponse();
+        var response = new HttpResponse(mock);
+        var pool = new BufferPool(64, false, 1);
+        
+        response.setBufferPool(pool);
+        
+        OutputStream out = response.getOutputStream();
+        
+        out.write("partial".getBytes("UTF-8"));
+        
+        // Timed out: the worker's remaining writes are discarded
+        response.complete();
+        
+        for(int i=0; i<100; i++) out.write('x');
+        
+        response.getOutputStream().write('y');
+        response.write("body".getBytes("UTF-8"));
+        response.finish();
+        
+        assertTrue(response.isCompleted());
+        assertEquals(0, mock.getBodyLength());
+        assertEquals(1, pool.getIdle());
+    }
+    
+    @Test
+    public void testSession()
+    {
+        var session = new Session(new MockSession());
+        
+        session.setAttribute("user", "bob");
+        
+        assertEquals("bob", session.getAttribute("user"));
+        assertNull(session.getAttribute("missing"));
+        assertEquals("user", session.getAttributeNames().iterator().next());
+    }
+    
+    public static class MockSession
+    {
+        private Map<String,Object> attributes = new HashMap<>();
+        
+        public Object getAttribute(String name)
+        {
+            return attributes.get(name);
+        }
+        
+        public void setAttribute(String name, Object value)
+        {
+            attributes.put(name, value);
+        }
+        
+        public Enumeration<String> getAttributeNames()
+        {
+            return Collections.enumeration(attributes.keySet());
+        }
+    }
+}
@@ -0,0 +1,607 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletConnection;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpUpgradeHandler;
+import jakarta.servlet.http.Part;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An in-memory Jakarta request for tests and benchmarks. Only the parts of 
+ * the request used by the library are backed by data.
+ * 
+ * @author jbanes
+ */
+public class MockJakartaRequest implements HttpServletRequest
+{
+    private String method = "GET";
+    private String contextPath = "";
+    private String servletPath = "";
+    private String pathInfo;
+    private String queryString;
+    private byte[] body = new byte[0];
+    
+    private Map<String,String> headers = new LinkedHashMap<>();
+    private Map<String,String[]> parameters = new LinkedHashMap<>();
+    private Map<String,Object> attributes = new HashMap<>();
+    
+    private HttpSession session;
+    private ServletContext servletContext;
+
+    public MockJakartaRequest(String method, String contextPath, String servletPath, String pathInfo)
+    {
+        this.method = method;
+        this.contextPath = contextPath;
+        this.servletPath = servletPath;
+        this.pathInfo = pathInfo;
+    }
+    
+    public MockJakartaRequest setParameter(String name, String value)
+    {
+        parameters.put(name, new String[]{ value });
+        
+        return this;
+    }
+    
+    public MockJakartaRequest setHeader(String name, String value)
+    {
+        headers.put(name.toLowerCase(), value);
+        
+        return this;
+    }
+    
+    public MockJakartaRequest setBody(byte[] body)
+    {
+        this.body = body;
+        
+        return this;
+    }
+    
+    public MockJakartaRequest setQueryString(String queryString)
+    {
+        this.queryString = queryString;
+        
+        return this;
+    }
+    
+    public MockJakartaRequest setSession(HttpSession session)
+    {
+        this.session = session;
+        
+        return this;
+    }
+    
+    public MockJakartaRequest setServletContext(ServletContext servletContext)
+    {
+        this.servletContext = servletContext;
+        
+        return this;
+    }
+
+    @Override
+    public String getAuthType()
+    {
+        return null;
+    }
+
+    @Override
+    public Cookie[] getCookies()
+    {
+        return new Cookie[0];
+    }
+
+    @Override
+    public long getDateHeader(String name)
+    {
+        return -1;
+    }
+
+    @Override
+    public String getHeader(String name)
+    {
+        return headers.get(name.toLowerCase());
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name)
+    {
+        String value = getHeader(name);
+        
+        if(value == null) return Collections.emptyEnumeration();
+        
+        return Collections.enumeration(Collections.singletonList(value));
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames()
+    {
+        return Collections.enumeration(headers.keySet());
+    }
+
+    @Override
+    public int getIntHeader(String name)
+    {
+        String value = getHeader(name);
+        
+        return (value == null) ? -1 : Integer.parseInt(value);
+    }
+
+    @Override
+    public String getMethod()
+    {
+        return method;
+    }
+
+    @Override
+    public String getPathInfo()
+    {
+        return pathInfo;
+    }
+
+    @Override
+    public String getPathTranslated()
+    {
+        return null;
+    }
+
+    @Override
+    public String getContextPath()
+    {
+        return contextPath;
+    }
+
+    @Override
+    public String getQueryString()
+    {
+        return queryString;
+    }
+
+    @Override
+    public String getRemoteUser()
+    {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(String role)
+    {
+        return false;
+    }
+
+    @Override
+    public Principal getUserPrincipal()
+    {
+        return null;
+    }
+
+    @Override
+    public String getRequestedSessionId()
+    {
+        return null;
+    }
+
+    @Override
+    public String getRequestURI()
+    {
+        return contextPath + servletPath + (pathInfo == null ? "" : pathInfo);
+    }
+
+    @Override
+    public StringBuffer getRequestURL()
+    {
+        return new StringBuffer("http://localhost").append(getRequestURI());
+    }
+
+    @Override
+    public String getServletPath()
+    {
+        return servletPath;
+    }
+
+    @Override
+    public HttpSession getSession(boolean create)
+    {
+        return session;
+    }
+
+    @Override
+    public HttpSession getSession()
+    {
+        return session;
+    }
+
+    @Override
+    public String changeSessionId()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromCookie()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromURL()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean authenticate(HttpServletResponse response)
+    {
+        return false;
+    }
+
+    @Override
+    public void login(String username, String password)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void logout()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<Part> getParts()
+    {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Part getPart(String name)
+    {
+        return null;
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object getAttribute(String name)
+    {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames()
+    {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public String getCharacterEncoding()
+    {
+        return "UTF-8";
+    }
+
+    @Override
+    public void setCharacterEncoding(String encoding)
+    {
+    }
+
+    @Override
+    public int getContentLength()
+    {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong()
+    {
+        return body.length;
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return getHeader("Content-Type");
+    }
+
+    @Override
+    public ServletInputStream getInputStream()
+    {
+        var stream = new ByteArrayInputStream(body);
+        
+        return new ServletInputStream() {
+            
+            @Override
+            public int read()
+            {
+                return stream.read();
+            }
+
+            @Override
+            public boolean isFinished()
+            {
+                return stream.available() < 1;
+            }
+
+            @Override
+            public boolean isReady()
+            {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener)
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String getParameter(String name)
+    {
+        String[] values = parameters.get(name);
+        
+        return (values == null) ? null : values[0];
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames()
+    {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name)
+    {
+        return parameters.get(name);
+    }
+
+    @Override
+    public Map<String,String[]> getParameterMap()
+    {
+        return parameters;
+    }
+
+    @Override
+    public String getProtocol()
+    {
+        return "HTTP/1.1";
+    }
+
+    @Override
+    public String getScheme()
+    {
+        return "http";
+    }
+
+    @Override
+    public String getServerName()
+    {
+        return "localhost";
+    }
+
+    @Override
+    public int getServerPort()
+    {
+        return 80;
+    }
+
+    @Override
+    public BufferedReader getReader()
+    {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String getRemoteAddr()
+    {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public String getRemoteHost()
+    {
+        return "localhost";
+    }
+
+    @Override
+    public void setAttribute(String name, Object value)
+    {
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void removeAttribute(String name)
+    {
+        attributes.remove(name);
+    }
+
+    @Override
+    public Locale getLocale()
+    {
+        return Locale.US;
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales()
+    {
+        return Collections.enumeration(Collections.singletonList(Locale.US));
+    }
+
+    @Override
+    public boolean isSecure()
+    {
+        return false;
+    }
+
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path)
+    {
+        return new Dispatcher(path);
+    }
+
+    @Override
+    public int getRemotePort()
+    {
+        return 50000;
+    }
+
+    @Override
+    public String getLocalName()
+    {
+        return "localhost";
+    }
+
+    @Override
+    public String getLocalAddr()
+    {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public int getLocalPort()
+    {
+        return 80;
+    }
+
+    @Override
+    public ServletContext getServletContext()
+    {
+        return servletContext;
+    }
+
+    @Override
+    public AsyncContext startAsync()
+    {
+        throw new IllegalStateException("Async not supported");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest request, ServletResponse response)
+    {
+        throw new IllegalStateException("Async not supported");
+    }
+
+    @Override
+    public boolean isAsyncStarted()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncSupported()
+    {
+        return false;
+    }
+
+    @Override
+    public AsyncContext getAsyncContext()
+    {
+        throw new IllegalStateException("Async not supported");
+    }
+
+    @Override
+    public DispatcherType getDispatcherType()
+    {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public String getRequestId()
+    {
+        return "0";
+    }
+
+    @Override
+    public String getProtocolRequestId()
+    {
+        return "";
+    }
+
+    @Override
+    public ServletConnection getServletConnection()
+    {
+        return null;
+    }
+    
+    /**
+     * Writes the dispatched path to the response body in place of a page. A
+     * forward clears the buffer first as the container would.
+     */
+    public static class Dispatcher implements RequestDispatcher
+    {
+        private String path;
+
+        public Dispatcher(String path)
+        {
+            this.path = path;
+        }
+
+        @Override
+        public void forward(ServletRequest request, ServletResponse response) throws IOException
+        {
+            response.resetBuffer();
+            response.getOutputStream().write(path.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void include(ServletRequest request, ServletResponse response) throws IOException
+        {
+            response.getOutputStream().write(path.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
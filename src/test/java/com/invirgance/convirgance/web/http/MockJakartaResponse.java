@@ -0,0 +1,343 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An in-memory Jakarta response for tests and benchmarks. The body is 
+ * captured in memory and can be read back with {@link #getBody()}.
+ * 
+ * @author jbanes
+ */
+public class MockJakartaResponse implements HttpServletResponse
+{
+    private int status = 200;
+    private String message;
+    private String contentType;
+    private String characterEncoding = "UTF-8";
+    private Locale locale = Locale.US;
+    private boolean committed;
+    
+    private Map<String,List<String>> headers = new LinkedHashMap<>();
+    private ByteArrayOutputStream body = new ByteArrayOutputStream();
+    
+    private ServletOutputStream stream = new ServletOutputStream() {
+        
+        @Override
+        public void write(int b)
+        {
+            committed = true;
+            body.write(b);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length)
+        {
+            committed = true;
+            body.write(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isReady()
+        {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener)
+        {
+            throw new UnsupportedOperationException();
+        }
+    };
+    
+    /**
+     * The bytes written to the response body
+     * 
+     * @return a copy of the body
+     */
+    public byte[] getBody()
+    {
+        return body.toByteArray();
+    }
+    
+    /**
+     * The number of bytes written to the response body
+     * 
+     * @return the length of the body
+     */
+    public int getBodyLength()
+    {
+        return body.size();
+    }
+    
+    /**
+     * Discards the body so the response can be reused
+     */
+    public void clear()
+    {
+        status = 200;
+        message = null;
+        committed = false;
+        
+        headers.clear();
+        body.reset();
+    }
+    
+    /**
+     * The message passed to sendError()
+     * 
+     * @return the error message or null
+     */
+    public String getMessage()
+    {
+        return message;
+    }
+
+    @Override
+    public void addCookie(Cookie cookie)
+    {
+    }
+
+    @Override
+    public boolean containsHeader(String name)
+    {
+        return headers.containsKey(name.toLowerCase());
+    }
+
+    @Override
+    public String encodeURL(String url)
+    {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url)
+    {
+        return url;
+    }
+
+    @Override
+    public void sendError(int code, String message)
+    {
+        this.status = code;
+        this.message = message;
+        this.committed = true;
+    }
+
+    @Override
+    public void sendError(int code)
+    {
+        sendError(code, null);
+    }
+
+    @Override
+    public void sendRedirect(String location)
+    {
+        setHeader("Location", location);
+        sendError(302);
+    }
+
+    @Override
+    public void setDateHeader(String name, long date)
+    {
+        setHeader(name, Long.toString(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date)
+    {
+        addHeader(name, Long.toString(date));
+    }
+
+    @Override
+    public void setHeader(String name, String value)
+    {
+        headers.remove(name.toLowerCase());
+        addHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value)
+    {
+        headers.computeIfAbsent(name.toLowerCase(), key -> new ArrayList<>()).add(value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value)
+    {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value)
+    {
+        addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setStatus(int status)
+    {
+        this.status = status;
+    }
+
+    @Override
+    public int getStatus()
+    {
+        return status;
+    }
+
+    @Override
+    public String getHeader(String name)
+    {
+        List<String> values = headers.get(name.toLowerCase());
+        
+        return (values == null) ? null : values.get(0);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name)
+    {
+        return headers.getOrDefault(name.toLowerCase(), new ArrayList<>());
+    }
+
+    @Override
+    public Collection<String> getHeaderNames()
+    {
+        return headers.keySet();
+    }
+
+    @Override
+    public String getCharacterEncoding()
+    {
+        return characterEncoding;
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return contentType;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream()
+    {
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter()
+    {
+        return new PrintWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), true);
+    }
+
+    @Override
+    public void setCharacterEncoding(String encoding)
+    {
+        this.characterEncoding = encoding;
+    }
+
+    @Override
+    public void setContentLength(int length)
+    {
+        setIntHeader("Content-Length", length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length)
+    {
+        setHeader("Content-Length", Long.toString(length));
+    }
+
+    @Override
+    public void setContentType(String type)
+    {
+        this.contentType = type;
+    }
+
+    @Override
+    public void setBufferSize(int size)
+    {
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return 0;
+    }
+
+    @Override
+    public void flushBuffer()
+    {
+        committed = true;
+    }
+
+    @Override
+    public void resetBuffer()
+    {
+        if(committed) throw new IllegalStateException("Response already committed");
+        
+        body.reset();
+    }
+
+    @Override
+    public boolean isCommitted()
+    {
+        return committed;
+    }
+
+    @Override
+    public void reset()
+    {
+        resetBuffer();
+        headers.clear();
+        
+        status = 200;
+    }
+
+    @Override
+    public void setLocale(Locale locale)
+    {
+        this.locale = locale;
+    }
+
+    @Override
+    public Locale getLocale()
+    {
+        return locale;
+    }
+}
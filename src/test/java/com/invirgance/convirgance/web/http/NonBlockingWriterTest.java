@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.http;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.output.Output;
+import com.invirgance.convirgance.output.OutputCursor;
+import com.invirgance.convirgance.target.Target;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class NonBlockingWriterTest
+{
+    @Test
+    public void testBackpressure() throws IOException
+    {
+        List<JSONObject> records = new ArrayList<>();
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        Iterable<JSONObject> iterable = () -> new Iterator<JSONObject>() {
+            
+            Iterator<JSONObject> iterator = records.iterator();
+            
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public JSONObject next()
+            {
+                read.incrementAndGet();
+                
+                return iterator.next();
+            }
+        };
+        
+        MockWriter writer;
+        StringBuilder expected = new StringBuilder();
+        
+        for(int i=0; i<5000; i++) 
+        {
+            JSONObject record = new JSONObject();
+            
+            record.put("id", i);
+            records.add(record);
+            expected.append(i).append('\n');
+        }
+        
+        writer = new MockWriter(iterable, completed::incrementAndGet);
+        
+        // Nothing is read while the client is not ready
+        writer.onWritePossible();
+        assertEquals(0, read.get());
+        
+        // A single write makes the stream not ready until the container calls back
+        writer.writes = 1;
+        writer.onWritePossible();
+        
+        assertTrue(read.get() > 0);
+        assertTrue(read.get() < records.size());
+        assertEquals(0, completed.get());
+        
+        while(completed.get() == 0)
+        {
+            writer.writes = 1;
+            writer.onWritePossible();
+        }
+        
+        assertEquals(records.size(), read.get());
+        assertEquals(1, completed.get());
+        assertEquals(expected.toString(), writer.out.toString("UTF-8"));
+    }
+    
+    @Test
+    public void testError() throws IOException
+    {
+        AtomicInteger completed = new AtomicInteger();
+        MockWriter writer = new MockWriter(new ArrayList<>(), completed::incrementAndGet);
+        
+        writer.onError(new IOException("Client disconnected"));
+        writer.onError(new IOException("Client disconnected"));
+        
+        assertEquals(1, completed.get());
+    }
+    
+    private static class MockWriter extends NonBlockingWriter
+    {
+        private ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int writes;
+
+        public MockWriter(Iterable<JSONObject> records, Runnable complete)
+        {
+            super(new LineOutput(), records, complete);
+        }
+
+        @Override
+        boolean isReady()
+        {
+            return writes > 0;
+        }
+
+        @Override
+        void write(byte[] data, int length)
+        {
+            out.write(data, 0, length);
+            writes--;
+        }
+    }
+    
+    private static class LineOutput implements Output
+    {
+        @Override
+        public OutputCursor write(Target target)
+        {
+            OutputStream out = target.getOutputStream();
+            
+            return new OutputCursor() {
+                
+                @Override
+                public void write(JSONObject record)
+                {
+                    try
+                    {
+                        out.write((record.get("id") + "\n").getBytes("UTF-8"));
+                    }
+                    catch(IOException e) { throw new RuntimeException(e); }
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+
+        @Override
+        public String getContentType()
+        {
+            return "text/plain";
+        }
+    }
+}
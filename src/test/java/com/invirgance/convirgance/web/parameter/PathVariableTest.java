@@ -136,6 +136,31 @@ public class PathVariableTest
         assertEquals("123", parameter.getValue(MockRequest.request("/test/bubba/123", "/test")));
     }
     
+    @Test
+    public void testSharedPathMatch()
+    {
+        var owner = new PathVariable();
+        var pet = new PathVariable();
+        var request = MockRequest.request("/test/owner/32/pet/Mr%20Whiskers", "/test");
+        
+        owner.setPath("/owner/{owner}/pet/*");
+        pet.setPath("/owner/*/pet/{pet}");
+        
+        assertEquals("32", owner.getValue(request));
+        assertEquals("Mr Whiskers", pet.getValue(request));
+        assertSame(request.getPathMatch(), request.getPathMatch());
+        assertArrayEquals(new String[]{ "", "owner", "32", "pet", "Mr%20Whiskers" }, request.getPathMatch().getSegments());
+        
+        pet.setPath("/test/owner/*/pet/{pet}");
+        assertEquals("Mr Whiskers", pet.getValue(request));
+        
+        pet.setPath("/owner/*/pets/{pet}");
+        assertNull(pet.getValue(request));
+        
+        pet.setPath("/owner/*/pet/xy{pet}ab");
+        assertNull(pet.getValue(MockRequest.request("/owner/32/pet/xab")));
+    }
+    
     public static class MockRequest
     {
         private String context;
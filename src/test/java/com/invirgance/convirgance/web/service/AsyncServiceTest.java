@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.service;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.service.RoutedServiceTest.MockService;
+import com.invirgance.convirgance.web.service.RoutedServiceTest.RouteRequest;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class AsyncServiceTest
+{
+    @Test
+    public void testFind()
+    {
+        RoutedService routed = new RoutedService();
+        AsyncService async = new AsyncService();
+        MockService export = new MockService();
+        MockService other = new MockService();
+        Map routes = new JSONObject();
+        
+        async.setService(export);
+        async.setTimeout(600000);
+        
+        routes.put("/export", async);
+        routes.put("/other", other);
+        routed.setRoutes((Map<String,Service>)routes);
+        
+        assertSame(async, AsyncService.find(async, new HttpRequest(new RouteRequest("/export"))));
+        assertSame(async, AsyncService.find(routed, new HttpRequest(new RouteRequest("/export"))));
+        assertNull(AsyncService.find(routed, new HttpRequest(new RouteRequest("/other"))));
+        assertNull(AsyncService.find(routed, new HttpRequest(new RouteRequest("/missing"))));
+        assertNull(AsyncService.find(null, new HttpRequest(new RouteRequest("/export"))));
+        
+        assertEquals(600000, async.getTimeout());
+        assertSame(export, async.getDestinationService(null));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.service;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.service.RoutedServiceTest.MockService;
+import com.invirgance.convirgance.web.service.RoutedServiceTest.RouteRequest;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares routing across 500 routes using the compiled route tree against
+ * the previous linear search that split every route on each request.<br>
+ * <br>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.invirgance.convirgance.web.service.RoutedServiceBenchmark
+ * </pre>
+ * 
+ * @author jbanes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutedServiceBenchmark
+{
+    private static final int ROUTES = 500;
+    
+    private RoutedService routed;
+    private RouteRequest[] requests;
+    private String[] paths;
+    private int index;
+    
+    @Setup
+    public void setup()
+    {
+        Map routes = new JSONObject();
+        
+        routed = new RoutedService();
+        requests = new RouteRequest[ROUTES];
+        paths = new String[ROUTES];
+        
+        for(int i=0; i<ROUTES/5; i++)
+        {
+            routes.put("/resource" + i, new MockService());
+            routes.put("/resource" + i + "/*", new MockService());
+            routes.put("/resource" + i + "/*/child", new MockService());
+            routes.put("/resource" + i + "/*/child/*", new MockService());
+            routes.put("/resource" + i + "/*/child/*/detail", new MockService());
+        }
+        
+        routed.setRoutes((Map<String,Service>)routes);
+        
+        for(int i=0; i<ROUTES; i++)
+        {
+            paths[i] = "/resource" + (i % (ROUTES/5)) + "/" + i + "/child/" + i;
+            requests[i] = new RouteRequest("/app" + paths[i], "/app");
+        }
+    }
+    
+    @Benchmark
+    public Service compiled()
+    {
+        if(index >= requests.length) index = 0;
+        
+        // A new wrapper per call so the parsed path is not reused between calls
+        return routed.getDestinationService(new HttpRequest(requests[index++]));
+    }
+    
+    @Benchmark
+    public Service linear()
+    {
+        if(index >= paths.length) index = 0;
+        
+        return RoutedServiceTest.linear(routed.getSortedKeys(), routed.getRoutes(), paths[index++]);
+    }
+    
+    public static void main(String[] args) throws Exception
+    {
+        new Runner(new OptionsBuilder().include(RoutedServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -27,7 +27,9 @@ import com.invirgance.convirgance.ConvirganceException;
 import com.invirgance.convirgance.json.JSONObject;
 import com.invirgance.convirgance.web.http.HttpRequest;
 import com.invirgance.convirgance.web.http.HttpResponse;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -67,6 +69,94 @@ public class RoutedServiceTest
         assertTrue(pet.isCalled());
     }
     
+    @Test
+    public void testPrecedence()
+    {
+        RoutedService routed = new RoutedService();
+        Map routes = new JSONObject();
+        
+        MockService owner = new MockService();
+        MockService ownerId = new MockService();
+        MockService pets = new MockService();
+        MockService pet = new MockService();
+        MockService root = new MockService();
+        
+        routes.put("/owner", owner);
+        routes.put("/owner/*", ownerId);
+        routes.put("/owner/*/pet", pets);
+        routes.put("/owner/*/pet/*", pet);
+        routes.put("/", root);
+        
+        routed.setRoutes((Map<String,Service>)routes);
+        
+        assertSame(owner, routed.getDestinationService(new HttpRequest(new RouteRequest("/owner"))));
+        assertSame(owner, routed.getDestinationService(new HttpRequest(new RouteRequest("/owner/"))));
+        assertSame(ownerId, routed.getDestinationService(new HttpRequest(new RouteRequest("/owner/32"))));
+        assertSame(ownerId, routed.getDestinationService(new HttpRequest(new RouteRequest("/owner/32/edit"))));
+        assertSame(pets, routed.getDestinationService(new HttpRequest(new RouteRequest("/owner/32/pet"))));
+        assertSame(pet, routed.getDestinationService(new HttpRequest(new RouteRequest("/owner/32/pet/12"))));
+        assertSame(pet, routed.getDestinationService(new HttpRequest(new RouteRequest("/app/owner/32/pet/12", "/app"))));
+        assertSame(root, routed.getDestinationService(new HttpRequest(new RouteRequest("/vet/12"))));
+        assertSame(root, routed.getDestinationService(new HttpRequest(new RouteRequest(""))));
+    }
+    
+    /**
+     * The routing algorithm prior to compiling routes into a tree. Used to
+     * verify that the compiled routes return the same results.
+     */
+    public static Service linear(List<String> sortedKeys, Map<String,Service> routes, String path)
+    {
+        String[] actual = path.split("/");
+        String[] components;
+
+        routes: for(String key : sortedKeys)
+        {
+            components = key.split("/");
+
+            if(actual.length < components.length) continue;
+            
+            for(int i=0; i<components.length; i++)
+            {
+                if(components[i].equals("*")) continue;
+                if(!actual[i].equals(components[i])) continue routes;
+            }
+
+            return routes.get(key);
+        }
+        
+        return null;
+    }
+    
+    @Test
+    public void testCompiledMatchesLinear()
+    {
+        String[] segments = { "owner", "pet", "vet", "*", "visit", "" };
+        Random random = new Random(42);
+        RoutedService routed = new RoutedService();
+        Map routes = new JSONObject();
+        StringBuilder path;
+        
+        for(int i=0; i<200; i++)
+        {
+            path = new StringBuilder();
+            
+            for(int j=random.nextInt(5); j>=0; j--) path.append('/').append(segments[random.nextInt(segments.length)]);
+            
+            routes.put(path.toString(), new MockService());
+        }
+        
+        routed.setRoutes((Map<String,Service>)routes);
+        
+        for(int i=0; i<1000; i++)
+        {
+            path = new StringBuilder();
+            
+            for(int j=random.nextInt(6); j>=0; j--) path.append('/').append(segments[random.nextInt(segments.length - 2)]).append(random.nextBoolean() ? "" : "/12");
+            
+            assertSame(linear(routed.getSortedKeys(), routed.getRoutes(), path.toString()), routed.getDestinationService(new HttpRequest(new RouteRequest(path.toString()))), path.toString());
+        }
+    }
+    
     public static class RouteRequest
     {
         private String path;
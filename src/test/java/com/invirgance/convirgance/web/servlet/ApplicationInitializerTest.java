@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.servlet;
+
+import com.invirgance.convirgance.ConvirganceException;
+import java.lang.reflect.Proxy;
+import javax.sql.DataSource;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author jbanes
+ */
+public class ApplicationInitializerTest
+{
+    private static DataSource mockDataSource()
+    {
+        return (DataSource)Proxy.newProxyInstance(ApplicationInitializerTest.class.getClassLoader(), new Class[]{ DataSource.class }, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+    
+    @Test
+    public void testCachedDBMS()
+    {
+        var first = mockDataSource();
+        var second = mockDataSource();
+        
+        ApplicationInitializer.register("jdbc/initializertest", first);
+        
+        var dbms = ApplicationInitializer.getDBMS("jdbc/initializertest");
+        
+        assertSame(dbms, ApplicationInitializer.getDBMS("jdbc/initializertest"));
+        assertSame(first, ApplicationInitializer.resolve("jdbc/initializertest"));
+        
+        // Registering a new data source replaces the cached DBMS
+        ApplicationInitializer.register("jdbc/initializertest", second);
+        
+        assertNotSame(dbms, ApplicationInitializer.getDBMS("jdbc/initializertest"));
+        assertSame(second, ApplicationInitializer.resolve("jdbc/initializertest"));
+        
+        dbms = ApplicationInitializer.getDBMS("jdbc/initializertest");
+        
+        ApplicationInitializer.invalidate("jdbc/initializertest");
+        
+        assertNotSame(dbms, ApplicationInitializer.getDBMS("jdbc/initializertest"));
+    }
+    
+    @Test
+    public void testMissingName()
+    {
+        assertThrows(ConvirganceException.class, () -> ApplicationInitializer.getDBMS(null));
+        assertThrows(ConvirganceException.class, () -> ApplicationInitializer.resolve(null));
+    }
+}
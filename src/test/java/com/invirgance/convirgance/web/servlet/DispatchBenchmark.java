@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.servlet;
+
+import com.invirgance.convirgance.dbms.DBMS;
+import com.invirgance.convirgance.dbms.Query;
+import com.invirgance.convirgance.web.http.MockJakartaRequest;
+import com.invirgance.convirgance.web.http.MockJakartaResponse;
+import jakarta.servlet.ServletContext;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the full request path from the servlet to the response body. Each
+ * request goes through {@link JakartaServicesServlet#handleRequest}, finds 
+ * the wiring file through the {@link ServiceLoader}, routes on the HTTP method
+ * with a RESTService, resolves a path variable and a request parameter, 
+ * queries an embedded H2 database with a SelectService and writes the rows
+ * with JSONOutput. Requests and responses are in-memory stand-ins, so the 
+ * numbers reflect the library rather than a container.<br>
+ * <br>
+ * Reports throughput, latency percentiles (sample time) and, through the GC 
+ * profiler, bytes allocated per request (<code>gc.alloc.rate.norm</code>).<br>
+ * <br>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.invirgance.convirgance.web.servlet.DispatchBenchmark
+ * </pre>
+ * 
+ * @author jbanes
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark
+{
+    private static final String JNDI = "jdbc/dispatch-benchmark";
+    
+    private static final String WIRING = 
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+        "<root>\n" +
+        "    <RESTService>\n" +
+        "        <GET>\n" +
+        "            <SelectService>\n" +
+        "                <parameters>\n" +
+        "                    <list>\n" +
+        "                        <PathVariable>\n" +
+        "                            <path>/api/customers/{id}</path>\n" +
+        "                        </PathVariable>\n" +
+        "                        <RequestParameter>\n" +
+        "                            <name>state</name>\n" +
+        "                        </RequestParameter>\n" +
+        "                    </list>\n" +
+        "                </parameters>\n" +
+        "                <binding>\n" +
+        "                    <QueryBinding>\n" +
+        "                        <jndiName>" + JNDI + "</jndiName>\n" +
+        "                        <sql>select * from customer where id &gt;= :id and state = :state order by id</sql>\n" +
+        "                    </QueryBinding>\n" +
+        "                </binding>\n" +
+        "                <output>\n" +
+        "                    <JSONOutput />\n" +
+        "                </output>\n" +
+        "            </SelectService>\n" +
+        "        </GET>\n" +
+        "    </RESTService>\n" +
+        "</root>\n";
+    
+    private File root;
+    private File wiring;
+    private JakartaServicesServlet servlet;
+    private MockJakartaRequest request;
+    private MockJakartaResponse response;
+    
+    private static ServletContext mockContext(File root)
+    {
+        return (ServletContext)Proxy.newProxyInstance(DispatchBenchmark.class.getClassLoader(), new Class[]{ ServletContext.class }, (proxy, method, args) -> {
+            if(method.getName().equals("getRealPath")) return new File(root, (String)args[0]).getPath();
+            
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+    
+    private static void createDatabase()
+    {
+        JdbcDataSource source = new JdbcDataSource();
+        DBMS dbms;
+        
+        source.setURL("jdbc:h2:mem:dispatch;DB_CLOSE_DELAY=-1");
+        
+        ApplicationInitializer.register(JNDI, source);
+        
+        dbms = new DBMS(source);
+        
+        dbms.update(new Query("create table if not exists customer (id int primary key, name varchar(64), email varchar(128), state varchar(2))"));
+        dbms.update(new Query("delete from customer"));
+        
+        for(int i=0; i<100; i++)
+        {
+            dbms.update(new Query("insert into customer values (" + i + ", 'Customer " + i + "', 'customer" + i + "@example.com', '" + (i % 2 == 0 ? "CA" : "NY") + "')"));
+        }
+    }
+    
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        root = Files.createTempDirectory("dispatch").toFile();
+        wiring = new File(root, "api/customers.xml");
+        
+        wiring.getParentFile().mkdirs();
+        
+        try(FileWriter writer = new FileWriter(wiring))
+        {
+            writer.write(WIRING);
+        }
+        
+        createDatabase();
+        
+        servlet = new JakartaServicesServlet();
+        request = new MockJakartaRequest("GET", "/app", "/api", "/customers/80");
+        response = new MockJakartaResponse();
+        
+        request.setParameter("state", "CA").setServletContext(mockContext(root));
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        ServiceLoader.getInstance().invalidate();
+        
+        wiring.delete();
+        wiring.getParentFile().delete();
+        root.delete();
+    }
+    
+    @Benchmark
+    public int dispatch() throws Exception
+    {
+        response.clear();
+        
+        servlet.handleRequest(request, response);
+        
+        if(response.getStatus() != 200) throw new IllegalStateException("Request failed with " + response.getStatus() + ": " + response.getMessage());
+        
+        return response.getBodyLength();
+    }
+    
+    public static void main(String[] args) throws Exception
+    {
+        new Runner(new OptionsBuilder()
+                .include(DispatchBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
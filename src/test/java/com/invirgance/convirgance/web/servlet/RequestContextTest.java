@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.servlet;
+
+import com.invirgance.convirgance.json.JSONObject;
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class RequestContextTest
+{
+    @Test
+    public void testServiceStateFacade()
+    {
+        HttpRequest request = new HttpRequest(new Object());
+        HttpResponse response = new HttpResponse(new Object());
+        JSONObject parameters = new JSONObject();
+        RequestContext context = RequestContext.open(request, response);
+        
+        try
+        {
+            ServiceState.set("parameters", parameters);
+            ServiceState.set("custom", "value");
+
+            assertSame(context, RequestContext.current());
+            assertSame(request, ServiceState.get("request"));
+            assertSame(response, ServiceState.get("response"));
+            assertSame(parameters, context.getParameters());
+            assertEquals("value", context.getAttribute("custom"));
+        }
+        finally
+        {
+            ServiceState.release();
+        }
+        
+        assertNull(RequestContext.current());
+        assertNull(ServiceState.get("request"));
+    }
+    
+    @Test
+    public void testPropagation() throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        RequestContext context = RequestContext.open(new HttpRequest(new Object()), null);
+        AtomicReference<RequestContext> seen = new AtomicReference<>();
+        Future<RequestContext> future;
+        
+        try
+        {
+            context.setParameters(new JSONObject());
+            
+            future = executor.submit(context.wrap(() -> RequestContext.current()));
+            assertSame(context, future.get());
+            
+            // The worker must not keep the context once the task finishes
+            assertNull(executor.submit(() -> RequestContext.current()).get());
+            
+            RequestContext.propagate(executor).execute(() -> seen.set(RequestContext.current()));
+            executor.submit(() -> {}).get();
+            
+            assertSame(context, seen.get());
+        }
+        finally
+        {
+            RequestContext.release();
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
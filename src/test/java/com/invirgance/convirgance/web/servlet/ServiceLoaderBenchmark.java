@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.servlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of resolving an already registered wiring file as the
+ * number of registered services grows. Lookup time should remain flat from
+ * 10 to 10,000 services.<br>
+ * <br>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.invirgance.convirgance.web.servlet.ServiceLoaderBenchmark
+ * </pre>
+ * 
+ * @author jbanes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceLoaderBenchmark
+{
+    @Param({"10", "100", "1000", "10000"})
+    public int services;
+    
+    private File root;
+    private ServiceLoader loader;
+    private jakarta.servlet.http.HttpServletRequest request;
+    private String[] paths;
+    private int index;
+    
+    private static jakarta.servlet.http.HttpServletRequest mockRequest(File root)
+    {
+        var loader = ServiceLoaderBenchmark.class.getClassLoader();
+        var context = Proxy.newProxyInstance(loader, new Class[]{ jakarta.servlet.ServletContext.class }, (proxy, method, args) -> {
+            if(method.getName().equals("getRealPath")) return new File(root, (String)args[0]).getPath();
+            
+            throw new UnsupportedOperationException(method.getName());
+        });
+        
+        return (jakarta.servlet.http.HttpServletRequest)Proxy.newProxyInstance(loader, new Class[]{ jakarta.servlet.http.HttpServletRequest.class }, (proxy, method, args) -> {
+            switch(method.getName())
+            {
+                case "getContextPath": return "";
+                case "getServletContext": return context;
+            }
+            
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+    
+    @Setup
+    public void setup() throws IOException
+    {
+        root = Files.createTempDirectory("services").toFile();
+        loader = new ServiceLoader();
+        request = mockRequest(root);
+        paths = new String[services];
+        
+        new File(root, "services").mkdirs();
+        
+        for(int i=0; i<services; i++)
+        {
+            paths[i] = "/services/service" + i;
+            
+            new File(root, paths[i] + ".xml").createNewFile();
+            loader.load(request, paths[i]);
+        }
+    }
+    
+    @TearDown
+    public void tearDown()
+    {
+        for(String path : paths) new File(root, path + ".xml").delete();
+        
+        new File(root, "services").delete();
+        root.delete();
+    }
+    
+    @Benchmark
+    public Object lookup()
+    {
+        if(index >= paths.length) index = 0;
+        
+        return loader.load(request, paths[index++]);
+    }
+    
+    public static void main(String[] args) throws Exception
+    {
+        new Runner(new OptionsBuilder().include(ServiceLoaderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 jbanes.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.invirgance.convirgance.web.servlet;
+
+import com.invirgance.convirgance.web.http.HttpRequest;
+import com.invirgance.convirgance.web.http.HttpResponse;
+import com.invirgance.convirgance.web.service.Service;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author jbanes
+ */
+public class ServiceLoaderTest
+{
+    public static jakarta.servlet.http.HttpServletRequest mockRequest(File root, String context)
+    {
+        return mockRequest(root, context, new AtomicInteger());
+    }
+    
+    public static jakarta.servlet.http.HttpServletRequest mockRequest(File root, String context, AtomicInteger lookups)
+    {
+        var loader = ServiceLoaderTest.class.getClassLoader();
+        var servletContext = Proxy.newProxyInstance(loader, new Class[]{ jakarta.servlet.ServletContext.class }, (proxy, method, args) -> {
+            if(method.getName().equals("getRealPath")) 
+            {
+                lookups.incrementAndGet();
+                
+                return new File(root, (String)args[0]).getPath();
+            }
+            
+            throw new UnsupportedOperationException(method.getName());
+        });
+        
+        return (jakarta.servlet.http.HttpServletRequest)Proxy.newProxyInstance(loader, new Class[]{ jakarta.servlet.http.HttpServletRequest.class }, (proxy, method, args) -> {
+            switch(method.getName())
+            {
+                case "getContextPath": return context;
+                case "getServletContext": return servletContext;
+            }
+            
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+    
+    @Test
+    public void testWiringPath()
+    {
+        assertEquals("/services/customers.xml", ServiceLoader.getWiringPath("/services/customers"));
+        assertEquals("/services/customers.xml", ServiceLoader.getWiringPath("/services/customers.xml"));
+        assertEquals("/services/customers/wiring.xml", ServiceLoader.getWiringPath("/services/customers/"));
+        assertEquals("/wiring.xml", ServiceLoader.getWiringPath("/"));
+        
+        assertEquals("/services/customers", ServiceLoader.getServicePath("/services/customers.xml"));
+        assertEquals("/services/customers", ServiceLoader.getServicePath("/services/customers/wiring.xml"));
+        assertEquals("", ServiceLoader.getServicePath("/wiring.xml"));
+    }
+    
+    @Test
+    public void testLoad() throws Exception
+    {
+        var root = Files.createTempDirectory("services").toFile();
+        var file = new File(root, "customers.xml");
+        var loader = new ServiceLoader();
+        var request = mockRequest(root, "/app");
+        
+        file.createNewFile();
+        
+        try
+        {
+            assertNull(loader.load(request, "/app/orders"));
+            assertEquals(0, loader.size());
+            
+            assertNotNull(loader.load(request, "/app/customers"));
+            assertSame(loader.load(request, "/app/customers"), loader.load(request, "/app/customers.xml"));
+            assertEquals(1, loader.size());
+        }
+        finally
+        {
+            file.delete();
+            root.delete();
+        }
+    }
+    
+    @Test
+    public void testConcurrentLoad() throws Exception
+    {
+        var root = Files.createTempDirectory("services").toFile();
+        var file = new File(root, "customers.xml");
+        var loader = new ServiceLoader();
+        var request = mockRequest(root, "");
+        var results = new ArrayList<Future<Object>>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        
+        file.createNewFile();
+        
+        try
+        {
+            for(int i=0; i<100; i++) results.add(executor.submit(() -> loader.load(request, "/customers")));
+            
+            for(var result : results) assertSame(results.get(0).get(), result.get());
+            
+            assertEquals(1, loader.size());
+        }
+        finally
+        {
+            executor.shutdown();
+            file.delete();
+            root.delete();
+        }
+    }
+    
+    @Test
+    public void testMissingCache() throws Exception
+    {
+        var root = Files.createTempDirectory("services").toFile();
+        var lookups = new AtomicInteger();
+        var loader = new ServiceLoader();
+        var request = mockRequest(root, "", lookups);
+        
+        try
+        {
+            assertNull(loader.get(request, "/customers/123"));
+            assertEquals(4, lookups.get());
+            
+            // Misses are now answered from the cache
+            assertNull(loader.get(request, "/customers/123"));
+            assertEquals(4, lookups.get());
+            
+            loader.invalidate();
+            
+            assertNull(loader.get(request, "/customers/123"));
+            assertEquals(8, lookups.get());
+            
+            loader.setMissingCacheTimeout(0);
+            
+            assertNull(loader.get(request, "/customers/123"));
+            assertEquals(12, lookups.get());
+        }
+        finally
+        {
+            root.delete();
+        }
+    }
+    
+    @Test
+    public void testPreload() throws Exception
+    {
+        var root = Files.createTempDirectory("services").toFile();
+        var files = new File[]{ 
+            new File(root, "services/customers.xml"), 
+            new File(root, "services/orders/wiring.xml"), 
+            new File(root, "services/orders/items.xml"),
+            new File(root, "WEB-INF/web.xml")
+        };
+        var loader = new ServiceLoader();
+        var request = mockRequest(root, "");
+        
+        for(var file : files)
+        {
+            file.getParentFile().mkdirs();
+            file.createNewFile();
+        }
+        
+        try
+        {
+            var results = loader.preload(request.getServletContext(), "/services", 2, false);
+            
+            assertEquals(3, results.size());
+            assertEquals(3, loader.size());
+            
+            assertSame(loader.load(request, "/services/orders/"), loader.load(request, "/services/orders/wiring.xml"));
+            assertEquals(3, loader.size());
+            
+            results = loader.preload(request.getServletContext(), "", 2, false);
+            
+            assertEquals(3, results.size());
+            assertEquals(3, loader.size());
+        }
+        finally
+        {
+            for(var file : files) file.delete();
+            
+            new File(root, "services/orders").delete();
+            new File(root, "services").delete();
+            new File(root, "WEB-INF").delete();
+            root.delete();
+        }
+    }
+    
+    @Test
+    public void testChanged() throws Exception
+    {
+        var root = Files.createTempDirectory("services").toFile();
+        var file = new File(root, "customers.xml");
+        var loader = new ServiceLoader();
+        var request = mockRequest(root, "");
+        
+        file.createNewFile();
+        
+        try
+        {
+            loader.setReloadMode(ServiceLoader.ReloadMode.FROZEN);
+            
+            assertNotNull(loader.load(request, "/customers"));
+            assertEquals(1, loader.size());
+            
+            // Modifications leave the service registered
+            loader.changed(file.getAbsoluteFile(), false);
+            assertEquals(1, loader.size());
+            
+            loader.changed(file.getAbsoluteFile(), true);
+            assertEquals(0, loader.size());
+            
+            assertNotNull(loader.load(request, "/customers"));
+            assertEquals(1, loader.size());
+            
+            file.delete();
+            loader.checkModified();
+            assertEquals(0, loader.size());
+        }
+        finally
+        {
+            loader.shutdown();
+            file.delete();
+            root.delete();
+        }
+    }
+    
+    @Test
+    public void testConcurrentReload() throws Exception
+    {
+        var root = Files.createTempDirectory("services").toFile();
+        var file = new File(root, "customers.xml");
+        var request = mockRequest(root, "");
+        var parses = new AtomicInteger();
+        var parsing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var start = new CountDownLatch(1);
+        var results = new ArrayList<Future<Service>>();
+        var threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Service previous;
+        long deadline;
+        
+        var loader = new ServiceLoader() {
+            @Override
+            Service parseWiring(File file)
+            {
+                // The reload holds the parse open until the test releases it
+                if(parses.incrementAndGet() > 1)
+                {
+                    parsing.countDown();
+                    
+                    try
+                    {
+                        release.await();
+                    }
+                    catch(InterruptedException e) { throw new RuntimeException(e); }
+                }
+                
+                return new Service() {
+                    @Override
+                    public void execute(HttpRequest request, HttpResponse response)
+                    {
+                    }
+                };
+            }
+        };
+        
+        file.createNewFile();
+        
+        try
+        {
+            previous = loader.get(request, "/customers");
+            
+            assertNotNull(previous);
+            assertEquals(0, loader.getReloadCount());
+            
+            file.setLastModified(file.lastModified() + 10000);
+            
+            for(int i=0; i<threads; i++)
+            {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return loader.get(request, "/customers");
+                }));
+            }
+            
+            start.countDown();
+            assertTrue(parsing.await(5, TimeUnit.SECONDS));
+            
+            // Every thread but the one parsing gets the previous service
+            deadline = System.currentTimeMillis() + 5000;
+            
+            while(results.stream().filter(Future::isDone).count() < threads - 1 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+            
+            assertEquals(threads - 1, results.stream().filter(Future::isDone).count());
+            
+            for(var result : results)
+            {
+                if(result.isDone()) assertSame(previous, result.get());
+            }
+            
+            release.countDown();
+            
+            for(var result : results) assertNotNull(result.get());
+            
+            assertEquals(1, loader.getReloadCount());
+            assertEquals(2, parses.get());
+            assertNotSame(previous, loader.get(request, "/customers"));
+            assertEquals(1, loader.getReloadCount());
+        }
+        finally
+        {
+            release.countDown();
+            executor.shutdown();
+            file.delete();
+            root.delete();
+        }
+    }
+}